@@ -33,6 +33,7 @@ public class Perel_hw1Simulator {
 	static long hypoMainMemory[] = new long[10000]; // main memory array (RAM), size of memory is 10000 words
 	static long mar, mbr, clock, IR, psr, pc, sp; // registers: mbr and mar are memory registers. psr, pc, sp, ir are cpu registers. clock register is system clock
 	static long gpr[] = new long[8]; // cpu gen-purpose address array
+	static long opAddress, opValue; // operand registers, fetchOperand() leaves the address and value of the fetched operand here
 
 	final static long PROGRAM_HALTED = 1; // halt instruction code
 	final static long OK = 0; // status code for successful execution
@@ -267,7 +268,6 @@ public class Perel_hw1Simulator {
 	 */
 	public static long CPU() {
 		final long HALT = 0;
-		returnFetchOps recieve; // create variable of class to hold 3 values at once (in object)
 		long remainder; // store value after performing remainder operation on IR register in OpCode
 		long status = 0; // store and return status of CPU
 
@@ -285,8 +285,8 @@ public class Perel_hw1Simulator {
 		long result = 0;
 
 		// addressing modes
-		long registerMode = 0;
-		long immediateMode = 0;
+		long registerMode = 1;
+		long immediateMode = 6;
 
 		do {
 
@@ -335,25 +335,23 @@ public class Perel_hw1Simulator {
 				}
 
 				case 1: { // add instruction
-					// pass argument variables to fetchOperand(), method performs appropriate op and returns object, use instance methods to retrieve object values in below variables
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					// pass argument variables to fetchOperand(), method performs appropriate op and returns status, operand value and address are read from the operand registers
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
 
-					if(!(status > 0))  {
+					if(status < 0) {
 						System.out.println(status);
 						return ERROR_INVALID_ADDRESS;
 					}
 
-					// pass argument variables to fetchOperand(), method performs appropriate op and returns object, use instance methods to retrieve object values in below variables
-					recieve = fetchOperand(Op2Mode, Op2GPR);
-					Op2Value = recieve.getOpValue();
-					Op2Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					// pass argument variables to fetchOperand(), method performs appropriate op and returns status, operand value and address are read from the operand registers
+					status = fetchOperand(Op2Mode, Op2GPR);
+					Op2Value = opValue;
+					Op2Address = opAddress;
 
-					// make sure instance variable status from object doesn't return error code value
-					if(!(status > 0)) {
+					// make sure status returned by fetchOperand() isn't an error code value
+					if(status < 0) {
 						System.out.println(status);
 						return ERROR_INVALID_ADDRESS;
 					}
@@ -375,24 +373,22 @@ public class Perel_hw1Simulator {
 
 				case 2: { // subtract instruction
 
-					// pass argument variables to fetchOperand(), method performs appropriate op and returns object, use instance methods to retrieve object values in below variables
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					// pass argument variables to fetchOperand(), method performs appropriate op and returns status, operand value and address are read from the operand registers
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
 
-					if(!(status > 0))  {
+					if(status < 0) {
 						System.out.println(status);
 						return ERROR_INVALID_ADDRESS;
 					}
 
-					// pass argument variables to fetchOperand(), method performs appropriate op and returns object, use instance methods to retrieve object values in below variables
-					recieve = fetchOperand(Op2Mode, Op2GPR);
-					Op2Value = recieve.getOpValue();
-					Op2Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					// pass argument variables to fetchOperand(), method performs appropriate op and returns status, operand value and address are read from the operand registers
+					status = fetchOperand(Op2Mode, Op2GPR);
+					Op2Value = opValue;
+					Op2Address = opAddress;
 
-					if(!(status > 0)) {
+					if(status < 0) {
 						System.out.println(status);
 						return ERROR_INVALID_ADDRESS;
 					}
@@ -413,23 +409,21 @@ public class Perel_hw1Simulator {
 
 				case 3: { // multiply instruction
 
-					// pass argument variables to fetchOperand(), method performs appropriate op and returns object, use instance methods to retrieve object values in below variables
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					// pass argument variables to fetchOperand(), method performs appropriate op and returns status, operand value and address are read from the operand registers
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
 
-					if(!(status > 0))  {
+					if(status < 0) {
 						System.out.println(status);
 						return ERROR_INVALID_ADDRESS;
 					}
 
-					recieve = fetchOperand(Op2Mode, Op2GPR);
-					Op2Value = recieve.getOpValue();
-					Op2Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					status = fetchOperand(Op2Mode, Op2GPR);
+					Op2Value = opValue;
+					Op2Address = opAddress;
 
-					if(!(status > 0)) {
+					if(status < 0) {
 						System.out.println(status);
 						return ERROR_INVALID_ADDRESS;
 					}
@@ -449,22 +443,20 @@ public class Perel_hw1Simulator {
 				}
 
 				case 4: { // divide instruction
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
 
-					if(!(status > 0))  {
+					if(status < 0) {
 						System.out.println(status);
 						return ERROR_INVALID_ADDRESS;
 					}
 
-					recieve = fetchOperand(Op2Mode, Op2GPR);
-					Op2Value = recieve.getOpValue();
-					Op2Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					status = fetchOperand(Op2Mode, Op2GPR);
+					Op2Value = opValue;
+					Op2Address = opAddress;
 
-					if(!(status > 0)) {
+					if(status < 0) {
 						System.out.println(status);
 						return ERROR_INVALID_ADDRESS;
 					}
@@ -490,22 +482,20 @@ public class Perel_hw1Simulator {
 				}
 
 				case 5: { // move instruction
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
 
-					if(!(status > 0))  {
+					if(status < 0) {
 						System.out.println(status);
 						return ERROR_INVALID_ADDRESS;
 					}
 
-					recieve = fetchOperand(Op2Mode, Op2GPR);
-					Op2Value = recieve.getOpValue();
-					Op2Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					status = fetchOperand(Op2Mode, Op2GPR);
+					Op2Value = opValue;
+					Op2Address = opAddress;
 
-					if(!(status > 0)) {
+					if(status < 0) {
 						System.out.println(status);
 						return ERROR_INVALID_ADDRESS;
 					}
@@ -537,12 +527,11 @@ public class Perel_hw1Simulator {
 				}
 
 				case 7: { // branch on minus instruction
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
 
-					if(!(status > 0))  {
+					if(status < 0) {
 						System.out.println(status);
 						return ERROR_INVALID_ADDRESS;
 					}
@@ -563,12 +552,11 @@ public class Perel_hw1Simulator {
 				}
 
 				case 8: { // branch on plus instruction
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
 
-					if(!(status > 0)) {
+					if(status < 0) {
 						System.out.println(status);
 						return ERROR_INVALID_ADDRESS;
 					}
@@ -589,12 +577,11 @@ public class Perel_hw1Simulator {
 				}
 
 				case 9: { // branch on zero instruction
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
 
-					if(!(status > 0)) {
+					if(status < 0) {
 						System.out.println(status);
 						return ERROR_INVALID_ADDRESS;
 					}
@@ -615,12 +602,11 @@ public class Perel_hw1Simulator {
 				}
 
 				case 10: { // push instruction
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
 
-					if(!(status > 0))  {
+					if(status < 0) {
 						System.out.println(status);
 						return ERROR_INVALID_ADDRESS;
 					}
@@ -631,12 +617,11 @@ public class Perel_hw1Simulator {
 				}
 
 				case 11: { // pop instruction
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
 
-					if(!(status > 0))  {
+					if(status < 0) {
 						System.out.println(status);
 						return ERROR_INVALID_ADDRESS;
 					}
@@ -677,13 +662,13 @@ public class Perel_hw1Simulator {
 	 *   Op1GPR 	    Operand GPR value
 	 *
 	 * Output Parameters:
-	 * 	 OpAddress		Address of operand
-	 * 	 OpValue		Operand value when mode and GPR are valid
+	 * 	 opAddress		Address of operand, left in the operand register
+	 * 	 opValue		Operand value when mode and GPR are valid, left in the operand register
 	 *
 	 * Function return values:
-	 *   @return returnFetchOps - Object that returns 3 things: status, OpValue, OpAddress
+	 *   @return stat - status of the fetch, OpAddress and OpValue are left in opAddress and opValue
 	 */
-	public static returnFetchOps fetchOperand(long OpMode, long OpGPR) {
+	public static long fetchOperand(long OpMode, long OpGPR) {
 		long OpAddress = 0;
 		long OpValue = 0;
 		long stat = 0;
@@ -748,8 +733,8 @@ public class Perel_hw1Simulator {
 				}
 				break;
 
-			case 6: // Immediate mode - operand value is in the instruction
-				if(pc <= 0 && pc >= 3499) {
+			case 6: // Immediate mode - operand value is in the instruction, the word pointed by PC
+				if(pc >= 0 && pc <= 3499) {
 					OpAddress = -1;
 					OpValue = hypoMainMemory[(int) pc++];
 				}
@@ -766,8 +751,10 @@ public class Perel_hw1Simulator {
 				break;
 		}
 
-		returnFetchOps returning = new returnFetchOps(stat, OpAddress, OpValue);
-		return returning;
+		// leave operand address and value in the operand registers, nothing is allocated per fetch
+		opAddress = OpAddress;
+		opValue = OpValue;
+		return stat;
 	}
 
 
@@ -826,28 +813,3 @@ public class Perel_hw1Simulator {
 		System.out.print("PSR: " + psr + "\n"); // display psr register information
 	}
 }
-
-
-
-/* class to return multiple values (status, Op1Address, Op1Value) to CPU at once */
-class returnFetchOps {
-	long stat;
-	long OpAddress;
-	long OpValue;
-
-	public returnFetchOps(long stat, long OpAddress, long OpValue) {
-		this.OpAddress = OpAddress;
-		this.OpValue = OpValue;
-		this.stat = stat;
-	}
-
-	long getOpAddress() {
-		return OpAddress;
-	}
-	long getOpValue() {
-		return OpValue;
-	}
-	long getStat() {
-		return stat;
-	}
-}
\ No newline at end of file
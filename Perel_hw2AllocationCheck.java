@@ -0,0 +1,149 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Allocation check for Perel_hw2Simulator, kept out of the simulator itself.
+ *
+ * Shows that a steady state run allocates nothing per instruction. Boots a HYPO machine, loads
+ * operands.txt, a loop of add, subtract and move instructions with register, direct and immediate
+ * operands, warms up the operand fetch path and the CPU, then measures the heap bytes allocated by
+ * this thread over many more fetches and time slices. Needs a JVM whose thread bean counts allocated
+ * bytes (com.sun.management.ThreadMXBean, as HotSpot's does).
+ *
+ *  javac Perel_hw2Simulator.java Perel_hw2AllocationCheck.java
+ *  java Perel_hw2AllocationCheck
+ */
+public class Perel_hw2AllocationCheck {
+	final static String PROGRAM = "operands.txt"; // operand instruction loop run on the CPU
+	final static int WARMUP_CALLS = 10; // warmup runs, enough for the JIT to compile the rounds as a whole method and not only their loop
+	final static int WARMUP_ROUNDS = 20000; // rounds of every warmup run
+	final static int MEASURED_ROUNDS = 200000; // rounds the allocated bytes are measured over
+	static long checksum; // sum of the fetched operand values, stored so the JIT cannot remove the fetches
+	static HypoMachine machine = new HypoMachine(); // the machine the check runs on, tracing to the console
+
+
+
+	public static void main(String[] args) throws IOException {
+		if(checkAllocationRate() < 0) {
+			System.exit(1);
+		}
+	}
+
+
+
+	/**
+	 * Method Name: checkAllocationRate
+	 *
+	 * Method Description:
+	 *  Boot the machine, run the warmup rounds, then measure the heap bytes this thread
+	 *  allocates over the measured rounds and report them per fetch or instruction.
+	 *
+	 * Input Parameters:
+	 *  None
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return OK: if nothing was allocated during the measured run
+	 *  @return RUN_TIME_ERROR: if the program did not load or run, or the measured run allocated heap memory
+	 *  @throws IOException
+	 */
+	public static long checkAllocationRate() throws IOException {
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadID = Thread.currentThread().getId();
+		threadBean.getThreadAllocatedBytes(threadID); // the first call allocates, keep it out of the measurement
+
+		machine.initializeSystem(); // creates the null process from p1.txt
+
+		if(machine.createProcess(PROGRAM, HypoMachine.DEFAULT_PRIORITY) < 0) {
+			System.out.println("Error: cannot load " + PROGRAM + ". Returning error code: " + HypoMachine.RUN_TIME_ERROR);
+			return HypoMachine.RUN_TIME_ERROR;
+		}
+		long PCBptr = machine.selectProcessFromRQ(); // the operand loop, it outranks the null process
+
+		for(int call = 0; call < WARMUP_CALLS; call++) {
+			if(runRounds(PCBptr, WARMUP_ROUNDS) < 0) {
+				return HypoMachine.RUN_TIME_ERROR;
+			}
+		}
+
+		long instructionsBefore = machine.instructionCount;
+		long bytesBefore = threadBean.getThreadAllocatedBytes(threadID);
+		long fetches = runRounds(PCBptr, MEASURED_ROUNDS);
+		long allocatedBytes = threadBean.getThreadAllocatedBytes(threadID) - bytesBefore;
+		long instructions = machine.instructionCount - instructionsBefore;
+
+		if(fetches < 0) {
+			return HypoMachine.RUN_TIME_ERROR;
+		}
+
+		System.out.println("\n\nAllocation check: " + allocatedBytes + " bytes allocated over " + fetches
+				+ " operand fetches and " + instructions + " instructions ("
+				+ ((double) allocatedBytes / (fetches + instructions)) + " bytes per fetch or instruction)");
+
+		if(allocatedBytes > 0) {
+			System.out.println("Error: steady state run allocated heap memory. Returning error code: " + HypoMachine.RUN_TIME_ERROR);
+			return HypoMachine.RUN_TIME_ERROR;
+		}
+
+		return HypoMachine.OK;
+	}
+
+
+
+	/**
+	 * Method Name: runRounds
+	 *
+	 * Method Description:
+	 *  Each round fetches one operand in every error free addressing mode and gives the CPU
+	 *  one time slice of the given process. A round that does not end with the time slice
+	 *  used up is an error, the loop never halts.
+	 *
+	 * Input Parameters:
+	 *  @param PCBptr: PCB of the process to run on the CPU
+	 *  @param rounds: number of rounds to run
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return fetches: number of operand fetches done
+	 *  @return RUN_TIME_ERROR: the program stopped before its time slice was used up
+	 */
+	public static long runRounds(long PCBptr, int rounds) {
+		long fetches = 0;
+
+		for(int round = 0; round < rounds; round++) {
+			machine.gpr[1] = machine.userFreeStart;
+			machine.gpr[2] = machine.userFreeStart + 1;
+
+			for(long mode = 1; mode <= 4; mode++) {
+				machine.fetchOperand(mode, 2);
+				checksum += machine.opValue;
+				fetches++;
+			}
+
+			machine.pc = 1; // word 1 of the null process holds address 0
+			machine.fetchOperand(5, 1);
+			checksum += machine.opValue;
+			fetches++;
+
+			machine.pc = 1;
+			machine.fetchOperand(6, 1);
+			checksum += machine.opValue;
+			fetches++;
+
+			machine.dispatcher(PCBptr);
+			long status = machine.CPU();
+			machine.saveContext(PCBptr);
+
+			if(status != HypoMachine.TIME_SLICE_EXPIRED) {
+				System.out.println("Error: " + PROGRAM + " stopped with status " + status + ". Returning error code: " + HypoMachine.RUN_TIME_ERROR);
+				return HypoMachine.RUN_TIME_ERROR;
+			}
+		}
+
+		return fetches;
+	}
+}
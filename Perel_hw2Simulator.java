@@ -1,9 +1,35 @@
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Scanner;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * @authors Brian Perel, Jon Petani 
@@ -60,10 +86,388 @@ import java.util.Scanner;
  */
 public class Perel_hw2Simulator {
 
+	/**
+	 * Method Name: main
+	 * 
+	 * Method Description: 
+	 *   Read the command line options, build the HYPO machine and run its OS.
+	 *   With -machines=<count> that many independent machines run side by side on a
+	 *   pool of -threads=<count> threads (default: one per host core), each taking
+	 *   its interrupts from its own copy of the -interrupts=<file> script.
+	 *
+	 * Input Parameters:
+	 *   @param args: command line arguments
+	 *   @throws IOException
+	 *
+	 * Output Parameters:
+	 *   None
+	 *
+	 * Method Return Values:
+	 *	 note: can't return from main in Java, so instead I put print statements with error
+	 *   @return ErrorFileOpen: returns file open error code if the interrupt script can't be opened
+	 *   @return OK: returns successful execution code
+	 */
+	public static void main(String[] args) throws IOException {
+
+		String trace = "console"; // trace sink option
+		int traceLevel = HypoMachine.TRACE_DETAIL; // trace verbosity option
+		String script = null; // interrupt script, null to take interrupts from the console
+		int machineCount = 1; // number of machines to run
+		int threadCount = Runtime.getRuntime().availableProcessors(); // number of host threads running machines
+		String allocator = "firstfit"; // memory allocator of the OS and user free areas
+		boolean allocatorStatistics = false; // report allocator counters at shutdown
+		String scheduler = "priority"; // CPU scheduling policy
+		int coreCount = 1; // simulated cores of every machine
+		boolean ioDevices = false; // asynchronous keyboard and console devices complete io_getc and io_putc
+		long ioLatency = HypoMachine.DEFAULT_IO_LATENCY; // clock ticks an I/O request takes
+		String keyboardFile = null; // keyboard input of the devices, null for the standard input
+		boolean relocating = false; // load every program into a segment of its own
+		boolean paging = false; // load every program into pages mapped to frames
+		String replacement = null; // page replacement policy of demand paging, null without demand paging
+		String swapFileName = null; // swap file of demand paging, null for a temporary file
+		String memoryBackend = "heap"; // where main memory is kept: heap, offheap or sparse
+		long memoryWords = HypoMachine.MAX_MEMORY_ADDRESS + 1; // words of main memory
+		long userFreeStart = -1; // first address of the user free area when it is moved, -1 to keep it at 2500
+		long userFreeWords = 0; // words of the moved user free area
+
+		for(String arg : args) {
+			// choose where trace output goes: console, none, file:<name> or ring:<events>
+			if(arg.startsWith("-trace=")) {
+				trace = arg.substring("-trace=".length());
+			}
+
+			// choose how much is traced
+			else if(arg.startsWith("-tracelevel=")) {
+				traceLevel = Integer.parseInt(arg.substring("-tracelevel=".length()));
+			}
+
+			// take interrupts from a script instead of the console
+			else if(arg.startsWith("-interrupts=")) {
+				script = arg.substring("-interrupts=".length());
+			}
+
+			// run many independent machines
+			else if(arg.startsWith("-machines=")) {
+				machineCount = Integer.parseInt(arg.substring("-machines=".length()));
+			}
+
+			// number of host threads running the machines
+			else if(arg.startsWith("-threads=")) {
+				threadCount = Integer.parseInt(arg.substring("-threads=".length()));
+			}
+
+			// choose the memory allocator: firstfit, buddy or segregated
+			else if(arg.startsWith("-allocator=")) {
+				allocator = arg.substring("-allocator=".length());
+			}
+
+			// report allocator counters at shutdown
+			else if(arg.equals("-allocatorstats")) {
+				allocatorStatistics = true;
+			}
+
+			// choose the CPU scheduling policy: priority (priority round robin), strict (strict priority), fcfs
+			// (first come first served), mlfq (multi-level feedback queue), fair (fair share by virtual runtime)
+			// or edf (earliest deadline first, run program interrupts then also give a period and a relative deadline)
+			else if(arg.startsWith("-scheduler=")) {
+				scheduler = arg.substring("-scheduler=".length());
+			}
+
+			// simulate a multi-core machine, every core runs on its own host thread
+			else if(arg.startsWith("-cores=")) {
+				coreCount = Integer.parseInt(arg.substring("-cores=".length()));
+			}
+
+			// complete io_getc and io_putc with keyboard and console devices on their own threads instead of interrupts 3 and 4
+			else if(arg.equals("-iodevices")) {
+				ioDevices = true;
+			}
+
+			// clock ticks an I/O request of the devices takes
+			else if(arg.startsWith("-iolatency=")) {
+				ioLatency = Long.parseLong(arg.substring("-iolatency=".length()));
+			}
+
+			// read the keyboard input of the devices from a file
+			else if(arg.startsWith("-keyboard=")) {
+				keyboardFile = arg.substring("-keyboard=".length());
+			}
+
+			// load every program into a segment of its own with base and limit registers instead of at its absolute addresses
+			else if(arg.equals("-relocate")) {
+				relocating = true;
+			}
+
+			// load every program into pages mapped to frames by a page table of its own, translated through a TLB
+			else if(arg.equals("-paging")) {
+				relocating = paging = true;
+			}
+
+			// bring pages in from a swap file on their first reference, evicting pages chosen by the
+			// replacement policy: lru, clock, secondchance or workingset
+			else if(arg.startsWith("-swap=")) {
+				replacement = arg.substring("-swap=".length());
+				relocating = paging = true;
+			}
+
+			// keep the swap file of demand paging in the given file instead of a temporary one
+			else if(arg.startsWith("-swapfile=")) {
+				swapFileName = arg.substring("-swapfile=".length());
+			}
+
+			// choose where main memory is kept: heap (Java heap), offheap (direct buffers) or sparse (allocated when written)
+			else if(arg.startsWith("-memorybackend=")) {
+				memoryBackend = arg.substring("-memorybackend=".length());
+			}
+
+			// number of words of main memory, at least 10000
+			else if(arg.startsWith("-memory=")) {
+				memoryWords = Long.parseLong(arg.substring("-memory=".length()));
+			}
+
+			// move the user free area to <start>:<words>, above the standard layout (10000 and up)
+			else if(arg.startsWith("-userfree=")) {
+				String area[] = arg.substring("-userfree=".length()).split(":");
+				userFreeStart = Long.parseLong(area[0]);
+				userFreeWords = Long.parseLong(area[1]);
+			}
+		}
+
+		// machines running side by side can't all prompt the same console
+		if(machineCount > 1 && script == null) {
+			System.out.println("\nError: running more than one machine needs an interrupt script (-interrupts=<file>). Error code: " + HypoMachine.ERROR_INVALID_ID);
+			return;
+		}
+
+		// the keyboard device can only have the console to itself when no one types interrupts there
+		if(ioDevices && keyboardFile == null && (script == null || machineCount > 1)) {
+			System.out.println("\nError: the keyboard device reads the console only with an interrupt script and one machine, give a -keyboard=<file>. Error code: " + HypoMachine.ERROR_INVALID_ID);
+			return;
+		}
+
+		// the standard layout has to fit, a moved user free area has to be above it and inside memory
+		if(memoryWords < HypoMachine.MAX_MEMORY_ADDRESS + 1) {
+			System.out.println("\nError: main memory needs at least " + (HypoMachine.MAX_MEMORY_ADDRESS + 1) + " words. Error code: " + HypoMachine.ERROR_INVALID_MEMORY_SIZE);
+			return;
+		}
+
+		if(userFreeStart != -1 && (userFreeStart <= HypoMachine.MAX_MEMORY_ADDRESS || userFreeWords < 2 || userFreeStart + userFreeWords > memoryWords)) {
+			System.out.println("\nError: the user free area has to be at least 2 words between " + (HypoMachine.MAX_MEMORY_ADDRESS + 1) + " and " + memoryWords + ". Error code: " + HypoMachine.ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS);
+			return;
+		}
+
+		List<HypoMachine> machines = new ArrayList<HypoMachine>();
+
+		for(int number = 1; number <= machineCount; number++) {
+			HypoMachine machine = new HypoMachine();
+
+			// memory the host cannot give (Java heap or -XX:MaxDirectMemorySize) is reported like an unknown backend
+			try {
+				machine.hypoMainMemory = machine.createMemory(memoryBackend, memoryWords);
+			}
+			catch(OutOfMemoryError e) {
+				machine.hypoMainMemory = null;
+			}
+
+			if(machine.hypoMainMemory == null) {
+				System.out.println("\nError: no " + memoryBackend + " memory of " + memoryWords + " words, use heap (up to " + HeapMemory.MAX_WORDS + " words), offheap or sparse. Error code: " + HypoMachine.ERROR_INVALID_MEMORY_SIZE);
+				return;
+			}
+
+			if(userFreeStart != -1) {
+				machine.userFreeStart = userFreeStart;
+				machine.userFreeSize = userFreeWords;
+				machine.userFreeEnd = userFreeStart + userFreeWords - 1;
+			}
+			machine.traceLevel = traceLevel;
+			machine.allocatorStatistics = allocatorStatistics;
+			machine.osAllocator = machine.createAllocator(allocator);
+			machine.userAllocator = machine.createAllocator(allocator);
+			machine.programAllocator = machine.createAllocator(allocator);
+			machine.relocating = relocating;
+			machine.paging = paging;
+
+			if(machine.osAllocator == null) {
+				System.out.println("\nError: unknown allocator " + allocator + ", use firstfit, buddy or segregated. Error code: " + HypoMachine.ERROR_INVALID_ID);
+				return;
+			}
+
+			machine.scheduler = machine.createScheduler(scheduler);
+
+			if(machine.scheduler == null) {
+				System.out.println("\nError: unknown scheduler " + scheduler + ", use priority, strict, fcfs, mlfq, fair or edf. Error code: " + HypoMachine.ERROR_INVALID_ID);
+				return;
+			}
+
+			if(coreCount > 1 && !machine.scheduler.sharedByCores()) {
+				System.out.println("\nError: scheduler " + scheduler + " runs on one core only, use priority, strict or fcfs with -cores. Error code: " + HypoMachine.ERROR_INVALID_ID);
+				return;
+			}
+			machine.coreCount = Math.max(1, coreCount);
+
+			if(replacement != null) {
+				machine.replacementPolicy = machine.createReplacementPolicy(replacement);
+
+				if(machine.replacementPolicy == null) {
+					System.out.println("\nError: unknown page replacement policy " + replacement + ", use lru, clock, secondchance or workingset. Error code: " + HypoMachine.ERROR_INVALID_ID);
+					return;
+				}
+
+				if(coreCount > 1) {
+					System.out.println("\nError: demand paging runs on one core only. Error code: " + HypoMachine.ERROR_INVALID_ID);
+					return;
+				}
+
+				// one swap file per machine when there are several
+				machine.swapFile = new SwapFile((swapFileName == null || machineCount == 1) ? swapFileName : swapFileName + "." + number,
+						HypoMachine.SWAP_SLOTS, HypoMachine.PAGE_SIZE);
+				machine.demandPaging = true;
+			}
+
+			if(trace.equals("none")) {
+				machine.traceSink = new NullTraceSink();
+				machine.traceLevel = HypoMachine.TRACE_OFF;
+			}
+			else if(trace.startsWith("file:")) {
+				// one trace file per machine when there are several
+				String filename = trace.substring("file:".length());
+				try {
+					machine.traceSink = new BufferedFileTraceSink(machineCount > 1 ? filename + "." + number : filename);
+				}
+				catch(IOException e) {
+					// keep the console sink, the error goes through it like any other
+					machine.traceln(HypoMachine.TRACE_ERRORS, "\nError: couldn't open the trace file, tracing to the console instead. Error code: " + HypoMachine.ERROR_FILE_OPEN);
+				}
+			}
+			else if(trace.startsWith("ring:")) {
+				machine.traceSink = new RingBufferTraceSink(Integer.parseInt(trace.substring("ring:".length())));
+			}
+
+			if(script != null) {
+				try {
+					machine.interruptSource = new ScriptedInterruptSource(script);
+				}
+				catch(IOException e) {
+					System.out.println("\nError: couldn't open the interrupt script. Returning error code: " + HypoMachine.ERROR_FILE_OPEN);
+					return;
+				}
+			}
+
+			if(ioDevices) {
+				try {
+					machine.keyboard = new KeyboardDevice(machine, (keyboardFile == null) ? new InputStreamReader(System.in) : new FileReader(keyboardFile));
+				}
+				catch(IOException e) {
+					System.out.println("\nError: couldn't open the keyboard input. Returning error code: " + HypoMachine.ERROR_FILE_OPEN);
+					return;
+				}
+				machine.console = new ConsoleDevice(machine);
+				machine.ioLatency = ioLatency;
+			}
+
+			machines.add(machine);
+		}
+
+		if(machineCount == 1) {
+			try {
+				machines.get(0).run();
+			}
+			finally {
+				// flush the trace (the ring buffer sink dumps its last events here, also when the simulation crashed)
+				machines.get(0).traceSink.close();
+			}
+			return;
+		}
+
+		runMachines(machines, threadCount);
+	}
+
+
+
+	/**
+	 * Method Name: runMachines
+	 * 
+	 * Method Description: 
+	 *   Run many independent HYPO machines in parallel on a fixed pool of host threads,
+	 *   wait for all of them to shut down and report how long it took. Each machine owns
+	 *   all of its memory, registers, queues and free lists, so they share nothing.
+	 *
+	 * Input Parameters:
+	 *   @param machines: the machines to run, each with its own interrupt source and trace sink
+	 *   @param threadCount: number of host threads
+	 *
+	 * Output Parameters:
+	 *   None
+	 *
+	 * Method Return Values:
+	 *   @return OK: if every machine shut down normally
+	 *   @return RUN_TIME_ERROR: if a machine stopped with an exception
+	 */
+	public static long runMachines(List<HypoMachine> machines, int threadCount) {
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threadCount));
+		List<Future<Long>> results = new ArrayList<Future<Long>>();
+		long status = HypoMachine.OK;
+		long startTime = System.nanoTime();
+
+		for(HypoMachine machine : machines) {
+			results.add(pool.submit(() -> {
+				try {
+					return machine.run();
+				}
+				finally {
+					machine.traceSink.close();
+				}
+			}));
+		}
+
+		for(int i = 0; i < results.size(); i++) {
+			try {
+				results.get(i).get();
+			}
+			catch(InterruptedException | ExecutionException e) {
+				System.out.println("\nError: machine " + (i + 1) + " stopped: " + e.getCause() + ". Error code: " + HypoMachine.RUN_TIME_ERROR);
+				status = HypoMachine.RUN_TIME_ERROR;
+			}
+		}
+
+		pool.shutdown();
+
+		System.out.println("\n" + machines.size() + " machines ran on " + threadCount + " threads in "
+				+ (System.nanoTime() - startTime) / 1000000 + " ms");
+
+		return status;
+	}
+}
+
+
+
+/* HYPO machine: the simulated hardware (memory, registers, clock) and the OS state running on it (ready and waiting queues,
+free lists, process IDs, interrupt source and trace sink). Every machine is its own instance, so many of them can run in one JVM.
+The cores of a multi-core machine are instances too, sharing the memory and OS state of their machine. */
+class HypoMachine {
+
 	/* HYPO Machine hardware components global variables (here we are simulating the hardware components by software) */
-	static long hypoMainMemory[] = new long[10000]; // simulation of main memory array (RAM), size of memory is 10000 words
-	static long mar, mbr, clock, IR, psr, pc, sp; // simulation of memory addresses
-	static long gpr[] = new long[8]; // simulation of general purpose registers, 0 to 7 (size 8)
+	MainMemory hypoMainMemory = new HeapMemory(MAX_MEMORY_ADDRESS + 1); // simulation of main memory (RAM), 10000 words unless -memory=<words> is given
+	long mar, mbr, clock, IR, psr, pc, sp; // simulation of memory addresses
+	long base = 0, limit = USER_PROGRAM_AREA_SIZE; // base and limit registers, the CPU relocates program addresses by base and faults those at or past limit
+	long gpr[] = new long[8]; // simulation of general purpose registers, 0 to 7 (size 8)
+	long opAddress, opValue; // simulation of operand registers, fetchOperand() leaves the address and value of the fetched operand here
+	long instructionCount; // number of instructions fetched by the CPU since the system was initialized
+	
+	/* Decoded instruction cache, a side table indexed by instruction address (0 - 2499, the part of the user program area the CPU fetches from).
+	Each entry holds the opcode, both operand modes and both operand GPRs of the word at that address packed into one int, so the
+	decode cycle is done once per address rather than on every fetch. An entry of 0 means the address has not been decoded yet.
+	Entries are invalidated whenever something is written into the code region (absolute loader or a CPU store into 0 - 2499).
+	Every entry is also tagged with the word it was decoded from, so a write that slips past invalidation (for example the
+	OS touching address 0 through an END_OF_LIST PCB pointer) can never hand the CPU a stale decode. */
+	final static int DECODE_CACHE_SIZE = 2500; // number of instruction addresses covered by the decoded instruction cache
+	final static int DECODE_CACHE_VALID = 1 << 20; // bit set in a cache entry to mark it as holding a decoded instruction
+	int decodedInstructionCache[] = new int[DECODE_CACHE_SIZE]; // packed opcode, modes and GPRs per address
+	long decodedInstructionWord[] = new long[DECODE_CACHE_SIZE]; // instruction word each cache entry was decoded from
+	
+	/* Atomic instructions. Compare and swap (13) and fetch and add (14) let the processes on the cores of a multi-core machine
+	share locks and counters without the system call path. Both read and write their memory operand in one atomic operation
+	of the host (MainMemory.compareAndExchange() and getAndAdd()), and leave the old value of the memory word in GPR0. */
 	
 	/* PCB is an array located in HYPO machine's OS dynamic main memory area. 
 	PCB is a data structure used by OS to store all information about a process, 
@@ -97,15 +501,27 @@ public class Perel_hw2Simulator {
 	static int PSRIndex = 21;
 	
 	final static long END_OF_LIST = -1; // variable to indicate that end of OS or User Free List has been encountered
-	static long RQ = END_OF_LIST; // ready queue is set to end of list, ready queue is the list where processes that are ready to run are held 
-	static long WQ = END_OF_LIST; // waiting queue is set to end of list, waiting queue is the list where processes that are waiting to be run are held 
-	static long OSFreeList = END_OF_LIST; // set User Free List to empty list
-	static long UserFreeList = END_OF_LIST; // set User Free List to empty list
-	static long ProcessID = 1; // variable to hold the current process ID, incremented by 1 every time a new process is created. PID is a unique ID assigned to every process when it is created
+	long RQ = END_OF_LIST; // ready queue is set to end of list, ready queue is the list where processes that are ready to run are held 
+	final static int PRIORITY_LEVELS = 256; // ready queue priority levels 0 to 255, DEFAULT_PRIORITY is the middle level
+	long readyLevelBitmap[] = new long[PRIORITY_LEVELS / 64]; // one bit per priority level, set while the level holds a ready PCB
+	long readyLevelHead[] = new long[PRIORITY_LEVELS]; // first (oldest) PCB of every priority level in RQ
+	long readyLevelTail[] = new long[PRIORITY_LEVELS]; // last (newest) PCB of every priority level in RQ
+	long readyPrevious[] = new long[(int) MAX_MEMORY_ADDRESS + 1]; // previous PCB of the same priority level, indexed by PCB address
+	int readyLevelOf[] = new int[(int) MAX_MEMORY_ADDRESS + 1]; // level a PCB was queued on, indexed by PCB address
+	long WQ = END_OF_LIST; // waiting queue is set to end of list, waiting queue is the list where processes that are waiting to be run are held 
+	long waitingPrevious[] = new long[(int) MAX_MEMORY_ADDRESS + 1]; // previous PCB in WQ, indexed by PCB address, makes WQ doubly linked
+	final static int PID_TABLE_SIZE = 512; // starting number of slots of the PID table, always a power of 2
+	long pidTableKeys[] = new long[PID_TABLE_SIZE]; // PIDs of all live processes, open addressing with linear probing, 0 marks a free slot
+	long pidTablePCBs[] = new long[PID_TABLE_SIZE]; // PCB address of the PID in the same slot of pidTableKeys
+	int pidTableCount = 0; // number of PIDs in the PID table
+	MemoryAllocator osAllocator = new FirstFitAllocator(this); // allocator of the OS free area (PCBs), first fit free list unless -allocator=<name> is given
+	MemoryAllocator userAllocator = new FirstFitAllocator(this); // allocator of the user free area (stacks, mem_alloc system call)
+	boolean allocatorStatistics = false; // report allocator counters at shutdown (-allocatorstats)
+	long ProcessID = 1; // variable to hold the current process ID, incremented by 1 every time a new process is created. PID is a unique ID assigned to every process when it is created
 	static long stackSize = 10; // size of the memory stack 
 	static long OSMode = 1; // variable to set system mode to OS Mode, Mode 1 
 	static long UserMode = 2; // variable to set system mode to User Mode, Mode 2 
-	static boolean shutdown = false; // flag used to indicate the HYPO Machine should shutdown
+	volatile boolean shutdown = false; // flag used to indicate the HYPO Machine should shutdown, read by the cores of a multi-core machine
 	
 	/* As a process executes its program (instructions) will go through several states, a process in MTOPS can be 
 	1 of 3 states: ready state, running state, waiting state. When a process is selected by the OS to give CPU, 
@@ -116,6 +532,27 @@ public class Perel_hw2Simulator {
 	final static long WAITING_STATE = 2; // variable to indicate process waiting state. State transition 2 of process scheduling. 
 	final static long RUNNING_STATE = 3; // variable to indicate process running state. State transition 3 of process scheduling. 
 	final static long TIMESLICE = 200; // variable time slice is set to 200 clock ticks, a time slice is the amount of time a process is allowed to run uninterrupted (CPU is only given a process for a fixed time)
+	long timeSlice = TIMESLICE; // time slice of the process given the CPU next, set by the scheduler before CPU() runs
+	SchedulerPolicy scheduler = new PriorityRoundRobinPolicy(); // CPU scheduling policy: where ready processes go in RQ, who runs next and for how long (-scheduler=<name>)
+	long processPeriod[] = new long[(int) MAX_MEMORY_ADDRESS + 1]; // real time period of every process in clock ticks (0: not periodic), indexed by PCB address since the PCB has no room
+	long processRelativeDeadline[] = new long[(int) MAX_MEMORY_ADDRESS + 1]; // real time deadline of every process relative to its release (0: none), indexed by PCB address
+
+	/* Multi-core mode (-cores=<n>). Every core is a HypoMachine of its own with its own registers, decoded instruction cache
+	and RQ, running its processes on its own host thread. The cores share main memory and the OS state of the
+	machine they belong to (the kernel): WQ, the PID table, the PCB slab and both allocators are only touched while holding the
+	kernel's lock, a core's RQ only while holding the core's lock (the kernel's lock first when both are needed). The kernel thread
+	services the interrupts and puts ready processes on the core with the shortest RQ, an idle core steals from the longest one. */
+	final static long IDLE_WAIT_MILLIS = 1; // longest time an idle core or the interrupt thread sleeps before looking for work again
+	int coreCount = 1; // number of simulated cores, set with -cores=<n>
+	HypoMachine cores[]; // cores of a multi-core machine, null when the machine runs on one core
+	HypoMachine kernel = this; // machine whose OS state this core uses, the machine itself unless it is a core
+	int coreNumber = 0; // number of this core in the kernel's cores
+	int readyCount = 0; // PCBs in the RQ levels, read without the lock by stealing cores only as a hint
+	int runningCores = 0; // core threads that did not stop yet
+	long completedSlices = 0; // time slices run by all cores, the interrupt thread checks for an interrupt once per slice
+	boolean kernelWaiting = false; // interrupt thread waits for the next completed slice
+	long slicesRun = 0; // time slices this core ran
+	long steals = 0; // processes this core took from the RQ of another core
 	final static long MAX_MEMORY_ADDRESS = 9999; // the highest user memory address you can use, 9999 because the memory array size is 10,000 
 	final static long HALT_IN_PROGRAM_REACHED = 1; // variable used to indicate the CPU() has reached a halt
 	final static long TIME_SLICE_EXPIRED = 2; // variable used to indicate that a time slice expiration point was reached
@@ -128,6 +565,126 @@ public class Perel_hw2Simulator {
 	final static long IO_GETCINTERRUPT = 3; // variable used when "input operation is completed" interrupt is encountered
 	final static long IO_PUTCINTERRUPT = 4; // variable used when "output operation is completed" interrupt is encountered
 	final static long PCB_SIZE = 22; // variable holds value which is number of indexes in PCB array (size) 
+	final static int PCB_SLAB_SLOTS = 64; // PCBs held by the PCB slab at the front of the OS free area, further PCBs come from osAllocator
+	final static long PCB_SLAB_START = START_ADDR_OF_OS_FREELIST; // first slot of the PCB slab, slot n is at PCB_SLAB_START + n * PCB_SIZE
+	long pcbSlabFreeSlots[] = new long[(PCB_SLAB_SLOTS + 63) / 64]; // PCB slab bitmap, bit set for every free slot
+	long pcbSlabFallbacks = 0; // PCBs allocated from osAllocator because the slab was full
+
+	/* Relocating loader (-relocate). Every process gets a segment of its own from the part of the user program area the CPU
+	fetches from (0 - 2499) and its program is loaded at the addresses of its file plus the segment start, so any number of
+	programs are resident at the same time. The CPU adds the base register to every program address (PC, branch targets,
+	direct mode operands) and faults one at or past the limit register. Base and limit are part of the CPU context, saved by
+	saveContext() and restored by dispatcher(). The stack and mem_alloc memory keep their user free area addresses. Without
+	-relocate the base is 0 and the limit covers the user program area, as for the absolute loader. */
+	final static long USER_PROGRAM_AREA_SIZE = END_ADDR_OF_USER_PROGRAM_AREA - START_ADDR_OF_USER_PROGRAM_AREA + 1; // limit register of a process loaded by the absolute loader
+	boolean relocating = false; // load every program into a segment of its own, set with -relocate
+	MemoryAllocator programAllocator = new FirstFitAllocator(this); // allocator of the segments, same kind as the other allocators
+	long processBase[] = new long[(int) MAX_MEMORY_ADDRESS + 1]; // saved base register of every process, indexed by PCB address
+	long processLimit[] = new long[(int) MAX_MEMORY_ADDRESS + 1]; // saved limit register of every process, indexed by PCB address
+
+	/* Paged virtual memory (-paging, implies -relocate). The program addresses of a process are split into pages of PAGE_SIZE
+	words and every page is mapped to a frame, a PAGE_SIZE aligned block of the part of the user program area the CPU fetches
+	from, so the pages of a process need not be next to each other in memory. The page table of a process is allocated from
+	OS memory and holds the memory address of the frame of every page, the base register points to it and the limit register
+	is the number of program addresses, the same context the relocating loader uses. translateAddress() looks a page up in a
+	small direct mapped software TLB of the core first and only reads the page table on a miss. The TLB holds the pages of
+	the running process only, dispatcher() flushes it. Frames are handed out by frameTable, shared by the cores. */
+	final static long PAGE_SIZE = 100; // words in a page and in a frame
+	final static int TLB_SIZE = 8; // entries in the TLB of a core, a power of 2
+	boolean paging = false; // map the pages of every process to frames through a page table, set with -paging
+	FrameTable frameTable = new FrameTable(START_ADDR_OF_USER_PROGRAM_AREA, (int) (DECODE_CACHE_SIZE / PAGE_SIZE), PAGE_SIZE); // free frames
+	long tlbPage[] = new long[TLB_SIZE]; // page held by every TLB entry, -1 if the entry is empty
+	long tlbFrame[] = new long[TLB_SIZE]; // memory address of the frame of that page
+	long tlbHits = 0; // translations answered by the TLB
+	long tlbMisses = 0; // translations that had to read the page table
+	long tlbFlushes = 0; // times the TLB was flushed on a process switch
+
+	/* Demand paging (-swap=<policy>, implies -paging). Every page of a process has a slot of its own in a swap file on disk, which
+	is mapped into memory with FileChannel.map, and the loader writes the program there. A page table entry is the memory address
+	of the frame while the page is in memory and -(swap slot + 1) while it is not. translateAddress() finding an entry below 0 is
+	a page fault, pageFault() brings the page into a free frame or, when there is none, into the frame of the page the
+	replacement policy evicts (written back to its slot first). The policy decides from the reference bit and the clock of the
+	last reference translateAddress() keeps for every frame. Frames referenced at the current clock hold the words of the
+	instruction being executed and are never evicted. The swap file holds SWAP_SLOTS pages, 100 times the frames, so programs
+	can need far more memory than the user program area has. Demand paging runs on one core. */
+	final static int SWAP_SLOTS = 2500; // pages the swap file holds
+	final static long WORKING_SET_WINDOW = 1000; // clock ticks a page stays in the working set after its last reference
+	boolean demandPaging = false; // bring pages in on their first reference, set with -swap=<policy>
+	SwapFile swapFile; // swap file of the pages that are not in memory, null without demand paging
+	ReplacementPolicy replacementPolicy; // picks the page evicted when no frame is free, null without demand paging
+	long pageFaults = 0; // page faults serviced
+	long pagesEvicted = 0; // pages written back to the swap file to free a frame
+	long pageFaultNanos = 0; // total host time spent servicing page faults
+
+	/* Fork (system call 1). The running process gets a child with a copy of its registers and stack and the same program: with
+	paging the child's page table maps the parent's frames, every frame counts the page tables mapping it, and a store into a
+	frame mapped by more than one page table first copies it to a frame of the writer's own (copy-on-write, writableAddress()).
+	With the relocating loader or demand paging the program is copied into a segment or swap slots of the child, absolute
+	programs share the user program area anyway. The parent gets the PID of the child in GPR1, the child gets 0. */
+	long forks = 0; // child processes created by fork
+	long copyOnWriteFaults = 0; // shared frames copied because a process stored into them
+
+	/* Memory size and layout set at boot. hypoMainMemory is a MainMemory backend: heap (a long[] on the Java heap, the default),
+	offheap (direct buffers outside the Java heap) or sparse (direct buffers allocated the first time a part of memory is
+	written), chosen with -memorybackend=<name>. -memory=<words> makes it larger than the standard layout (0 - 9999), which
+	always stays where it is, and -userfree=<start>:<words> moves the user free area (stacks, mem_alloc and mailboxes) into
+	the words above it, so a process can allocate millions of words without the Java heap growing. Addresses are long
+	everywhere, the backends take care of where a word really is. */
+	long userFreeStart = START_ADDR_OF_USER_FREELIST; // first address of the user free area
+	long userFreeSize = START_ADDR_OF_USER_FREELIST; // words in the user free area, 2500 to 4999 unless it is moved
+	long userFreeEnd = END_ADDR_OF_USER_FREELIST; // last address of the user free area an operand or a freed block may have
+
+	/* Semaphores and mutexes (system calls 10 - 16). Every semaphore or mutex has its own FIFO of waiting processes, linked
+	through the PCB next pointers like RQ and WQ, so a signal wakes the oldest waiter without looking at any other process.
+	A waiting process is in WAITING_STATE with reason SEMAPHORE_WAIT and in no other queue. IDs are slot number + 1. */
+	final static int MAX_SEMAPHORES = 64; // semaphores and mutexes that can exist at the same time
+	final static long SEMAPHORE_WAIT = 5; // CPU status and reason for waiting of a process blocked on a semaphore or mutex
+	long semaphoreFreeSlots[] = new long[(MAX_SEMAPHORES + 63) / 64]; // bit set for every free semaphore slot
+	boolean semaphoreIsMutex[] = new boolean[MAX_SEMAPHORES]; // slot holds a mutex rather than a counting semaphore
+	long semaphoreCount[] = new long[MAX_SEMAPHORES]; // units left of every semaphore
+	long semaphoreOwner[] = new long[MAX_SEMAPHORES]; // PID holding every mutex, 0 while it is free
+	long semaphoreHead[] = new long[MAX_SEMAPHORES]; // first (oldest) process waiting on every semaphore
+	long semaphoreTail[] = new long[MAX_SEMAPHORES]; // last process waiting on every semaphore
+	int semaphoreWaiting = -1; // slot the running process has to wait on, set by the wait and lock system calls
+	long runningPCB = END_OF_LIST; // PCB of the process on the CPU, set by the dispatcher
+
+	/* Messages (system calls 6, 7, 17, 18). Every process has a mailbox: a ring buffer of MESSAGE_QUEUE_SIZE words in user memory,
+	allocated on the first message sent to it and described by the message queue fields of its PCB. A send never blocks, it fails
+	with ERROR_MAILBOX_FULL once the mailbox is full. Only its owner receives from a mailbox, so the wait list of a mailbox is the
+	owner itself: an empty mailbox stops it in WAITING_STATE (reason MESSAGE_WAIT or MESSAGE_BATCH_WAIT, in no queue) and the next
+	send moves it to RQ, delivering a single word straight into its GPR1. The batch variants move up to GPR3 words between a
+	buffer and a mailbox per call. A buffer word is an address the process's own instructions could store into: a program address,
+	as in direct mode, or a user free area address outside OS memory, as in register deferred mode. A batch receive only copies
+	into memory while its own process runs, so its buffer is checked against that process: a woken batch receiver runs its
+	system call again. */
+	final static long MESSAGE_QUEUE_SIZE = 16; // words in every mailbox
+	final static long MESSAGE_WAIT = 6; // CPU status and reason for waiting of a process receiving from its empty mailbox
+	final static long MESSAGE_BATCH_WAIT = 7; // like MESSAGE_WAIT for the batch receive system call
+	long messageQueueHead[] = new long[(int) MAX_MEMORY_ADDRESS + 1]; // index of the oldest message in every mailbox, indexed by PCB address
+
+	/* Asynchronous I/O devices (-iodevices). Without them a process blocked on io_getc or io_putc waits in WQ until interrupt 3
+	or 4 names its PID. With them the keyboard and the console are IODevices running on host threads of their own: the run loop
+	hands the blocked process to the device, the device does the transfer and posts a completion stamped with the clock it is due
+	at (clock of the request + ioLatency) to the ioCompletions queue (an idle run loop sleeps on it), the completions become timed events of the event
+	queue and the interrupt controller services the due ones before every scheduling decision, so I/O bound processes overlap with the others and no one has to type the interrupts. */
+	final static long DEFAULT_IO_LATENCY = 50; // clock ticks an I/O request takes unless -iolatency=<ticks> is given
+	long ioLatency = DEFAULT_IO_LATENCY; // clock ticks from an I/O request to its completion interrupt
+	IODevice keyboard; // keyboard device serving io_getc, null while interrupts 3 and 4 come from the interrupt source
+	IODevice console; // console device serving io_putc
+	LinkedBlockingQueue<long[]> ioCompletions = new LinkedBlockingQueue<long[]>(); // completions posted by the devices: {interrupt ID, PID, character, due clock}
+	long ioRequestsInFlight = 0; // requests handed to the devices whose completion was not taken from ioCompletions yet
+
+	/* Discrete event core. Timed events, interrupts that are raised once the clock reaches a given time (the I/O device
+	completions), wait in eventQueue ordered by clock. When only the null process is ready the run loop does not run it, the
+	clock jumps straight to the next event: the first timed event or the next interrupt of the interrupt source (a process
+	arrival of a script). Idle stretches of a simulation then cost no host time. The clock does not jump while a device still
+	has a request in flight (its completion is only posted once the transfer is done) or when the interrupt source can't tell
+	when its next interrupt comes (the console). */
+	final static long NO_EVENT = Long.MAX_VALUE; // clock of the next event when no event is known
+	PriorityQueue<long[]> eventQueue = new PriorityQueue<long[]>((a, b) -> (a[0] != b[0]) ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1])); // {clock, schedule order, interrupt ID, arguments...}
+	long eventsScheduled = 0; // events put on eventQueue so far, orders the events of the same clock
+	long idleJumps = 0; // times the clock jumped to the next event instead of running the null process
+	long idleTicksSkipped = 0; // clock ticks jumped over
 	
 	/* HYPO machine error codes, error codes are less than 0, check for errors at every step of OS execution */
 	final static long PROGRAM_HALTED = 1; // halt instruction code
@@ -150,46 +707,80 @@ public class Perel_hw2Simulator {
 	final static long ERROR_NO_AVAILABLE_MEMORY = -16; // error code to indicate no available memory left
 	final static long ERROR_REQUESTED_MEMORY_TOO_SMALL = -17; // error code to indicate requested (input) memory is too small
 	final static long ERROR_FILE_NOT_FOUND = -18; // error code that file was not found error encountered 
+	final static long ERROR_NO_FREE_SEMAPHORE = -19; // error code to indicate all semaphore and mutex slots are in use
+	final static long ERROR_INVALID_SEMAPHORE_OPERATION = -20; // error code to indicate a negative semaphore count, unlocking a mutex not held or deleting a semaphore with waiters
+	final static long ERROR_MAILBOX_FULL = -21; // error code to indicate the mailbox of the receiving process has no room for a message
 	final static long SHUTDOWN_STATUS = 2; // system shutdown status value 
 	
-	static Scanner scan = new Scanner(System.in); // console input object instance
+	InterruptSource interruptSource = new InteractiveInterruptSource(); // where interrupts come from: the console (default), a script given with -interrupts=<file>, or a program
+
+	/* Interrupt controller. checkAndProcessInterrupt() services the interrupts through interruptVector, the handler of every
+	interrupt ID, all in one pass per scheduling round: first the interrupts of the interrupt source as they come (their handlers
+	read the arguments from the source), then the pending interrupts in order of INTERRUPT_PRIORITY, oldest first within a
+	priority. Pending interrupts carry their arguments: the due I/O device completions, and a shutdown, which comes last so
+	a burst of completions raised in the same pass is not lost. */
+	final static int INTERRUPT_VECTORS = 5; // interrupt IDs 0 - 4, 0 is no interrupt
+	final static int INTERRUPT_PRIORITY[] = {0, 2, 3, 0, 1}; // priority of every interrupt ID while pending, lowest is serviced first
+	InterruptHandler interruptVector[] = {
+		null, // 0 - no interrupt
+		arguments -> isrRunProgramInterrupt(), // 1 - run program
+		arguments -> isrShutdownSystem(), // 2 - shutdown system
+		this::isrInputCompletionInterrupt, // 3 - input operation completion (io_getc)
+		this::isrOutputCompletionInterrupt // 4 - output operation completion (io_putc)
+	};
+	PriorityQueue<long[]> pendingInterrupts = new PriorityQueue<long[]>((a, b) -> (INTERRUPT_PRIORITY[(int) a[0]] != INTERRUPT_PRIORITY[(int) b[0]])
+			? Integer.compare(INTERRUPT_PRIORITY[(int) a[0]], INTERRUPT_PRIORITY[(int) b[0]]) : Long.compare(a[1], b[1])); // {interrupt ID, raise order, arguments...}
+	long interruptsRaised = 0; // interrupts made pending so far, orders the pending interrupts of one priority
+	
+	/* Trace output. Every message the OS and the HYPO machine display goes through trace()/traceln() with a verbosity level
+	and ends up in the trace sink: the console (default), nowhere (headless runs), a buffered file, or an in memory ring buffer
+	that keeps the last events for a post-mortem dump. A message is only formatted and written if its level is traced. */
+	final static int TRACE_OFF = 0; // trace nothing
+	final static int TRACE_ERRORS = 1; // trace error messages only
+	final static int TRACE_EVENTS = 2; // also trace OS events: booting, loading, interrupts, process state changes, prompts
+	final static int TRACE_DETAIL = 3; // also trace memory dumps, queue and PCB contents and stack operations (default)
+	int traceLevel = TRACE_DETAIL; // highest level of message that is traced, set with -tracelevel=<0-3>
+	TraceSink traceSink = new ConsoleTraceSink(); // where traced messages go, set with -trace=console|none|file:<name>|ring:<events>
 
 
 	/**
 	 * Brian Perel wrote this method 
 	 * 
-	 * Method Name: main
+	 * Method Name: run
 	 * 
 	 * Method Description: 
 	 *   Initialize all hardware parts, OS free list and user free list. Start the OS, begin a null process.  
 	 *   Enter OS environment by going to checkAndProcessInterrupt menu and servicing interrupts.  
+	 *   Runs until the shutdown interrupt is serviced.
 	 *
 	 * Input Parameters:
-	 *   @param args: command line arguments
-	 *   @throws IOException
+	 *   None
 	 *
 	 * Output Parameters:
 	 *   None
 	 *
 	 * Method Return Values:
-	 *	 note: can't return from main in Java, so instead I put print statements with error
-	 *   @return RunTimeError: returns run time error code
-	 *   @return ErrorFileOpen: returns file open error code
-	 *   @return ErrorInvalidAddress: returns invalid address error code
-	 *   @return ErrorNoEndOfProgram: returns no end of program error code
-	 *   @return ErrorInvalidPCValue: returns invalid PC value error code
-	 *   @return ErrorInvalidOpcodeValue: returns invalid opcode value error code
-	 *   @return ErrorInvalidGPRValue: returns invalid GPR value error code
-	 *   @return ErrorReachHaltInstruction: returns halt instruction reached error code
 	 *   @return OK: returns successful execution code
+	 *   @throws IOException
 	 */
-	public static void main(String[] args) throws IOException {
+	public long run() throws IOException {
 
-		System.out.println("System Booting...");
+		traceln(TRACE_EVENTS, "System Booting...");
 
 		initializeSystem(); // initialize all OS hardware, reset memory when OS starts
 
-		System.out.println("\nStarting OS...");
+		traceln(TRACE_EVENTS, "\nStarting OS...");
+
+		// asynchronous I/O devices, when there are any, run from now until shutdown
+		if(keyboard != null) {
+			keyboard.start();
+			console.start();
+		}
+
+		// on a multi-core machine the cores run the processes, this thread only services interrupts until shutdown
+		if(cores != null) {
+			runCores();
+		}
 
 		// main loop of HYPO machine runs until shutdown, enter OS environment 
 		while(!shutdown) {
@@ -197,10 +788,17 @@ public class Perel_hw2Simulator {
 
 			if(status == SHUTDOWN_STATUS) break; // if interrupt is shutdown, terminate program
 
-			System.out.println("\nRQ: Before CPU scheduling"); // dump the contents of RQ
+			scheduler.tick(this); // periodic scheduler work, e.g. the MLFQ priority boost
+
+			// nothing but the null process to run: jump to the next event and check the interrupts again
+			if(fastForwardIdleClock()) {
+				continue;
+			}
+
+			traceln(TRACE_DETAIL, "\nRQ: Before CPU scheduling"); // dump the contents of RQ
 			printQueue(RQ);
 
-			System.out.println("\nWQ: Before CPU scheduling"); // dump the contents of WQ
+			traceln(TRACE_DETAIL, "\nWQ: Before CPU scheduling"); // dump the contents of WQ
 			printQueue(WQ);
 
 			dumpMemory("Dynamic memory area before CPU scheduling", 0, 99); // print context of memory 
@@ -209,774 +807,921 @@ public class Perel_hw2Simulator {
 			long PCBrunningptr = selectProcessFromRQ(); // select a process from ready queue
 			
 			if(PCBrunningptr < 0) {
-				System.out.println("\nInvalid PCB pointer value error detected");
+				traceln(TRACE_ERRORS, "\nInvalid PCB pointer value error detected");
 			}
 
 			// perform restore context using dispatcher
 			dispatcher(PCBrunningptr);
+			timeSlice = (PCBrunningptr < 0) ? TIMESLICE : scheduler.timeSlice(this, PCBrunningptr);
 			
-			System.out.println("\nRQ: After selecting process from RQ"); // dump the contents of RQ
+			traceln(TRACE_DETAIL, "\nRQ: After selecting process from RQ"); // dump the contents of RQ
 			printQueue(RQ); // print context of queue containing all processes 
 
-			System.out.println("\nDumping the PCB contents of the running PCB"); // dump the contents of WQ
+			traceln(TRACE_DETAIL, "\nDumping the PCB contents of the running PCB"); // dump the contents of WQ
 			printPCB(PCBrunningptr);
 		
 			// execute instructions of the running process using the CPU
-			System.out.println("\n\nExecuting CPU...");
+			traceln(TRACE_EVENTS, "\n\nExecuting CPU...");
+			long clockBeforeRun = clock;
 			status = CPU();
-			System.out.println("\nCPU execution completed");
+			traceln(TRACE_EVENTS, "\nCPU execution completed");
+
+			if(PCBrunningptr >= 0) {
+				scheduler.ran(this, PCBrunningptr, clock - clockBeforeRun); // charge the CPU time used
+			}
 
 			dumpMemory("\nDynamic memory area after executing program", 0, 99);
 
 			if(status == TIME_SLICE_EXPIRED) {
-				System.out.println("\nTime slice has expired, saving context and inserting back into RQ");
+				traceln(TRACE_EVENTS, "\nTime slice has expired, saving context and inserting back into RQ");
 				saveContext(PCBrunningptr); // Save CPU Context of running process in its PCB, because the running process is losing control of the CPU.
-				insertIntoRQ(PCBrunningptr); // Insert running process PCB into RQ.
+				scheduler.preempted(this, PCBrunningptr); // Insert running process PCB into RQ, where the policy puts a preempted process.
 				PCBrunningptr = END_OF_LIST; // Set the running PCB pointer to the end of list.
 			}
 			else if(status == HALT_IN_PROGRAM_REACHED || status < 0) {
-				System.out.println("\nHalt in program reached, end of program");
+				traceln(TRACE_EVENTS, "\nHalt in program reached, end of program");
 				terminateProcess(PCBrunningptr);
 				PCBrunningptr = END_OF_LIST;
 			}
 			else if(status == io_getcSystemCall()) {
-				System.out.println("\nInput Interrupt detected");
+				traceln(TRACE_EVENTS, "\nInput Interrupt detected");
 				saveContext(PCBrunningptr);
-				hypoMainMemory[(int) (PCBrunningptr + reasonForWaitingCodeIndex)] = io_putcSystemCall(); //Set reason for waiting in the running PCB to Output Completion Event
+				hypoMainMemory.set(PCBrunningptr + reasonForWaitingCodeIndex, io_putcSystemCall()); //Set reason for waiting in the running PCB to Output Completion Event
+				scheduler.blocked(this, PCBrunningptr); // tell the policy the process blocks for I/O
 				insertIntoWQ(PCBrunningptr); // insert running process into WQ.
+				requestIO(PCBrunningptr, status, clock); // hand the transfer to the device, if there are devices
 				PCBrunningptr = END_OF_LIST; // set running PCB pointer to end of list
 			}
 			else if(status == io_putcSystemCall()) {
-				System.out.println("\nOutput interrupt detected");
+				traceln(TRACE_EVENTS, "\nOutput interrupt detected");
 				saveContext(PCBrunningptr);
-				hypoMainMemory[(int) (PCBrunningptr + reasonForWaitingCodeIndex)] = io_putcSystemCall(); //Set reason for waiting in the running PCB to Output Completion Event
+				hypoMainMemory.set(PCBrunningptr + reasonForWaitingCodeIndex, io_putcSystemCall()); //Set reason for waiting in the running PCB to Output Completion Event
+				scheduler.blocked(this, PCBrunningptr); // tell the policy the process blocks for I/O
 				insertIntoWQ(PCBrunningptr); // insert running process into WQ.
+				requestIO(PCBrunningptr, status, clock); // hand the transfer to the device, if there are devices
 				PCBrunningptr = END_OF_LIST; // set running PCB pointer to end of list
 			}
+			else if(status == SEMAPHORE_WAIT) {
+				traceln(TRACE_EVENTS, "\nProcess waits for semaphore " + (semaphoreWaiting + 1));
+				saveContext(PCBrunningptr);
+				waitForSemaphore(PCBrunningptr); // queue running process on its semaphore
+				PCBrunningptr = END_OF_LIST;
+			}
+			else if(status == MESSAGE_WAIT || status == MESSAGE_BATCH_WAIT) {
+				traceln(TRACE_EVENTS, "\nProcess waits for a message");
+				saveContext(PCBrunningptr);
+				waitForMessage(PCBrunningptr, status); // running process waits on its empty mailbox
+				PCBrunningptr = END_OF_LIST;
+			}
 			else {
-				System.out.println("Unkown programming error detected");
+				traceln(TRACE_ERRORS, "Unkown programming error detected");
 			}
 		}
 
-		System.out.println("OS is shutting down...\nReturning code: " + OK + "\nGoodbye");
-		return;
+		traceln(TRACE_EVENTS, "OS is shutting down...\nReturning code: " + OK + "\nGoodbye");
+		return OK;
 	}
 
 
 
+
 	/**
-	 * Brian Perel wrote this method 
-	 * 
-	 * Method Name: initializeSystem
+	 * Method Name: createCores
 	 *
 	 * Method Description:
-	 * 	 Set (initialize) all global system hardware components to 0
-	 * 	 Initializes all the HYPO hardware variables to 0 value.
-	 * 	 This simulates what happens when you power on your computer:
-	 * 	 when OS is loaded all hardware components are reset to 0
+	 *  Make the cores of a multi-core machine. Every core gets registers, a decoded instruction cache
+	 *  and an RQ of its own and shares main memory, the allocators, the semaphores, the mailboxes,
+	 *  the scheduler policy and the trace sink with this machine. The trace sink is made thread safe first.
 	 *
-	 * 	 Hardware components: HYPO machine memory (RAM - addresses 0 through memory size minus 1),
-	 *   gpr registers (general purpose registers 0 through 7), mar register, mbr register, pc register,
-	 *   sp register, psr register, ir register, and system clock
+	 * Input Parameters:
+	 *  None
 	 *
-	 *   mar = Memory address register
-	 *   mbr = Memory buffer register
-	 *   pc = Program counter register
-	 *   sp = Stack pointer register
-	 *   psr = Processor status register
-	 *   ir = instruction register
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void createCores() {
+		if(!(traceSink instanceof SynchronizedTraceSink)) {
+			traceSink = new SynchronizedTraceSink(traceSink);
+		}
+
+		cores = new HypoMachine[coreCount];
+
+		for(int number = 0; number < coreCount; number++) {
+			HypoMachine core = new HypoMachine();
+			core.kernel = this;
+			core.coreNumber = number;
+			core.hypoMainMemory = hypoMainMemory;
+			core.osAllocator = osAllocator;
+			core.userAllocator = userAllocator;
+			core.userFreeStart = userFreeStart;
+			core.userFreeSize = userFreeSize;
+			core.userFreeEnd = userFreeEnd;
+			core.programAllocator = programAllocator;
+			core.relocating = relocating;
+			core.frameTable = frameTable;
+			core.paging = paging;
+			core.semaphoreFreeSlots = semaphoreFreeSlots;
+			core.semaphoreIsMutex = semaphoreIsMutex;
+			core.semaphoreCount = semaphoreCount;
+			core.semaphoreOwner = semaphoreOwner;
+			core.semaphoreHead = semaphoreHead;
+			core.semaphoreTail = semaphoreTail;
+			core.messageQueueHead = messageQueueHead;
+			core.processBase = processBase;
+			core.processLimit = processLimit;
+			core.scheduler = scheduler;
+			core.traceLevel = traceLevel;
+			core.traceSink = traceSink;
+			core.resetReadyQueue();
+			cores[number] = core;
+		}
+	}
+
+
+
+	/**
+	 * Method Name: runCores
+	 *
+	 * Method Description:
+	 *  Start a host thread for every core and service interrupts on this thread until the
+	 *  shutdown interrupt, checking for one interrupt every time a core completes a time slice.
+	 *  Interrupts are serviced while holding the kernel's lock, so the cores never see the OS
+	 *  state half updated. Waits for the core threads to end before returning.
 	 *
 	 * Input Parameters:
-	 *   None
+	 *  None
 	 *
 	 * Output Parameters:
-	 *   None
+	 *  None
 	 *
 	 * Method Return Values:
-	 *   None
-	 * @throws IOException
+	 *  None
+	 *  @throws IOException
 	 */
-	public static void initializeSystem() throws IOException {
-
-		mar = mbr = clock = IR = psr = pc = sp = 0;
+	public void runCores() throws IOException {
+		Thread threads[] = new Thread[cores.length];
 
-		for(int x = 0; x < hypoMainMemory.length; x++) {
-			hypoMainMemory[x] = 0;
+		synchronized(this) {
+			runningCores = cores.length;
 		}
-		for(int x = 0; x < gpr.length; x++) {
-			gpr[x] = 0;
+
+		for(int number = 0; number < cores.length; number++) {
+			threads[number] = new Thread(cores[number]::runCore, "HYPO core " + number);
+			threads[number].start();
 		}
 
-		// create user free list using the free block address and size
-		UserFreeList = START_ADDR_OF_USER_FREELIST; // set user free list to 2500
-		hypoMainMemory[(int) (UserFreeList + nextPCBptrIndex)] = END_OF_LIST;
-		hypoMainMemory[(int) (UserFreeList + 1)] = START_ADDR_OF_USER_FREELIST;
+		synchronized(this) {
+			while(!shutdown) {
+				if(checkAndProcessInterrupt() == SHUTDOWN_STATUS) {
+					break;
+				}
 
-		// create OS free list using the free block address and size
-		OSFreeList = START_ADDR_OF_OS_FREELIST;
-		hypoMainMemory[(int) (OSFreeList + nextPCBptrIndex)] = END_OF_LIST; 
-		hypoMainMemory[(int) (OSFreeList + 1)] = START_ADDR_OF_OS_FREELIST; 
+				// next interrupt check after the next time slice
+				long slices = completedSlices;
+				kernelWaiting = true;
 
-		System.out.print("Hardware units successfully initialized!");
+				while(completedSlices == slices && !shutdown) {
+					try {
+						wait(IDLE_WAIT_MILLIS);
+					}
+					catch(InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+				kernelWaiting = false;
+			}
+		}
 
-		// create a null process with lowest priority (0) to run when there is no other process in the ready queue 
-		String filename = "p1.txt";
-		createProcess(filename, 0);
+		for(Thread thread : threads) {
+			try {
+				thread.join();
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
 	}
 
 
 
 	/**
-	 * Brian Perel wrote this method 
-	 * 
-	 * Method Name: absoluteLoader
+	 * Method Name: runCore
 	 *
 	 * Method Description:
-	 *   Open the file containing HYPO machine user program
-	 *   and load the content into HYPO machine memory,
-	 *   If successful load, return the PC value in end of
-	 *   program line. Ensure the program file is of proper
-	 *   format and that address/PC values are within the
-	 *   User Program area. If failure, display appropriate
-	 *   error message and return error code.
+	 *  Scheduling loop of one core, runs on the core's host thread until the kernel shuts down.
+	 *  Selects a process from the core's own RQ, or steals one from another core when it is empty,
+	 *  dispatches it and runs it on the CPU. A preempted process goes back to this core's RQ. A
+	 *  halted or blocked process is terminated or moved to WQ under the kernel's lock.
 	 *
 	 * Input Parameters:
-	 *   @param String filename: String specifying the name of file of machine language program to open and load. File must exist in project working directory
+	 *  None
 	 *
 	 * Output Parameters:
-	 * 	 None
+	 *  None
 	 *
 	 * Method Return Values:
-	 * 	 @return ErrorFileOpen: returns file open error code
-	 * 	 @return ErrorInvalidAddress: returns invalid address error code
-	 *   @return ErrorNoEndOfProgram: returns no end of program error code
-	 *   @return OK: returns successful load, valid PC value
+	 *  None
 	 */
-	public static long absoluteLoader(String file) throws IOException, FileNotFoundException {
-		
-			// load the program from given filename into HYPO main memory
-			try {
-				File fileObj = new File(file); // create file object
-				BufferedReader br = new BufferedReader(new FileReader(fileObj)); // create bufferedReader object to read from file
-				
-				// if user enters blank (hits enter) for input, print error
-				if(file.equals("")) {
-					br.close();
-					return ERROR_FILE_OPEN;
-				}
+	public void runCore() {
+		while(!kernel.shutdown) {
+			long PCBrunningptr;
 
-				String st; // create string to store current line into
-				String temp = ""; // temp 1
-				String temp2 = ""; // temp 2
-				long address = 0; // this variable will store Hypo machine address from file
-				long content = 0; // this variable will store memory content
+			synchronized(this) {
+				scheduler.tick(this);
+				PCBrunningptr = selectProcessFromRQ();
+			}
 
-				// access table in file, each line is 1 record, use a delimiter (space) to assign first number in left column of record to address variable and then assign second number to second variable
-				// read 1 line of file at a time until null is detected (end of file)
-				while((st = br.readLine()) != null)  {
-					temp = st.split("\t", 2)[0]; // read from file and split string by the tab, whatever is before goes into variable (read first column of machine code file line)
-					temp2 = st.split("\t", 2)[1]; // read from file and split string b the tab, but now whatever is after goes into variable (read second column of machine code file line)
-					address = Long.parseLong(temp.trim()); // use trim() to eliminate extra whitespace between address and content values in line from file
-					content = Long.parseLong(temp2.trim()); // use trim() to eliminate extra whitespace between address and content values in line from file
+			if(PCBrunningptr == END_OF_LIST) {
+				PCBrunningptr = stealProcess();
+			}
 
-					// -1 is not a register address, it is an indicator for end of program. Successful program execution should come to here
-					if(address == END_OF_PROGRAM) {
-						System.out.print("\nProgram Successfully Loaded!");
-				    	br.close();
-				    	return content;
+			// nothing to run: sleep until the kernel has new work, then catch up with the time that passed
+			if(PCBrunningptr == END_OF_LIST) {
+				synchronized(kernel) {
+					try {
+						kernel.wait(IDLE_WAIT_MILLIS);
 					}
-
-					else if(address >= 0 && address <= 3499) {
-						hypoMainMemory[(int) address] = content; // store content into main memory (cast address from type long to int, since indices must be of type int)
+					catch(InterruptedException e) {
+						Thread.currentThread().interrupt();
+						break;
 					}
+					clock = Math.max(clock, kernel.clock);
+				}
+				continue;
+			}
 
-					else {
-						System.out.println("ErrorInvalidRange");
-						br.close();
-						return ERROR_INVALID_ADDRESS;
-					}
+			if(tracing(TRACE_EVENTS)) {
+				traceln(TRACE_EVENTS, "\nCore " + coreNumber + ": running PID " + hypoMainMemory.get(PCBrunningptr + PIDIndex));
+			}
+
+			dispatcher(PCBrunningptr);
+			timeSlice = scheduler.timeSlice(this, PCBrunningptr);
+
+			long clockBeforeRun = clock;
+			long status = CPU();
+			scheduler.ran(this, PCBrunningptr, clock - clockBeforeRun);
+			slicesRun++;
+
+			if(status == TIME_SLICE_EXPIRED) {
+				saveContext(PCBrunningptr);
+
+				synchronized(this) {
+					scheduler.preempted(this, PCBrunningptr); // back into this core's RQ
 				}
 			}
 
-			// file not found exception
-			catch(FileNotFoundException e) {
-				System.out.println("\nError: coudn't open the file. Returning error code: " + ERROR_FILE_OPEN);
-				return ERROR_FILE_OPEN;
+			synchronized(kernel) {
+				if(status == HALT_IN_PROGRAM_REACHED || status < 0) {
+					traceln(TRACE_EVENTS, "\nCore " + coreNumber + ": halt in program reached, end of program");
+					kernel.terminateProcess(PCBrunningptr);
+				}
+				else if(status == io_getcSystemCall() || status == io_putcSystemCall()) {
+					traceln(TRACE_EVENTS, "\nCore " + coreNumber + ": I/O interrupt detected");
+					saveContext(PCBrunningptr);
+					hypoMainMemory.set(PCBrunningptr + reasonForWaitingCodeIndex, io_putcSystemCall());
+					scheduler.blocked(this, PCBrunningptr);
+					kernel.insertIntoWQ(PCBrunningptr);
+					kernel.requestIO(PCBrunningptr, status, clock);
+				}
+				else if(status == SEMAPHORE_WAIT) {
+					traceln(TRACE_EVENTS, "\nCore " + coreNumber + ": process waits for semaphore " + (semaphoreWaiting + 1));
+					saveContext(PCBrunningptr);
+					waitForSemaphore(PCBrunningptr);
+				}
+				else if(status == MESSAGE_WAIT || status == MESSAGE_BATCH_WAIT) {
+					traceln(TRACE_EVENTS, "\nCore " + coreNumber + ": process waits for a message");
+					saveContext(PCBrunningptr);
+					waitForMessage(PCBrunningptr, status);
+				}
+				else if(status != TIME_SLICE_EXPIRED) {
+					traceln(TRACE_ERRORS, "Unkown programming error detected");
+				}
+
+				// the machine's clock is the clock of the core furthest ahead
+				kernel.clock = Math.max(kernel.clock, clock);
+				kernel.completedSlices++;
+
+				if(kernel.kernelWaiting) {
+					kernel.kernelWaiting = false;
+					kernel.notifyAll();
+				}
 			}
+		}
 
-			// return error code if program reaches this point since end of program could not be detected
-			return ERROR_NO_END_OF_PROGRAM;
+		synchronized(kernel) {
+			kernel.runningCores--;
+			kernel.notifyAll();
+		}
 	}
 
 
 
 	/**
-	 * Brian Perel wrote this method 
-	 * 
-	 * Method Name: CPU
+	 * Method Name: stealProcess
 	 *
 	 * Method Description:
-	 *   Method (executes the loaded program in main memory) performs fetch-decode-execute cycle for
-	 *   every given instruction. Simulates the CPU hardware of the OS.
-	 *   Performs all possible error checking such as invalid memory address
-	 *   reference, invalid mode, division by zero. After execution of
-	 *   every instruction, it increases the clock by the instruction execution
-	 *   time. Method executes 1 instruction at a time pointed by program counter.
-	 *   The process when it gets the CPU is given a fixed amount of CPU called time slice. 
-	 *   For every instruction executed, decrement the CPU time left by the instruction time.
+	 *  Take the first process of the longest RQ of the other cores for this idle core.
+	 *  The null process is never stolen, it only keeps its own core busy.
 	 *
 	 * Input Parameters:
-	 *   None
+	 *  None
 	 *
 	 * Output Parameters:
-	 *   None
+	 *  None
 	 *
-	 * Method Return Values
-	 *   @return status: returns status value of current CPU execution of program
-	 *   @return ErrorInvalidAddress: returns invalid address error code
-	 *   @return ErrorInvalidOpcodeValue: returns invalid opcode value error code
-	 *   @return RunTimeError: return run time error code
+	 * Method Return Values:
+	 *  @return PCBptr: the stolen process, no longer in any RQ
+	 *  @return END_OF_LIST: no other core has a process to spare
 	 */
-	public static long CPU() {
-		long timeLeft = TIMESLICE;
-
-		final long HALT = 0;
-		returnFetchOps recieve; // create variable of class to hold 3 values at once (in object)
-		long remainder; // store value after performing remainder operation on IR register in OpCode
-		long status = 0; // store and return status of CPU
+	public long stealProcess() {
+		HypoMachine victim = null;
 
-		// below 5 variables make up a word instruction
-		long Opcode, Op1Mode, Op1GPR, Op2Mode, Op2GPR, Op1Value = 0;
-		long Op1Address, Op2Value, Op2Address, result;
+		for(HypoMachine core : kernel.cores) {
+			if(core != this && core.readyCount > ((victim == null) ? 0 : victim.readyCount)) {
+				victim = core;
+			}
+		}
 
-		// addressing modes
-		long registerMode = 0;
-		long immediateMode = 0;
+		if(victim == null) {
+			return END_OF_LIST;
+		}
 
-		do {
+		synchronized(victim) {
+			long PCBptr = victim.RQ;
 
-			// Fetch cycle: fetch (read) first word of instruction pointed by PC
-			if(pc >= 0 && pc <= 2499) {
-				mar = pc++;
-				mbr = hypoMainMemory[(int) mar];
-			}
-			else {
-				System.out.println("Invalid address runtime error. Returning error code: " + ERROR_INVALID_PC_VALUE);
-				return ERROR_INVALID_PC_VALUE;
+			if(PCBptr == END_OF_LIST || hypoMainMemory.get(PCBptr + priorityIndex) == 0) {
+				return END_OF_LIST;
 			}
 
-			IR = mbr;
-
-			// Decode cycle: decode the first word of instruction into opcode
-			Opcode = (int) (IR / 10000);
-			remainder = IR % 10000;
-
-			Op1Mode = (int) (remainder / 1000);
-			remainder %= 1000;
+			victim.removeFromRQ(PCBptr);
+			steals++;
+			return PCBptr;
+		}
+	}
 
-			Op1GPR = (int) (remainder / 100);
-			remainder %= 100;
 
-			Op2Mode = (int) (remainder / 10);
-			remainder %= 10;
 
-			Op2GPR = remainder;
+	/**
+	 * Method Name: stopCores
+	 *
+	 * Method Description:
+	 *  Tell the cores to stop and wait until all have. A running process is put back into the RQ of its
+	 *  core, so at shutdown every process is in the RQ of a core or in WQ. Must be called holding the
+	 *  kernel's lock, which is given up while waiting.
+	 *
+	 * Input Parameters:
+	 *  None
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void stopCores() {
+		shutdown = true;
+		notifyAll();
 
-			// Opcode max = 12, Op1Mode max = 6, Op1Mode min = 0, Opcode min = 0, Op2Mode max = 6, Op2Mode min = 0
-			if(Opcode < 0 || Opcode > 12) {
-				System.out.println("\nError: Invalid opcode value. Return error code: " + ERROR_INVALID_OPCODE_VALUE);
-				return ERROR_INVALID_OPCODE_VALUE;
+		while(runningCores > 0) {
+			try {
+				wait(IDLE_WAIT_MILLIS);
 			}
-
-			// check for invalid mode#
-			if(Op1Mode < 0 && Op1Mode > 6 && Op2Mode < 0 && Op2Mode > 6) {
-				System.out.println("\nError: Invalid mode found. Return error code: " + ERROR_INVALID_MODE);
-				return ERROR_INVALID_MODE;
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
 			}
+		}
 
-			///check for invalid GPR#: error = !(0-7)
-			if(Op1GPR < 0 || Op1GPR > 7 || Op2GPR < 0 && Op2GPR > 7) {
-				System.out.println("\nError: Invalid GPR value found. Return error code: " + ERROR_INVALID_GPR_VALUE);
-				return ERROR_INVALID_GPR_VALUE;
-			}
+		for(HypoMachine core : cores) {
+			traceln(TRACE_EVENTS, "\nCore " + core.coreNumber + ": " + core.slicesRun + " time slices, " + core.instructionCount
+					+ " instructions, " + core.steals + " processes stolen, clock " + core.clock);
+		}
+	}
 
-			// Execute cycle: fetch (read) operand values based on opcode
-			switch((int) Opcode) { // switch statement cannot evaluate variables of long type, needed to cast
-				case 0: { // halt instruction
-					System.out.println("halt instruction is encountered");
-					clock += 12;
-					timeLeft -= 12;
-					status = PROGRAM_HALTED;
-					return status;
-				}
 
-				case 1: { // add instruction
-					// pass argument variables to fetchOperand(), method performs appropriate op and returns object, use instance methods to retrieve object values in below variables
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
 
-					if(!(status > 0))  {
-						return status;
-					}
+	/**
+	 * Method Name: tracing
+	 *
+	 * Method Description:
+	 *  Tells if messages of the given verbosity level are traced. Used to skip
+	 *  building messages (memory dumps, PCB contents) that nobody will see.
+	 *
+	 * Input Parameters:
+	 *  @param level: verbosity level, TRACE_ERRORS, TRACE_EVENTS or TRACE_DETAIL
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return true if messages of the level are traced, otherwise false
+	 */
+	public boolean tracing(int level) {
+		return level <= traceLevel;
+	}
 
-					// pass argument variables to fetchOperand(), method performs appropriate op and returns object, use instance methods to retrieve object values in below variables
-					recieve = fetchOperand(Op2Mode, Op2GPR);
-					Op2Value = recieve.getOpValue();
-					Op2Address = recieve.getOpAddress();
-					status = recieve.getStat();
 
-					// make sure instance variable status from object doesn't return error code value
-					if(!(status > 0)) {
-						System.out.println(status);
-						return ERROR_INVALID_ADDRESS;
-					}
 
-					// perform add instruction
-					result = Op1Value + Op2Value;
+	/**
+	 * Method Name: trace
+	 *
+	 * Method Description:
+	 *  Write text to the trace sink if its verbosity level is traced.
+	 *
+	 * Input Parameters:
+	 *  @param level: verbosity level of the message
+	 *  @param text: text to write
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void trace(int level, String text) {
+		if(level <= traceLevel) {
+			traceSink.print(text);
+		}
+	}
 
-					if(Op1Mode == registerMode)
-						gpr[(int) Op1GPR] = result;
+	public void trace(int level, long value) {
+		if(level <= traceLevel) {
+			traceSink.print(String.valueOf(value));
+		}
+	}
 
-					else if(Op1Mode == immediateMode)
-						System.out.println("Error destination operand mode cannot be immediate mode");
-					else
-						hypoMainMemory[(int) Op1Address] = result;
 
-					clock += 3;
-					timeLeft -= 3;
-					break;
-				}
 
-				case 2: { // subtract instruction
-					
-					// pass argument variables to fetchOperand(), method performs appropriate op and returns object, use instance methods to retrieve object values in below variables
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
-
-					if(!(status > 0))  {
-						System.out.println(status);
-						return ERROR_INVALID_ADDRESS;
-					}
+	/**
+	 * Method Name: traceln
+	 *
+	 * Method Description:
+	 *  Write a line of text to the trace sink if its verbosity level is traced.
+	 *
+	 * Input Parameters:
+	 *  @param level: verbosity level of the message
+	 *  @param text: text of the line
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void traceln(int level, String text) {
+		if(level <= traceLevel) {
+			traceSink.println(text);
+		}
+	}
 
-					// pass argument variables to fetchOperand(), method performs appropriate op and returns object, use instance methods to retrieve object values in below variables
-					recieve = fetchOperand(Op2Mode, Op2GPR);
-					Op2Value = recieve.getOpValue();
-					Op2Address = recieve.getOpAddress();
-					status = recieve.getStat();
+	public void traceln(int level, long value) {
+		if(level <= traceLevel) {
+			traceSink.println(String.valueOf(value));
+		}
+	}
 
-					if(!(status > 0)) {
-						System.out.println(status);
-						return ERROR_INVALID_ADDRESS;
-					}
 
-					result = Op1Value - Op2Value;
 
-					if(Op1Mode == registerMode)
-						gpr[(int) Op1GPR] = result;
+	/**
+	 * Brian Perel wrote this method 
+	 * 
+	 * Method Name: initializeSystem
+	 *
+	 * Method Description:
+	 * 	 Set (initialize) all global system hardware components to 0
+	 * 	 Initializes all the HYPO hardware variables to 0 value.
+	 * 	 This simulates what happens when you power on your computer:
+	 * 	 when OS is loaded all hardware components are reset to 0
+	 *
+	 * 	 Hardware components: HYPO machine memory (RAM - addresses 0 through memory size minus 1),
+	 *   gpr registers (general purpose registers 0 through 7), mar register, mbr register, pc register,
+	 *   sp register, psr register, ir register, and system clock
+	 *
+	 *   mar = Memory address register
+	 *   mbr = Memory buffer register
+	 *   pc = Program counter register
+	 *   sp = Stack pointer register
+	 *   psr = Processor status register
+	 *   ir = instruction register
+	 *
+	 * Input Parameters:
+	 *   None
+	 *
+	 * Output Parameters:
+	 *   None
+	 *
+	 * Method Return Values:
+	 *   None
+	 * @throws IOException
+	 */
+	public void initializeSystem() throws IOException {
 
-					else if(Op1Mode == immediateMode)
-						System.out.println("Error destination operand mode cannot be immediate mode");
-					else
-						hypoMainMemory[(int) Op1Address] = result;
+		mar = mbr = clock = IR = psr = pc = sp = 0;
+		instructionCount = 0;
 
-					clock += 3;
-					timeLeft -= 3;
-					break;
-				}
+		hypoMainMemory.clear();
+		for(int x = 0; x < gpr.length; x++) {
+			gpr[x] = 0;
+		}
 
-				case 3: { // multiply instruction
-					// pass argument variables to fetchOperand(), method performs appropriate op and returns object, use instance methods to retrieve object values in below variables
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
-
-					if(!(status > 0))  {
-						System.out.println(status);
-						return ERROR_INVALID_ADDRESS;
-					}
+		invalidateDecodedInstructions(0, DECODE_CACHE_SIZE - 1); // memory was reset, nothing decoded is valid anymore
+		resetReadyQueue();
 
-					recieve = fetchOperand(Op2Mode, Op2GPR);
-					Op2Value = recieve.getOpValue();
-					Op2Address = recieve.getOpAddress();
-					status = recieve.getStat();
+		// no processes exist yet
+		Arrays.fill(pidTableKeys, 0);
+		pidTableCount = 0;
 
-					if(!(status > 0)) {
-						System.out.println(status);
-						return ERROR_INVALID_ADDRESS;
-					}
+		// create user free list using the free block address and size
+		userAllocator.reset(userFreeStart, userFreeSize); // set user free list to 2500, unless it was moved
 
-					result = Op1Value * Op2Value;
+		// segments of relocated programs come from the part of the user program area the CPU fetches from
+		base = 0;
+		limit = USER_PROGRAM_AREA_SIZE;
+		if(relocating) {
+			programAllocator.reset(START_ADDR_OF_USER_PROGRAM_AREA, DECODE_CACHE_SIZE);
+		}
 
-					if(Op1Mode == registerMode)
-						gpr[(int) Op1GPR] = result;
+		// with paging the frames of that part are handed out one by one instead
+		frameTable.reset();
+		Arrays.fill(tlbPage, -1);
+		tlbHits = tlbMisses = tlbFlushes = 0;
+		forks = copyOnWriteFaults = 0;
+
+		// with demand paging every swap slot is free and no page is resident
+		if(demandPaging) {
+			swapFile.reset();
+			replacementPolicy.reset(frameTable);
+			pageFaults = pagesEvicted = pageFaultNanos = 0;
+		}
 
-					else if(Op1Mode == immediateMode)
-						System.out.println("Error destination operand mode cannot be immediate mode");
-					else
-						hypoMainMemory[(int) Op1Address] = result;
+		// create the PCB slab at the front of the OS free area, all slots free
+		for(int slot = 0; slot < PCB_SLAB_SLOTS; slot++) {
+			pcbSlabFreeSlots[slot >> 6] |= 1L << (slot & 63);
+		}
+		pcbSlabFallbacks = 0;
 
-					clock += 6;
-					timeLeft -= 6;
-					break;
-				}
+		// no semaphores or mutexes exist yet
+		for(int slot = 0; slot < MAX_SEMAPHORES; slot++) {
+			semaphoreFreeSlots[slot >> 6] |= 1L << (slot & 63);
+			semaphoreHead[slot] = semaphoreTail[slot] = END_OF_LIST;
+		}
 
-				case 4: { // divide instruction
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+		// create OS free list using the free block address and size, behind the PCB slab
+		osAllocator.reset(PCB_SLAB_START + PCB_SLAB_SLOTS * PCB_SIZE, START_ADDR_OF_OS_FREELIST - PCB_SLAB_SLOTS * PCB_SIZE);
 
-					if(!(status > 0))  {
-						System.out.println(status);
-						return ERROR_INVALID_ADDRESS;
-					}
+		trace(TRACE_EVENTS, "Hardware units successfully initialized!");
 
-					recieve = fetchOperand(Op2Mode, Op2GPR);
-					Op2Value = recieve.getOpValue();
-					Op2Address = recieve.getOpAddress();
-					status = recieve.getStat();
+		// the cores of a multi-core machine have to exist before the first process is put on one
+		if(coreCount > 1) {
+			createCores();
+		}
 
-					if(!(status > 0)) {
-						System.out.println(status);
-						return ERROR_INVALID_ADDRESS;
-					}
-
-					// check to make sure division by 0 isn't done
-					if(Op2Value == 0) {
-						System.out.println("Error! Division by 0");
-						return ERROR_INVALID_OPCODE_VALUE;
-					}
-
-					result = Op1Value / Op2Value;
+		// create a null process with lowest priority (0) to run when there is no other process in the ready queue 
+		String filename = "p1.txt";
+		createProcess(filename, 0);
+	}
 
-					if(Op1Mode == registerMode)
-						gpr[(int) Op1GPR] = result;
 
-					else if(Op1Mode == immediateMode)
-						System.out.println("Error destination operand mode cannot be immediate mode");
-					else
-						hypoMainMemory[(int) Op1Address] = result;
 
-					clock += 6;
-					timeLeft -= 6;
-					break;
+	/**
+	 * Brian Perel wrote this method 
+	 * 
+	 * Method Name: absoluteLoader
+	 *
+	 * Method Description:
+	 *   Open the file containing HYPO machine user program
+	 *   and load the content into HYPO machine memory,
+	 *   If successful load, return the PC value in end of
+	 *   program line. Ensure the program file is of proper
+	 *   format and that address/PC values are within the
+	 *   User Program area. If failure, display appropriate
+	 *   error message and return error code.
+	 *
+	 * Input Parameters:
+	 *   @param String filename: String specifying the name of file of machine language program to open and load. File must exist in project working directory
+	 *
+	 * Output Parameters:
+	 * 	 None
+	 *
+	 * Method Return Values:
+	 * 	 @return ErrorFileOpen: returns file open error code
+	 * 	 @return ErrorInvalidAddress: returns invalid address error code
+	 *   @return ErrorNoEndOfProgram: returns no end of program error code
+	 *   @return OK: returns successful load, valid PC value
+	 */
+	public long absoluteLoader(String file) throws IOException, FileNotFoundException {
+		
+			// load the program from given filename into HYPO main memory
+			try {
+				File fileObj = new File(file); // create file object
+				BufferedReader br = new BufferedReader(new FileReader(fileObj)); // create bufferedReader object to read from file
+				
+				// if user enters blank (hits enter) for input, print error
+				if(file.equals("")) {
+					br.close();
+					return ERROR_FILE_OPEN;
 				}
 
-				case 5: { // move instruction
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+				String st; // create string to store current line into
+				String temp = ""; // temp 1
+				String temp2 = ""; // temp 2
+				long address = 0; // this variable will store Hypo machine address from file
+				long content = 0; // this variable will store memory content
 
-					if(!(status > 0))  {
-						System.out.println(status);
-						return ERROR_INVALID_ADDRESS;
+				// access table in file, each line is 1 record, use a delimiter (space) to assign first number in left column of record to address variable and then assign second number to second variable
+				// read 1 line of file at a time until null is detected (end of file)
+				while((st = br.readLine()) != null)  {
+					temp = st.split("\t", 2)[0]; // read from file and split string by the tab, whatever is before goes into variable (read first column of machine code file line)
+					temp2 = st.split("\t", 2)[1]; // read from file and split string b the tab, but now whatever is after goes into variable (read second column of machine code file line)
+					address = Long.parseLong(temp.trim()); // use trim() to eliminate extra whitespace between address and content values in line from file
+					content = Long.parseLong(temp2.trim()); // use trim() to eliminate extra whitespace between address and content values in line from file
+
+					// -1 is not a register address, it is an indicator for end of program. Successful program execution should come to here
+					if(address == END_OF_PROGRAM) {
+						trace(TRACE_EVENTS, "\nProgram Successfully Loaded!");
+				    	br.close();
+				    	return content;
 					}
 
-					recieve = fetchOperand(Op2Mode, Op2GPR);
-					Op2Value = recieve.getOpValue();
-					Op2Address = recieve.getOpAddress();
-					status = recieve.getStat();
+					else if(address >= 0 && address <= 3499) {
+						hypoMainMemory.set(address, content); // store content into main memory
+						invalidateDecodedInstruction(address); // a reloaded program may put a different instruction at this address
+					}
 
-					if(!(status > 0)) {
-						System.out.println(status);
+					else {
+						traceln(TRACE_ERRORS, "ErrorInvalidRange");
+						br.close();
 						return ERROR_INVALID_ADDRESS;
 					}
+				}
+			}
 
-					result = Op2Value;
-
-					if(Op1Mode == registerMode)
-						gpr[(int) Op1GPR] = result;
-
-					else if(Op1Mode == immediateMode)
-						System.out.println("Error destination operand mode cannot be immediate mode");
-					else
-						hypoMainMemory[(int) Op1Address] = result;
+			// file not found exception
+			catch(FileNotFoundException e) {
+				traceln(TRACE_ERRORS, "\nError: coudn't open the file. Returning error code: " + ERROR_FILE_OPEN);
+				return ERROR_FILE_OPEN;
+			}
 
-					clock += 2;
-					timeLeft -= 2;
-					break;
-				}
+			// return error code if program reaches this point since end of program could not be detected
+			return ERROR_NO_END_OF_PROGRAM;
+	}
 
-				case 6: { // branch instruction
-					if(pc >= 0 && pc <= 2499)
-						pc = hypoMainMemory[(int) pc];
 
-					else {
-						System.out.println("Invalid address value encountered. Returning error code: " + ERROR_INVALID_ADDRESS);
-						return ERROR_INVALID_ADDRESS;
-					}
 
-					clock += 2;
-					timeLeft -= 2;
+	/**
+	 * Method Name: relocatingLoader
+	 *
+	 * Method Description:
+	 *   Load a machine language program into a segment of its own. The addresses in the
+	 *   file are relative to the start of the program, the segment is as long as the highest
+	 *   one plus 1 and is taken from the program allocator. The words are stored at the
+	 *   segment start plus their address and the segment becomes the base and limit
+	 *   registers of the process. Same file format and checks as the absolute loader.
+	 *   With paging the program goes into pages mapped by allocatePages() instead.
+	 *
+	 * Input Parameters:
+	 *   @param file: name of the machine language program file
+	 *   @param PCBptr: PCB of the process the program is loaded for
+	 *
+	 * Output Parameters:
+	 *   None
+	 *
+	 * Method Return Values:
+	 *   @return PC: the start address in the end of program line, relative to the segment
+	 *   @return ERROR_FILE_OPEN: the file can't be opened
+	 *   @return ERROR_INVALID_ADDRESS: an address is outside the part of the user program area the CPU fetches from
+	 *   @return ERROR_NO_END_OF_PROGRAM: the file has no end of program line
+	 *   @return ERROR_INVALID_PC_VALUE: the start address is outside the program
+	 *   @return ERROR_NO_FREE_MEMORY: no segment is large enough, or no frames or page table are left
+	 *   @throws IOException
+	 */
+	public long relocatingLoader(String file, long PCBptr) throws IOException {
+		List<long[]> words = new ArrayList<long[]>(); // {address, content} of every line
+		long entry = ERROR_NO_END_OF_PROGRAM;
+		long size = 0;
+
+		try {
+			BufferedReader br = new BufferedReader(new FileReader(new File(file)));
+			String st;
+
+			while((st = br.readLine()) != null) {
+				String columns[] = st.split("\t", 2);
+				long address = Long.parseLong(columns[0].trim());
+				long content = Long.parseLong(columns[1].trim());
+
+				if(address == END_OF_PROGRAM) {
+					entry = content;
 					break;
 				}
+				else if(address >= 0 && address < DECODE_CACHE_SIZE) {
+					words.add(new long[] {address, content});
+					size = Math.max(size, address + 1);
+				}
+				else {
+					traceln(TRACE_ERRORS, "ErrorInvalidRange");
+					br.close();
+					return ERROR_INVALID_ADDRESS;
+				}
+			}
+			br.close();
+		}
+		catch(FileNotFoundException e) {
+			traceln(TRACE_ERRORS, "\nError: coudn't open the file. Returning error code: " + ERROR_FILE_OPEN);
+			return ERROR_FILE_OPEN;
+		}
 
-				case 7: { // branch on minus instruction
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+		if(entry == ERROR_NO_END_OF_PROGRAM) {
+			return ERROR_NO_END_OF_PROGRAM;
+		}
 
-					if(!(status > 0))  {
-						System.out.println(status);
-						return ERROR_INVALID_ADDRESS;
-					}
+		if(entry < 0 || entry >= size) {
+			traceln(TRACE_ERRORS, "\nError: start address " + entry + " is outside the program. Returning error code: " + ERROR_INVALID_PC_VALUE);
+			return ERROR_INVALID_PC_VALUE;
+		}
 
-					if(Op1Value < 0) {
-						if(pc >= 0 && pc <= 2499)
-							pc = hypoMainMemory[(int) pc];
+		if(paging) {
+			long status = allocatePages(PCBptr, size);
 
-						else {
-							System.out.println("Error invalid PC value encountered. Returning error code: " + ERROR_INVALID_PC_VALUE);
-							return ERROR_INVALID_PC_VALUE;
-						}
-					}
-					else pc++;
+			if(status < 0) {
+				return status;
+			}
 
-					clock += 4;
-					timeLeft -= 4;
-					break;
-				}
+			// a page table entry below 0 is the swap slot of a page that is not in memory
+			for(long word[] : words) {
+				long pageTableEntry = hypoMainMemory.get(processBase[(int) PCBptr] + word[0] / PAGE_SIZE);
 
-				case 8: { // branch on plus instruction
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+				if(pageTableEntry < 0) {
+					swapFile.store(-pageTableEntry - 1, word[0] % PAGE_SIZE, word[1]);
+				}
+				else {
+					hypoMainMemory.set(pageTableEntry + word[0] % PAGE_SIZE, word[1]);
+				}
+			}
 
-					if(!(status > 0)) {
-						System.out.println(status);
-						return ERROR_INVALID_ADDRESS;
-					}
+			trace(TRACE_EVENTS, "\nProgram Successfully Loaded!");
+			traceln(TRACE_DETAIL, " Pages: page table at " + processBase[(int) PCBptr] + ", limit " + size);
+			return entry;
+		}
 
-					if(Op1Value > 0) {
-						if(pc >= 0 && pc <= 2499)
-							pc = hypoMainMemory[(int) pc];
+		long segment = programAllocator.allocate(Math.max(2, size));
 
-						else {
-							System.out.println("Error invalid PC value encountered. Returning error code: " + ERROR_INVALID_PC_VALUE);
-							return ERROR_INVALID_PC_VALUE;
-						}
-					}
-					else pc++;
+		if(segment < 0) {
+			traceln(TRACE_ERRORS, "\nError: no room for a segment of " + size + " words. Returning error code: " + ERROR_NO_FREE_MEMORY);
+			return ERROR_NO_FREE_MEMORY;
+		}
 
-					clock += 4;
-					timeLeft -= 4;
-					break;
-				}
+		// words the file leaves out start as 0, not as what the previous owner of the segment left there
+		hypoMainMemory.fill(segment, size, 0);
+		invalidateDecodedInstructions(segment, segment + size - 1);
 
-				case 9: { // branch on zero instruction
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+		for(long word[] : words) {
+			hypoMainMemory.set(segment + word[0], word[1]);
+		}
 
-					if(!(status > 0)) {
-						System.out.println(status);
-						return ERROR_INVALID_ADDRESS;
-					}
+		processBase[(int) PCBptr] = segment;
+		processLimit[(int) PCBptr] = size;
 
-					if(Op1Value == 0) {
-						if(pc >= 0 && pc <= 2499)
-							pc = hypoMainMemory[(int) pc];
+		trace(TRACE_EVENTS, "\nProgram Successfully Loaded!");
+		traceln(TRACE_DETAIL, " Segment: base " + segment + ", limit " + size);
+		return entry;
+	}
 
-						else {
-							System.out.println("Error invalid PC value encountered. Returning error code: " + ERROR_INVALID_PC_VALUE);
-							return ERROR_INVALID_PC_VALUE;
-						}
-					}
-					else pc++;
 
-					clock += 4;
-					timeLeft -= 4;
-					break;
-				}
 
-				case 10: { // push instruction
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					System.out.println("Value " + Op1Value + " is being pushed to the stack");
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
-
-					if(!(status > 0))  {
-						System.out.println(status);
-						return ERROR_INVALID_ADDRESS;
-					}
+	/**
+	 * Method Name: allocatePages
+	 *
+	 * Method Description:
+	 *   Give a process the pages for size program addresses: a page table from OS memory
+	 *   and a zeroed frame for every page, with demand paging a zeroed swap slot instead.
+	 *   The page table becomes the base register of the process and size its limit register.
+	 *
+	 * Input Parameters:
+	 *   @param PCBptr: PCB of the process
+	 *   @param size: number of program addresses
+	 *
+	 * Output Parameters:
+	 *   None
+	 *
+	 * Method Return Values:
+	 *   @return OK: the pages are mapped
+	 *   @return ERROR_NO_FREE_MEMORY: no OS memory for the page table or not enough free frames or swap slots, nothing is kept
+	 */
+	public long allocatePages(long PCBptr, long size) {
+		long pages = (size + PAGE_SIZE - 1) / PAGE_SIZE;
+		long pageTable = osAllocator.allocate(Math.max(2, pages));
 
-					sp++;
-					hypoMainMemory[(int) sp] = Op1Value;
+		if(pageTable < 0) {
+			traceln(TRACE_ERRORS, "\nError: no OS memory for a page table of " + pages + " pages. Returning error code: " + ERROR_NO_FREE_MEMORY);
+			return ERROR_NO_FREE_MEMORY;
+		}
 
-					clock += 2;
-					timeLeft -= 2;
-					break;
-				}
+		// with demand paging every page starts in a zeroed swap slot and is brought in on its first reference
+		if(demandPaging) {
+			for(long page = 0; page < pages; page++) {
+				long slot = swapFile.allocate();
 
-				case 11: { // pop instruction
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					System.out.println("Value " + Op1Value + " is being popped from the stack");
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
-
-					if(!(status > 0))  {
-						System.out.println(status);
-						return ERROR_INVALID_ADDRESS;
+				if(slot < 0) {
+					for(long mapped = 0; mapped < page; mapped++) {
+						swapFile.free(-hypoMainMemory.get(pageTable + mapped) - 1);
 					}
+					osAllocator.free(pageTable, Math.max(2, pages));
 
-					Op1Value = hypoMainMemory[(int) sp];
-					sp--;
-
-					clock += 2;
-					timeLeft -= 2;
-					break;
+					traceln(TRACE_ERRORS, "\nError: no free swap slot for page " + page + " of " + pages + ". Returning error code: " + ERROR_NO_FREE_MEMORY);
+					return ERROR_NO_FREE_MEMORY;
 				}
 
-				case 12: { // system call instruction - system call requests OS services such as reading from keyboard, displaying to monitor, create/delete/suspend process, send message. The type of message depends on the system call identifier specified in the instruction
-					// check if PC value is in invalid range
-					if(pc <= 0 && pc >= 2499) {
-						System.out.println("Error invalid PC value encountered. Returning error code: " + ERROR_INVALID_PC_VALUE);
-						return ERROR_INVALID_PC_VALUE;
-					}
-					
-					recieve = fetchOperand(Op1Mode, Op1GPR);
-					Op1Value = recieve.getOpValue();
-					Op1Address = recieve.getOpAddress();
-					status = recieve.getStat();
+				swapFile.clear(slot);
+				hypoMainMemory.set(pageTable + page, -slot - 1);
+			}
 
-					if(!(status > 0))  {
-						System.out.println(status);
-						return ERROR_INVALID_ADDRESS;
-					}					
-					
-					long systemCallID = hypoMainMemory[(int) pc++];
+			processBase[(int) PCBptr] = pageTable;
+			processLimit[(int) PCBptr] = size;
+			return OK;
+		}
 
-					status = systemCall(Op1Value);
+		for(long page = 0; page < pages; page++) {
+			long frame = frameTable.allocate();
 
-					clock += 12;
-					timeLeft -= 12;
-					break;
+			if(frame < 0) {
+				// give back the frames mapped so far
+				for(long mapped = 0; mapped < page; mapped++) {
+					frameTable.free(hypoMainMemory.get(pageTable + mapped));
 				}
+				osAllocator.free(pageTable, Math.max(2, pages));
 
-				default: {
-					System.out.println("Invalid opcode encountered. Returning error code: " + ERROR_INVALID_OPCODE_VALUE);
-					return ERROR_INVALID_OPCODE_VALUE;
-				}
+				traceln(TRACE_ERRORS, "\nError: no free frame for page " + page + " of " + pages + ". Returning error code: " + ERROR_NO_FREE_MEMORY);
+				return ERROR_NO_FREE_MEMORY;
 			}
 
-		} while(Opcode != HALT && timeLeft > 0); // loop until 0 received indicating halt operation
+			// words the file leaves out start as 0, not as what the previous owner of the frame left there
+			hypoMainMemory.set(pageTable + page, frame);
+			hypoMainMemory.fill(frame, PAGE_SIZE, 0);
+			invalidateDecodedInstructions(frame, frame + PAGE_SIZE - 1);
+		}
 
-		return status;
+		processBase[(int) PCBptr] = pageTable;
+		processLimit[(int) PCBptr] = size;
+		return OK;
 	}
 
 
 
 	/**
-	 * Brian Perel wrote this method 
-	 * 
-	 * Method Name: fetchOperand
+	 * Method Name: freeSegment
 	 *
-	 * Method Description: take in operand mode to determine which case is to be executed
+	 * Method Description:
+	 *   Give the segment of a relocated process back to the program allocator, or with
+	 *   paging its frames to the frame table, its swap slots to the swap file and its page
+	 *   table to OS memory. A process
+	 *   loaded by the absolute loader has no segment of its own, nothing is freed then.
 	 *
 	 * Input Parameters:
-	 *   Op1Mode		Operand Mode value
-	 *   Op1GPR 	    Operand GPR value
+	 *   @param PCBptr: PCB of the process
 	 *
 	 * Output Parameters:
-	 * 	 OpAddress		Address of operand
-	 * 	 OpValue		Operand value when mode and GPR are valid
+	 *   None
 	 *
 	 * Method Return Values:
-	 *   @return returnFetchOps - Object that returns 3 things: status, OpValue, OpAddress
+	 *   None
 	 */
-	public static returnFetchOps fetchOperand(long OpMode, long OpGPR) {
-		long OpAddress = 0;
-		long OpValue = 0;
-		long stat = 0;
+	public void freeSegment(long PCBptr) {
+		if(!relocating || processLimit[(int) PCBptr] == USER_PROGRAM_AREA_SIZE && processBase[(int) PCBptr] == 0) {
+			return;
+		}
 
-		switch((int) OpMode) {
-			case 1: // register mode
-				OpAddress = -2;
-				OpValue = gpr[(int) OpGPR];
-				stat = OK;
-				break;
+		if(paging) {
+			long pages = (processLimit[(int) PCBptr] + PAGE_SIZE - 1) / PAGE_SIZE;
 
-			case 2: // register deferred mode -> Op address is in GPR and value in memory
-				OpAddress = gpr[(int) OpGPR];
+			for(long page = 0; page < pages; page++) {
+				long entry = hypoMainMemory.get(processBase[(int) PCBptr] + page);
 
-				if(OpAddress <= END_ADDR_OF_USER_FREELIST && OpAddress >= START_ADDR_OF_USER_FREELIST) {
-					OpValue = hypoMainMemory[(int) OpAddress];
+				if(entry < 0) {
+					// page in the swap file
+					swapFile.free(-entry - 1);
+					continue;
 				}
-				else {
-					System.out.println("Error invalid address encountered. Returning error code: " + ERROR_INVALID_ADDRESS);
-					stat = ERROR_INVALID_ADDRESS;
-				}
-				break;
 
-			case 3: // Auto-increment mode - Op address in GPR and Op value in memory
-				OpAddress = gpr[(int) OpGPR];
-				if(OpAddress <= END_ADDR_OF_USER_FREELIST && OpAddress >= START_ADDR_OF_USER_FREELIST) {
-					OpValue = hypoMainMemory[(int) OpAddress];
-				}
-				else {
-					System.out.println("Error invalid address encountered. Returning error code: " + ERROR_INVALID_ADDRESS);
-					stat = ERROR_INVALID_ADDRESS;
+				if(demandPaging) {
+					int number = frameTable.number(entry);
+					swapFile.free(frameTable.swapSlot[number]);
+					replacementPolicy.freed(frameTable, number);
+					frameTable.unmap(number);
 				}
-				gpr[(int) OpGPR]++;
-				break;
-
-			case 4: // Auto-decrement mode
-				--gpr[(int) OpGPR];
-				OpAddress = gpr[(int) OpGPR];
-				if(OpAddress <= END_ADDR_OF_USER_FREELIST && OpAddress >= START_ADDR_OF_USER_FREELIST) {
-					OpValue = hypoMainMemory[(int) OpAddress];
-				}
-				else {
-					System.out.println("Error invalid address. Returning error code: " + ERROR_INVALID_ADDRESS);
-					stat = ERROR_INVALID_ADDRESS;
-				}
-				break;
-
-			case 5: // direct mode - operand address is in the instruction pointed by PC
-				if(pc <= 0 && pc >= 2499) {
-					OpAddress = hypoMainMemory[(int) pc++];
-				}
-				OpAddress = hypoMainMemory[(int) pc++];
-				if(OpAddress >= 0 && OpAddress <= 3499) {
-					OpValue = hypoMainMemory[(int) OpAddress];
-				}
-				else {
-					System.out.println("Invalid Address Error");
-					stat = ERROR_INVALID_ADDRESS;
-				}
-				break;
-
-			case 6: // Immediate mode - operand value is in the instruction
-				if(pc <= 0 && pc >= 2499) {
-					OpAddress = -2;
-					OpValue = hypoMainMemory[(int) pc++];
-				}
-				else {
-					System.out.println("Invalid Address Error");
-					stat = ERROR_INVALID_ADDRESS;
-				}
-
-				break;
-
-			default: // Invalid mode
-				System.out.println("Invalid Error Message");
-				stat = ERROR_INVALID_MODE;
-				break;
+				frameTable.release(entry);
+			}
+			osAllocator.free(processBase[(int) PCBptr], Math.max(2, pages));
 		}
-
-		returnFetchOps returning = new returnFetchOps(stat, OpAddress, OpValue);
-		return returning;
+		else if(programAllocator.free(processBase[(int) PCBptr], Math.max(2, processLimit[(int) PCBptr])) < 0) {
+			traceln(TRACE_ERRORS, "Error: No segment was allocated at " + processBase[(int) PCBptr] + ". Returning error code: " + ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS);
+		}
+		processBase[(int) PCBptr] = 0;
+		processLimit[(int) PCBptr] = USER_PROGRAM_AREA_SIZE;
 	}
 
 
@@ -984,1272 +1729,6063 @@ public class Perel_hw2Simulator {
 	/**
 	 * Brian Perel wrote this method 
 	 * 
-	 * Method Name: dumpMemory
+	 * Method Name: CPU
 	 *
 	 * Method Description:
-	 *  Displays the content of the HYPO machine GPRs, the clock,
-	 *  content of given memory locations, and the given string
+	 *   Method (executes the loaded program in main memory) performs fetch-decode-execute cycle for
+	 *   every given instruction. Simulates the CPU hardware of the OS.
+	 *   Performs all possible error checking such as invalid memory address
+	 *   reference, invalid mode, division by zero. After execution of
+	 *   every instruction, it increases the clock by the instruction execution
+	 *   time. Method executes 1 instruction at a time pointed by program counter.
+	 *   The process when it gets the CPU is given a fixed amount of CPU called time slice (timeSlice, set by the scheduler). 
+	 *   For every instruction executed, decrement the CPU time left by the instruction time.
 	 *
 	 * Input Parameters:
-	 *   String			String to be displayed
-	 *   StartAddress   Start address of memory location
-	 *   Size		    Number of locations to dump
+	 *   None
 	 *
 	 * Output Parameters:
-	 * 	 None
-	 *
-	 * Method Return Values:
 	 *   None
+	 *
+	 * Method Return Values
+	 *   @return status: returns status value of current CPU execution of program
+	 *   @return TIME_SLICE_EXPIRED: the time slice ran out before the program halted
+	 *   @return ErrorInvalidAddress: returns invalid address error code
+	 *   @return ErrorInvalidOpcodeValue: returns invalid opcode value error code
+	 *   @return RunTimeError: return run time error code
 	 */
-	public static void dumpMemory(String string, long startAddress, long size) {
+	public long CPU() {
+		long timeLeft = timeSlice;
 
-		System.out.println("\n" + string + ":\n"); // display input parameter String
+		final long HALT = 0;
+		long remainder; // store value after performing remainder operation on IR register in OpCode
+		int decoded; // decoded instruction cache entry of the instruction being executed
+		long status = 0; // store and return status of CPU
+		long instructionAddress; // program address of the instruction being executed
+		long physicalAddress; // memory address a program address translates to
 
-		long endAddress = startAddress + size;
+		// below 5 variables make up a word instruction
+		long Opcode, Op1Mode, Op1GPR, Op2Mode, Op2GPR, Op1Value = 0;
+		long Op1Address, Op2Value, Op2Address, result;
+
+		// addressing modes
+		long registerMode = 1;
+		long immediateMode = 6;
 
-		if((startAddress < 0 || startAddress > MAX_MEMORY_ADDRESS) || (endAddress < 0 && endAddress > 1000) || (size < 1 || size > hypoMainMemory.length))
-			System.out.println("Invalid start address, end address, or size. Return error code: " + ERROR_INVALID_ADDRESS);
+		do {
 
-		else {
-			// Print GPR row title
-			System.out.println("GPRs:\t G0\tG1\tG2\tG3\tG4\tG5\tG6\tG7\tSP\tPC");
+			// Fetch cycle: fetch (read) first word of instruction pointed by PC, translated to its memory address
+			instructionAddress = pc;
 
-			// Print GPR values
-			for(int x = 0; x < gpr.length; x++) {
-				if(x == 0) {
-					System.out.print("\t " + gpr[x]);
-				}
-				else {
-					System.out.print("\t" + gpr[x]);
-				}
+			if(pc >= 0 && pc <= 2499 && (physicalAddress = translateAddress(pc)) >= 0) {
+				mar = physicalAddress;
+				pc++;
+				mbr = hypoMainMemory.get(mar);
+			}
+			else {
+				traceln(TRACE_ERRORS, "Invalid address runtime error. Returning error code: " + ERROR_INVALID_PC_VALUE);
+				return ERROR_INVALID_PC_VALUE;
 			}
 
-			System.out.printf("\t%d\t%d%n", sp, pc);
+			IR = mbr;
+			instructionCount++;
 
-			// Print memory column headers
-			System.out.print("\nAddress: +0\t+1\t+2\t+3\t+4\t+5\t+6\t+7\t+8\t+9\n");
+			// Decode cycle: use the decoded instruction cache entry for this address if there is one
+			decoded = decodedInstructionCache[(int) mar];
 
-			long addr = startAddress;
+			if(decoded != 0 && decodedInstructionWord[(int) mar] == IR) {
+				Opcode = (decoded >> 16) & 0xF;
+				Op1Mode = (decoded >> 12) & 0xF;
+				Op1GPR = (decoded >> 8) & 0xF;
+				Op2Mode = (decoded >> 4) & 0xF;
+				Op2GPR = decoded & 0xF;
+			}
+			else {
+				// decode the first word of instruction into opcode
+				Opcode = (int) (IR / 10000);
+				remainder = IR % 10000;
 
-			// Print memory values
-			while(addr <= endAddress) {
-				if(addr >= 10) System.out.print("\n" + addr);
+				Op1Mode = (int) (remainder / 1000);
+				remainder %= 1000;
 
-				else System.out.print(addr);
+				Op1GPR = (int) (remainder / 100);
+				remainder %= 100;
 
-				for(int i = 0; i < 10; i++) {
-					if(addr <= endAddress) {
-						System.out.print("\t " + hypoMainMemory[(int) addr]);
-						addr++;
-					}
-					else break;
+				Op2Mode = (int) (remainder / 10);
+				remainder %= 10;
+
+				Op2GPR = remainder;
+
+				// Opcode max = 14, Op1Mode max = 6, Op1Mode min = 0, Opcode min = 0, Op2Mode max = 6, Op2Mode min = 0
+				if(Opcode < 0 || Opcode > 14) {
+					traceln(TRACE_ERRORS, "\nError: Invalid opcode value. Return error code: " + ERROR_INVALID_OPCODE_VALUE);
+					return ERROR_INVALID_OPCODE_VALUE;
 				}
-			}
 
-			System.out.println("\n\nClock: " + clock); // display clock information
-			System.out.print("PSR: " + psr + "\n"); // display PSR register information
-		}
-	}
+				// check for invalid mode#
+				if(Op1Mode < 0 && Op1Mode > 6 && Op2Mode < 0 && Op2Mode > 6) {
+					traceln(TRACE_ERRORS, "\nError: Invalid mode found. Return error code: " + ERROR_INVALID_MODE);
+					return ERROR_INVALID_MODE;
+				}
 
+				///check for invalid GPR#: error = !(0-7)
+				if(Op1GPR < 0 || Op1GPR > 7 || Op2GPR < 0 && Op2GPR > 7) {
+					traceln(TRACE_ERRORS, "\nError: Invalid GPR value found. Return error code: " + ERROR_INVALID_GPR_VALUE);
+					return ERROR_INVALID_GPR_VALUE;
+				}
 
+				// instruction passed the checks above, remember it so the next fetch from this address skips the decode
+				// (negative words decode to negative fields and are left out of the cache)
+				if(IR >= 0) {
+					decodedInstructionCache[(int) mar] = DECODE_CACHE_VALID | (int) (Opcode << 16 | Op1Mode << 12 | Op1GPR << 8 | Op2Mode << 4 | Op2GPR);
+					decodedInstructionWord[(int) mar] = IR;
+				}
+			}
 
-	/**
-	 * Brian Perel wrote this method 
-	 * 
-	 * Method Name: create process
-	 *
-	 * Method Description: Method creates the process for the program, 
-	 *  prepares the PCB block (object), initializes all PCB contents to 
-	 *  proper values, defines stack space for the program and dumps user 
-	 *  program area memory locations, loads program (process) from disk to memory.
-	 *  Every process created is assigned a stack area in RAM and a pointer in 
-	 *  SP by the OS. Stack size is predefined by OS. Programs have access to SP 
-	 *  through push and pop instructions only.    
-	 *
-	 * Input Parameters:
-	 *  filename: filename of machine file for which were creating a process
-	 *  priority: the priority value of the process, indicates which process should be handled first 
-	 *
-	 * Output Parameters:
-	 *  None
-	 *
-	 * Method Return Values:
-	 *  @return OK: returns successful execution code
-	 *  @throws IOException
-	 */
-	public static long createProcess(String filename, long priority) throws IOException {
+			// Execute cycle: fetch (read) operand values based on opcode
+			switch((int) Opcode) { // switch statement cannot evaluate variables of long type, needed to cast
+				case 0: { // halt instruction
+					traceln(TRACE_EVENTS, "halt instruction is encountered");
+					clock += 12;
+					timeLeft -= 12;
+					status = PROGRAM_HALTED;
+					return status;
+				}
 
-		// Allocate stack space (memory) for PCB to create a process
-		long PCBptr = allocateOSMemory(PCB_SIZE); // change argument later, 0 gives error, 1 works
+				case 1: { // add instruction
+					// pass argument variables to fetchOperand(), method performs appropriate op and returns status, operand value and address are read from the operand registers
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
 
-		// check return value from allocateOSMemory(), if < 0 then error encountered
-		if(PCBptr < 0) {
-			return PCBptr;
-		}
+					if(status < 0) {
+						return status;
+					}
 
-		initializePCB(PCBptr); // call initialize PCB pointer and set it to a variable (so we know which PCB we're working with)
+					// pass argument variables to fetchOperand(), method performs appropriate op and returns status, operand value and address are read from the operand registers
+					status = fetchOperand(Op2Mode, Op2GPR);
+					Op2Value = opValue;
+					Op2Address = opAddress;
 
-		// load the program from disk to memory 
-		long value = absoluteLoader(filename);
+					// make sure status returned by fetchOperand() isn't an error code value
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
 
-		if(value < 0) {
-			return value; // check for program loading error
-		}
+					// perform add instruction
+					result = Op1Value + Op2Value;
 
-		hypoMainMemory[(int) (PCBptr + PCIndex)] = value;
-		
-		// Allocate stack space from user free list, allocate user memory of size stack size
-		long ptr = allocateUserMemory(stackSize);
+					if(Op1Mode == registerMode)
+						gpr[(int) Op1GPR] = result;
 
-		// check for error
-		if(ptr < 0) {
-			// User memory allocation failed
-			freeOSMemory(PCBptr, value);
-			return ptr;
-		}
+					else if(Op1Mode == immediateMode)
+						traceln(TRACE_ERRORS, "Error destination operand mode cannot be immediate mode");
+					else {
+						// a page shared copy-on-write gets a frame of its own first
+						Op1Address = writableAddress(Op1Address);
+						if(Op1Address == ERROR_NO_FREE_MEMORY) {
+							return ERROR_NO_FREE_MEMORY;
+						}
+						hypoMainMemory.set(Op1Address, result);
+						invalidateDecodedInstruction(Op1Address); // direct mode store may overwrite an instruction
+					}
 
-		hypoMainMemory[(int) (PCBptr + SPIndex)] = ptr + stackSize;
-		hypoMainMemory[(int) (PCBptr + stackStartAddressIndex)] = ptr;
-		hypoMainMemory[(int) (PCBptr + stackSizeIndex)] = stackSize;
-		
-		// set priority in the PCB to priority
-		hypoMainMemory[(int) (PCBptr + priorityIndex)] = priority; 
+					clock += 3;
+					timeLeft -= 3;
+					break;
+				}
 
-		dumpMemory("\nDumping memory addresses in user program area", 0, 99);
+				case 2: { // subtract instruction
+					
+					// pass argument variables to fetchOperand(), method performs appropriate op and returns status, operand value and address are read from the operand registers
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
 
-		printPCB(PCBptr); // print PCB passing PCBptr
-		
-		insertIntoRQ(PCBptr); // insert PCB into ready queue passing PCBptr
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
 
-		return OK;
-	}
+					// pass argument variables to fetchOperand(), method performs appropriate op and returns status, operand value and address are read from the operand registers
+					status = fetchOperand(Op2Mode, Op2GPR);
+					Op2Value = opValue;
+					Op2Address = opAddress;
 
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
 
+					result = Op1Value - Op2Value;
 
-	/**
-	 * Brian Perel wrote this method 
-	 * 
-	 * Method Name: initializePCB
-	 *
-	 * Method Description: PCB (Process Control Block) is related to process - anything that calls create process will deal with PCB such as initializeSystem function
-	 *  Method is used to initialize a new PCB node in which we set all its element variables. The new PCB will start at the specified address and have the specified PID.
-	 *  It's priority will be set to the default priority of 128 and all other values are initialized to value of 0.
-	 *
-	 * Input Parameters: 
-	 *  PCBptr: memory location of the PCB, used to identify it in memory and in queues
-	 *  
-	 * Output Parameters:
-	 *  None 
-	 *
-	 * Method Return Values: 
-	 *  None
-	 */
-	public static void initializePCB(long PCBptr) {
+					if(Op1Mode == registerMode)
+						gpr[(int) Op1GPR] = result;
 
-		// initialize all PCB values to 0 
-		for(int i = 0; i < PCB_SIZE; i++) {
-			hypoMainMemory[(int) (PCBptr + i)] = 0;
-		}
+					else if(Op1Mode == immediateMode)
+						traceln(TRACE_ERRORS, "Error destination operand mode cannot be immediate mode");
+					else {
+						// a page shared copy-on-write gets a frame of its own first
+						Op1Address = writableAddress(Op1Address);
+						if(Op1Address == ERROR_NO_FREE_MEMORY) {
+							return ERROR_NO_FREE_MEMORY;
+						}
+						hypoMainMemory.set(Op1Address, result);
+						invalidateDecodedInstruction(Op1Address); // direct mode store may overwrite an instruction
+					}
 
-		// PID of value zero is invalid, since process id's value is going into PID method we check process id value
-		if(ProcessID == 0) {
-			System.out.println("Invalid PID given. Error code: " + ERROR_INVALID_ADDRESS);
-		}
-		
-		hypoMainMemory[(int) (PCBptr + PIDIndex)] = ProcessID++; // allocate PID and set it in the PCB
-		hypoMainMemory[(int) (PCBptr + priorityIndex)] = DEFAULT_PRIORITY; // set priority field in the PCB to default priority
-		hypoMainMemory[(int) (PCBptr + stateIndex)] = READY_STATE; // set state field in the PCB equal to ready state
-		hypoMainMemory[(int) (PCBptr + nextPCBptrIndex)] = END_OF_LIST; // set next PCB pointer field (next pointer in the list)  in the PCB to end of list
-	}
+					clock += 3;
+					timeLeft -= 3;
+					break;
+				}
 
+				case 3: { // multiply instruction
+					// pass argument variables to fetchOperand(), method performs appropriate op and returns status, operand value and address are read from the operand registers
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
 
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
 
-	/**
-	 * Jon Petani wrote this method 
-	 * 
-	 * Method Name: printPCB
-	 *
-	 * Method Description: 
-	 *  Print values of all the fields in the PCB. This includes it's PID, state
-	 *  priority, SP, PC, size, next PCB pointer, GPR's, and stack address 
-	 *  
-	 * Input Parameters: 
-	 *  PCBptr: memory location of PCB 
-	 *  
-	 * Output Parameters:
-	 *  None 
-	 *  
-	 * Method Return Values:
-	 *  None 
-	 */
-	public static void printPCB(long PCBptr) {
-	
-		System.out.println("\nContents of the PCB in memory address: " + PCBptr +
-				"\nPCB address = " + PCBptr +
-				", Next PCB ptr = " + hypoMainMemory[(int) (PCBptr + nextPCBptrIndex)] +
-				", PID = " + hypoMainMemory[(int) (PCBptr + PIDIndex)] +
-				", Reason for waiting code = " + hypoMainMemory[(int) (PCBptr + reasonForWaitingCodeIndex)] + 
-				", State = " + hypoMainMemory[(int) (PCBptr + stateIndex)] +
-				",\nMessage queue start address = " + hypoMainMemory[(int) (PCBptr + messageQueueStartAddressIndex)] +
-				", Message queue size = " + hypoMainMemory[(int) (PCBptr + messageQueueSizeIndex)] +
-				", Number of messages in queue = " + hypoMainMemory[(int) (PCBptr + numOfMessagesInQueueIndex)] +  
-				",\nPSR = " + hypoMainMemory[(int) (PCBptr + PSRIndex)] + 
-				", PC = " + hypoMainMemory[(int) (PCBptr + PCIndex)] +
-				", SP = " + hypoMainMemory[(int) (PCBptr + SPIndex)] +
-				", Priority = " + hypoMainMemory[(int) (PCBptr + priorityIndex)] +
-				", Stack info: start address = " + hypoMainMemory[(int) (PCBptr + stackStartAddressIndex)] +
-				" , size = " + hypoMainMemory[(int) (PCBptr + stackSizeIndex)]);
+					status = fetchOperand(Op2Mode, Op2GPR);
+					Op2Value = opValue;
+					Op2Address = opAddress;
 
-				// print 8 GPR values: GPRs = print 8 values of GPR 0 to GPR 7
-				System.out.print("GPRs:\t");
-				System.out.print("GPR0" + ": " + hypoMainMemory[(int) (PCBptr + GPR0Index)] + " ");
-				System.out.print("GPR1" + ": " + hypoMainMemory[(int) (PCBptr + GPR1Index)] + " ");
-				System.out.print("GPR2" + ": " + hypoMainMemory[(int) (PCBptr + GPR2Index)] + " ");
-				System.out.print("GPR3" + ": " + hypoMainMemory[(int) (PCBptr + GPR3Index)] + " ");
-				System.out.print("GPR4" + ": " + hypoMainMemory[(int) (PCBptr + GPR4Index)] + " ");
-				System.out.print("GPR5" + ": " + hypoMainMemory[(int) (PCBptr + GPR5Index)] + " ");
-				System.out.print("GPR6" + ": " + hypoMainMemory[(int) (PCBptr + GPR6Index)] + " ");
-				System.out.print("GPR7" + ": " + hypoMainMemory[(int) (PCBptr + GPR7Index)] + " ");
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
 
-				System.out.println();
-	}
+					result = Op1Value * Op2Value;
 
+					if(Op1Mode == registerMode)
+						gpr[(int) Op1GPR] = result;
 
+					else if(Op1Mode == immediateMode)
+						traceln(TRACE_ERRORS, "Error destination operand mode cannot be immediate mode");
+					else {
+						// a page shared copy-on-write gets a frame of its own first
+						Op1Address = writableAddress(Op1Address);
+						if(Op1Address == ERROR_NO_FREE_MEMORY) {
+							return ERROR_NO_FREE_MEMORY;
+						}
+						hypoMainMemory.set(Op1Address, result);
+						invalidateDecodedInstruction(Op1Address); // direct mode store may overwrite an instruction
+					}
 
-	/**
-	 * Jon Petani wrote this method 
-	 * 
-	 * Method Name: printQueue
-	 * 
-	 * Method Description: 
-	 *  Walk through the queue from the given pointer until the end of list
-	 *  and print the given queue passed in as argument, queue can be
-	 *  ready queue or waiting queue. 
+					clock += 6;
+					timeLeft -= 6;
+					break;
+				}
+
+				case 4: { // divide instruction
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
+
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
+
+					status = fetchOperand(Op2Mode, Op2GPR);
+					Op2Value = opValue;
+					Op2Address = opAddress;
+
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
+
+					// check to make sure division by 0 isn't done
+					if(Op2Value == 0) {
+						traceln(TRACE_ERRORS, "Error! Division by 0");
+						return ERROR_INVALID_OPCODE_VALUE;
+					}
+
+					result = Op1Value / Op2Value;
+
+					if(Op1Mode == registerMode)
+						gpr[(int) Op1GPR] = result;
+
+					else if(Op1Mode == immediateMode)
+						traceln(TRACE_ERRORS, "Error destination operand mode cannot be immediate mode");
+					else {
+						// a page shared copy-on-write gets a frame of its own first
+						Op1Address = writableAddress(Op1Address);
+						if(Op1Address == ERROR_NO_FREE_MEMORY) {
+							return ERROR_NO_FREE_MEMORY;
+						}
+						hypoMainMemory.set(Op1Address, result);
+						invalidateDecodedInstruction(Op1Address); // direct mode store may overwrite an instruction
+					}
+
+					clock += 6;
+					timeLeft -= 6;
+					break;
+				}
+
+				case 5: { // move instruction
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
+
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
+
+					status = fetchOperand(Op2Mode, Op2GPR);
+					Op2Value = opValue;
+					Op2Address = opAddress;
+
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
+
+					result = Op2Value;
+
+					if(Op1Mode == registerMode)
+						gpr[(int) Op1GPR] = result;
+
+					else if(Op1Mode == immediateMode)
+						traceln(TRACE_ERRORS, "Error destination operand mode cannot be immediate mode");
+					else {
+						// a page shared copy-on-write gets a frame of its own first
+						Op1Address = writableAddress(Op1Address);
+						if(Op1Address == ERROR_NO_FREE_MEMORY) {
+							return ERROR_NO_FREE_MEMORY;
+						}
+						hypoMainMemory.set(Op1Address, result);
+						invalidateDecodedInstruction(Op1Address); // direct mode store may overwrite an instruction
+					}
+
+					clock += 2;
+					timeLeft -= 2;
+					break;
+				}
+
+				case 6: { // branch instruction
+					if(pc >= 0 && pc <= 2499 && (physicalAddress = translateAddress(pc)) >= 0)
+						pc = hypoMainMemory.get(physicalAddress);
+
+					else {
+						traceln(TRACE_ERRORS, "Invalid address value encountered. Returning error code: " + ERROR_INVALID_ADDRESS);
+						return ERROR_INVALID_ADDRESS;
+					}
+
+					clock += 2;
+					timeLeft -= 2;
+					break;
+				}
+
+				case 7: { // branch on minus instruction
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
+
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
+
+					if(Op1Value < 0) {
+						if(pc >= 0 && pc <= 2499 && (physicalAddress = translateAddress(pc)) >= 0)
+							pc = hypoMainMemory.get(physicalAddress);
+
+						else {
+							traceln(TRACE_ERRORS, "Error invalid PC value encountered. Returning error code: " + ERROR_INVALID_PC_VALUE);
+							return ERROR_INVALID_PC_VALUE;
+						}
+					}
+					else pc++;
+
+					clock += 4;
+					timeLeft -= 4;
+					break;
+				}
+
+				case 8: { // branch on plus instruction
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
+
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
+
+					if(Op1Value > 0) {
+						if(pc >= 0 && pc <= 2499 && (physicalAddress = translateAddress(pc)) >= 0)
+							pc = hypoMainMemory.get(physicalAddress);
+
+						else {
+							traceln(TRACE_ERRORS, "Error invalid PC value encountered. Returning error code: " + ERROR_INVALID_PC_VALUE);
+							return ERROR_INVALID_PC_VALUE;
+						}
+					}
+					else pc++;
+
+					clock += 4;
+					timeLeft -= 4;
+					break;
+				}
+
+				case 9: { // branch on zero instruction
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
+
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
+
+					if(Op1Value == 0) {
+						if(pc >= 0 && pc <= 2499 && (physicalAddress = translateAddress(pc)) >= 0)
+							pc = hypoMainMemory.get(physicalAddress);
+
+						else {
+							traceln(TRACE_ERRORS, "Error invalid PC value encountered. Returning error code: " + ERROR_INVALID_PC_VALUE);
+							return ERROR_INVALID_PC_VALUE;
+						}
+					}
+					else pc++;
+
+					clock += 4;
+					timeLeft -= 4;
+					break;
+				}
+
+				case 10: { // push instruction
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					if(tracing(TRACE_DETAIL)) {
+						traceln(TRACE_DETAIL, "Value " + Op1Value + " is being pushed to the stack");
+					}
+					Op1Address = opAddress;
+
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
+
+					sp++;
+					hypoMainMemory.set(sp, Op1Value);
+					invalidateDecodedInstruction(sp);
+
+					clock += 2;
+					timeLeft -= 2;
+					break;
+				}
+
+				case 11: { // pop instruction
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					if(tracing(TRACE_DETAIL)) {
+						traceln(TRACE_DETAIL, "Value " + Op1Value + " is being popped from the stack");
+					}
+					Op1Address = opAddress;
+
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
+
+					Op1Value = hypoMainMemory.get(sp);
+					sp--;
+
+					clock += 2;
+					timeLeft -= 2;
+					break;
+				}
+
+				case 12: { // system call instruction - system call requests OS services such as reading from keyboard, displaying to monitor, create/delete/suspend process, send message. The type of message depends on the system call identifier specified in the instruction
+					// check if PC value is in invalid range
+					if(pc <= 0 && pc >= 2499) {
+						traceln(TRACE_ERRORS, "Error invalid PC value encountered. Returning error code: " + ERROR_INVALID_PC_VALUE);
+						return ERROR_INVALID_PC_VALUE;
+					}
+					
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Value = opValue;
+					Op1Address = opAddress;
+
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
+
+					// the system call ID is the operand, usually immediate: 126000 followed by the ID word
+					status = systemCall(Op1Value);
+
+					clock += 12;
+					timeLeft -= 12;
+
+					// a batch receive runs again when a message wakes the process, it copies into its buffer only while the process runs
+					if(status == MESSAGE_BATCH_WAIT) {
+						pc = instructionAddress;
+					}
+
+					// the process has to wait for I/O, a semaphore, mutex or message, it gives up the CPU right away
+					if(status == IO_GETCINTERRUPT || status == IO_PUTCINTERRUPT || status == SEMAPHORE_WAIT || status == MESSAGE_WAIT || status == MESSAGE_BATCH_WAIT) {
+						return status;
+					}
+					break;
+				}
+
+				case 13: { // compare and swap instruction - if the memory operand equals GPR0 it is replaced by operand 2, GPR0 gets the old memory value either way (equal to what it held if the swap was done)
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Address = opAddress;
+
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
+
+					status = fetchOperand(Op2Mode, Op2GPR);
+					Op2Value = opValue;
+
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
+
+					// register and immediate operands have no memory address to lock
+					if(Op1Address < 0) {
+						traceln(TRACE_ERRORS, "Error: destination operand of an atomic instruction must be in memory. Returning error code: " + ERROR_INVALID_MODE);
+						return ERROR_INVALID_MODE;
+					}
+
+					// a page shared copy-on-write gets a frame of its own first
+					Op1Address = writableAddress(Op1Address);
+					if(Op1Address == ERROR_NO_FREE_MEMORY) {
+						return ERROR_NO_FREE_MEMORY;
+					}
+
+					gpr[0] = hypoMainMemory.compareAndExchange(Op1Address, gpr[0], Op2Value);
+					invalidateDecodedInstruction(Op1Address);
+
+					clock += 5;
+					timeLeft -= 5;
+					break;
+				}
+
+				case 14: { // fetch and add instruction - operand 2 is added to the memory operand, GPR0 gets the old memory value
+					status = fetchOperand(Op1Mode, Op1GPR);
+					Op1Address = opAddress;
+
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
+
+					status = fetchOperand(Op2Mode, Op2GPR);
+					Op2Value = opValue;
+
+					if(status < 0) {
+						traceln(TRACE_ERRORS, status);
+						return ERROR_INVALID_ADDRESS;
+					}
+
+					// register and immediate operands have no memory address to lock
+					if(Op1Address < 0) {
+						traceln(TRACE_ERRORS, "Error: destination operand of an atomic instruction must be in memory. Returning error code: " + ERROR_INVALID_MODE);
+						return ERROR_INVALID_MODE;
+					}
+
+					// a page shared copy-on-write gets a frame of its own first
+					Op1Address = writableAddress(Op1Address);
+					if(Op1Address == ERROR_NO_FREE_MEMORY) {
+						return ERROR_NO_FREE_MEMORY;
+					}
+
+					gpr[0] = hypoMainMemory.getAndAdd(Op1Address, Op2Value);
+					invalidateDecodedInstruction(Op1Address);
+
+					clock += 4;
+					timeLeft -= 4;
+					break;
+				}
+
+				default: {
+					traceln(TRACE_ERRORS, "Invalid opcode encountered. Returning error code: " + ERROR_INVALID_OPCODE_VALUE);
+					return ERROR_INVALID_OPCODE_VALUE;
+				}
+			}
+
+		} while(Opcode != HALT && timeLeft > 0); // loop until 0 received indicating halt operation
+
+		// the process used its whole time slice without halting, it goes back to RQ
+		if(timeLeft <= 0) {
+			return TIME_SLICE_EXPIRED;
+		}
+
+		return status;
+	}
+
+
+
+	/**
+	 * Brian Perel wrote this method 
+	 * 
+	 * Method Name: fetchOperand
 	 *
-	 * Input Parameters: 
-	 *  @param Qptr
-	 *  
-	 * Output Parameters: 
-	 *  None 
-	 *  
-	 * Method return values: 
-	 *  @return OK: Success code, is returned if queue was printed 
+	 * Method Description: take in operand mode to determine which case is to be executed
+	 *
+	 * Input Parameters:
+	 *   Op1Mode		Operand Mode value
+	 *   Op1GPR 	    Operand GPR value
+	 *
+	 * Output Parameters:
+	 * 	 opAddress		Address of operand, left in the operand register
+	 * 	 opValue		Operand value when mode and GPR are valid, left in the operand register
+	 *
+	 * Method Return Values:
+	 *   @return stat - status of the fetch, OpAddress and OpValue are left in opAddress and opValue
 	 */
-	public static long printQueue(long Qptr) {
+	public long fetchOperand(long OpMode, long OpGPR) {
+		long OpAddress = 0;
+		long OpValue = 0;
+		long stat = 0;
+		long physicalAddress; // memory address a program address translates to
+
+		switch((int) OpMode) {
+			case 1: // register mode
+				OpAddress = -2;
+				OpValue = gpr[(int) OpGPR];
+				stat = OK;
+				break;
+
+			case 2: // register deferred mode -> Op address is in GPR and value in memory
+				OpAddress = gpr[(int) OpGPR];
+
+				if(OpAddress <= userFreeEnd && OpAddress >= userFreeStart) {
+					OpValue = hypoMainMemory.get(OpAddress);
+				}
+				else {
+					traceln(TRACE_ERRORS, "Error invalid address encountered. Returning error code: " + ERROR_INVALID_ADDRESS);
+					stat = ERROR_INVALID_ADDRESS;
+				}
+				break;
+
+			case 3: // Auto-increment mode - Op address in GPR and Op value in memory
+				OpAddress = gpr[(int) OpGPR];
+				if(OpAddress <= userFreeEnd && OpAddress >= userFreeStart) {
+					OpValue = hypoMainMemory.get(OpAddress);
+				}
+				else {
+					traceln(TRACE_ERRORS, "Error invalid address encountered. Returning error code: " + ERROR_INVALID_ADDRESS);
+					stat = ERROR_INVALID_ADDRESS;
+				}
+				gpr[(int) OpGPR]++;
+				break;
+
+			case 4: // Auto-decrement mode
+				--gpr[(int) OpGPR];
+				OpAddress = gpr[(int) OpGPR];
+				if(OpAddress <= userFreeEnd && OpAddress >= userFreeStart) {
+					OpValue = hypoMainMemory.get(OpAddress);
+				}
+				else {
+					traceln(TRACE_ERRORS, "Error invalid address. Returning error code: " + ERROR_INVALID_ADDRESS);
+					stat = ERROR_INVALID_ADDRESS;
+				}
+				break;
+
+			case 5: // direct mode - operand address is in the instruction pointed by PC, both are program addresses translated to memory addresses
+				if(pc <= 0 && pc >= 2499) {
+					OpAddress = hypoMainMemory.get(translateAddress(pc++));
+				}
+				physicalAddress = translateAddress(pc);
+				if(physicalAddress < 0) {
+					traceln(TRACE_ERRORS, "Invalid Address Error");
+					stat = ERROR_INVALID_ADDRESS;
+					break;
+				}
+				pc++;
+				OpAddress = hypoMainMemory.get(physicalAddress);
+				if(OpAddress >= 0 && OpAddress <= 3499 && (physicalAddress = translateAddress(OpAddress)) >= 0) {
+					OpAddress = physicalAddress;
+					OpValue = hypoMainMemory.get(OpAddress);
+				}
+				else {
+					traceln(TRACE_ERRORS, "Invalid Address Error");
+					stat = ERROR_INVALID_ADDRESS;
+				}
+				break;
+
+			case 6: // Immediate mode - operand value is in the instruction, the word pointed by PC
+				if(pc >= 0 && pc <= 2499 && (physicalAddress = translateAddress(pc)) >= 0) {
+					pc++;
+					OpAddress = -2;
+					OpValue = hypoMainMemory.get(physicalAddress);
+				}
+				else {
+					traceln(TRACE_ERRORS, "Invalid Address Error");
+					stat = ERROR_INVALID_ADDRESS;
+				}
+
+				break;
+
+			default: // Invalid mode
+				traceln(TRACE_ERRORS, "Invalid Error Message");
+				stat = ERROR_INVALID_MODE;
+				break;
+		}
+
+		// leave operand address and value in the operand registers, nothing is allocated per fetch
+		opAddress = OpAddress;
+		opValue = OpValue;
+		return stat;
+	}
+
+
+
+	/**
+	 * Method Name: translateAddress
+	 *
+	 * Method Description:
+	 *  Translate a program address of the running process to its memory address.
+	 *  Without paging the base register is added. With paging the page is looked up
+	 *  in the TLB, on a miss the page table the base register points to is read and
+	 *  the entry is put in the TLB. Addresses at or past the limit register fault.
+	 *  With demand paging a page that is not in memory is brought in by pageFault().
+	 *
+	 * Input Parameters:
+	 *  @param address: program address
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return physicalAddress: memory address of the program address
+	 *  @return ERROR_INVALID_ADDRESS: the address is outside the program
+	 *  @return ERROR_NO_FREE_MEMORY: a page fault found no frame to bring the page into
+	 */
+	public long translateAddress(long address) {
+		if(address < 0 || address >= limit) {
+			return ERROR_INVALID_ADDRESS;
+		}
+
+		if(!paging) {
+			return base + address;
+		}
+
+		long page = address / PAGE_SIZE;
+		int entry = (int) (page & (TLB_SIZE - 1));
+
+		if(tlbPage[entry] != page) {
+			tlbMisses++;
+			long frame = hypoMainMemory.get(base + page);
+
+			// page fault, the page is in the swap file
+			if(frame < 0) {
+				frame = pageFault(page);
+
+				if(frame < 0) {
+					return frame;
+				}
+			}
+
+			tlbPage[entry] = page;
+			tlbFrame[entry] = frame;
+		}
+		else {
+			tlbHits++;
+		}
+
+		// reference bit and clock of the last reference, what the replacement policy decides from
+		if(demandPaging) {
+			int frame = frameTable.number(tlbFrame[entry]);
+			frameTable.referenced[frame] = true;
+			frameTable.lastReference[frame] = clock;
+		}
+
+		return tlbFrame[entry] + address % PAGE_SIZE;
+	}
+
+
+
+	/**
+	 * Method Name: flushTLB
+	 *
+	 * Method Description:
+	 *  Empty the TLB of this core, its entries belong to the page table of the
+	 *  process that ran before.
+	 *
+	 * Input Parameters:
+	 *  None
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void flushTLB() {
+		Arrays.fill(tlbPage, -1);
+		tlbFlushes++;
+	}
+
+
+
+	/**
+	 * Method Name: pageFault
+	 *
+	 * Method Description:
+	 *  Service a page fault of the running process: take a free frame or evict a
+	 *  page to get one, copy the page from its swap slot into the frame and point
+	 *  the page table entry at the frame. Counts the fault and the host time it took.
+	 *
+	 * Input Parameters:
+	 *  @param page: page of the running process that is not in memory
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return frame: memory address of the frame the page is in now
+	 *  @return ERROR_NO_FREE_MEMORY: every frame holds words of the current instruction
+	 */
+	public long pageFault(long page) {
+		long startTime = System.nanoTime();
+		long frame = frameTable.allocate();
+
+		if(frame < 0) {
+			frame = evictPage();
+
+			if(frame < 0) {
+				traceln(TRACE_ERRORS, "\nError: no frame can be freed for page " + page + ". Returning error code: " + ERROR_NO_FREE_MEMORY);
+				return ERROR_NO_FREE_MEMORY;
+			}
+		}
+
+		long slot = -hypoMainMemory.get(base + page) - 1;
+		swapFile.read(slot, hypoMainMemory, frame);
+		invalidateDecodedInstructions(frame, frame + PAGE_SIZE - 1);
+		hypoMainMemory.set(base + page, frame);
+
+		int number = frameTable.number(frame);
+		frameTable.map(number, runningPCB, page, slot, clock);
+		replacementPolicy.loaded(frameTable, number);
+
+		pageFaults++;
+		pageFaultNanos += System.nanoTime() - startTime;
+		traceln(TRACE_DETAIL, "Page fault: page " + page + " of PID " + hypoMainMemory.get(runningPCB + PIDIndex) + " loaded from swap slot " + slot + " into frame " + frame);
+		return frame;
+	}
+
+
+
+	/**
+	 * Method Name: evictPage
+	 *
+	 * Method Description:
+	 *  Free a frame for a page fault: the replacement policy picks the frame, its page is
+	 *  written back to its swap slot and the page table entry of its process points to
+	 *  the slot again. A TLB entry of the page is dropped.
+	 *
+	 * Input Parameters:
+	 *  None
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return frame: memory address of the freed frame
+	 *  @return ERROR_NO_FREE_MEMORY: the policy found no frame it may evict
+	 */
+	public long evictPage() {
+		int number = replacementPolicy.victim(frameTable, clock);
+
+		if(number < 0) {
+			return ERROR_NO_FREE_MEMORY;
+		}
+
+		long frame = frameTable.address(number);
+		long owner = frameTable.ownerPCB[number];
+		long page = frameTable.ownerPage[number];
+		long slot = frameTable.swapSlot[number];
+
+		swapFile.write(slot, hypoMainMemory, frame);
+		hypoMainMemory.set(processBase[(int) owner] + page, -slot - 1);
+
+		// the running process may have the page in the TLB, no other process has TLB entries
+		int entry = (int) (page & (TLB_SIZE - 1));
+		if(owner == runningPCB && tlbPage[entry] == page) {
+			tlbPage[entry] = -1;
+		}
+
+		replacementPolicy.freed(frameTable, number);
+		frameTable.unmap(number);
+		pagesEvicted++;
+		traceln(TRACE_DETAIL, "Page out: page " + page + " of PID " + hypoMainMemory.get(owner + PIDIndex) + " written from frame " + frame + " to swap slot " + slot);
+		return frame;
+	}
+
+
+
+	/**
+	 * Method Name: writableAddress
+	 *
+	 * Method Description:
+	 *  Called before the CPU stores into memory. A frame that more than one page table
+	 *  maps (pages shared by fork) is copied first to a frame of the running process's
+	 *  own, its page table entry and TLB entry are moved there and the store goes there.
+	 *  Any other address is returned as it is.
+	 *
+	 * Input Parameters:
+	 *  @param address: memory address the CPU is going to store into
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return address: memory address to store into
+	 *  @return ERROR_NO_FREE_MEMORY: the page is shared and no frame is free for the copy
+	 */
+	public long writableAddress(long address) {
+		if(!paging || address < START_ADDR_OF_USER_PROGRAM_AREA || address >= DECODE_CACHE_SIZE
+				|| frameTable.shareCount[frameTable.number(address)] <= 1) {
+			return address;
+		}
+
+		synchronized(kernel) {
+			long frame = frameTable.address(frameTable.number(address));
+
+			// another sharer may have copied the page meanwhile, the running process then has the frame to itself
+			if(frameTable.shareCount[frameTable.number(frame)] <= 1) {
+				return address;
+			}
+
+			long page = 0;
+			while(page * PAGE_SIZE < limit && hypoMainMemory.get(base + page) != frame) {
+				page++;
+			}
+
+			if(page * PAGE_SIZE >= limit) {
+				return address; // not a page of the running process
+			}
+
+			long copy = frameTable.allocate();
+
+			if(copy < 0) {
+				traceln(TRACE_ERRORS, "\nError: no free frame to copy shared page " + page + ". Returning error code: " + ERROR_NO_FREE_MEMORY);
+				return ERROR_NO_FREE_MEMORY;
+			}
+
+			hypoMainMemory.copy(frame, copy, PAGE_SIZE);
+			invalidateDecodedInstructions(copy, copy + PAGE_SIZE - 1);
+			hypoMainMemory.set(base + page, copy);
+			frameTable.release(frame);
+
+			int entry = (int) (page & (TLB_SIZE - 1));
+			if(tlbPage[entry] == page) {
+				tlbFrame[entry] = copy;
+			}
+
+			kernel.copyOnWriteFaults++;
+			traceln(TRACE_DETAIL, "Copy-on-write: page " + page + " of PID " + hypoMainMemory.get(runningPCB + PIDIndex) + " copied from frame " + frame + " to frame " + copy);
+			return copy + address - frame;
+		}
+	}
+
+
+
+	/**
+	 * Method Name: invalidateDecodedInstruction
+	 *
+	 * Method Description:
+	 *  Drop the decoded instruction cache entry for the given address, so the next
+	 *  fetch from that address decodes the word again. Called whenever a word in the
+	 *  code region is written. Addresses outside the cached region are ignored.
+	 *
+	 * Input Parameters:
+	 *  @param address: memory address that was written
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void invalidateDecodedInstruction(long address) {
+		if(address >= 0 && address < DECODE_CACHE_SIZE) {
+			decodedInstructionCache[(int) address] = 0;
+		}
+	}
+
+
+
+	/**
+	 * Method Name: invalidateDecodedInstructions
+	 *
+	 * Method Description:
+	 *  Drop the decoded instruction cache entries for a range of addresses,
+	 *  used when a whole area of memory is reset.
+	 *
+	 * Input Parameters:
+	 *  @param startAddress: first address of the range
+	 *  @param endAddress: last address of the range
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void invalidateDecodedInstructions(long startAddress, long endAddress) {
+		for(long address = startAddress; address <= endAddress; address++) {
+			invalidateDecodedInstruction(address);
+		}
+	}
+
+
+
+	/**
+	 * Brian Perel wrote this method 
+	 * 
+	 * Method Name: dumpMemory
+	 *
+	 * Method Description:
+	 *  Displays the content of the HYPO machine GPRs, the clock,
+	 *  content of given memory locations, and the given string
+	 *
+	 * Input Parameters:
+	 *   String			String to be displayed
+	 *   StartAddress   Start address of memory location
+	 *   Size		    Number of locations to dump
+	 *
+	 * Output Parameters:
+	 * 	 None
+	 *
+	 * Method Return Values:
+	 *   None
+	 */
+	public void dumpMemory(String string, long startAddress, long size) {
+
+		// memory dumps are detail trace output, skip all the formatting when it is not traced
+		if(!tracing(TRACE_DETAIL)) {
+			return;
+		}
+
+		traceln(TRACE_DETAIL, "\n" + string + ":\n"); // display input parameter String
+
+		long endAddress = startAddress + size;
+
+		if((startAddress < 0 || startAddress > MAX_MEMORY_ADDRESS) || (endAddress < 0 && endAddress > 1000) || (size < 1 || size > hypoMainMemory.size()))
+			traceln(TRACE_ERRORS, "Invalid start address, end address, or size. Return error code: " + ERROR_INVALID_ADDRESS);
+
+		else {
+			// Print GPR row title
+			traceln(TRACE_DETAIL, "GPRs:\t G0\tG1\tG2\tG3\tG4\tG5\tG6\tG7\tSP\tPC");
+
+			// Print GPR values
+			for(int x = 0; x < gpr.length; x++) {
+				if(x == 0) {
+					trace(TRACE_DETAIL, "\t " + gpr[x]);
+				}
+				else {
+					trace(TRACE_DETAIL, "\t" + gpr[x]);
+				}
+			}
+
+			trace(TRACE_DETAIL, String.format("\t%d\t%d%n", sp, pc));
+
+			// Print memory column headers
+			trace(TRACE_DETAIL, "\nAddress: +0\t+1\t+2\t+3\t+4\t+5\t+6\t+7\t+8\t+9\n");
+
+			long addr = startAddress;
+
+			// Print memory values
+			while(addr <= endAddress) {
+				if(addr >= 10) trace(TRACE_DETAIL, "\n" + addr);
+
+				else trace(TRACE_DETAIL, addr);
+
+				for(int i = 0; i < 10; i++) {
+					if(addr <= endAddress) {
+						trace(TRACE_DETAIL, "\t " + hypoMainMemory.get(addr));
+						addr++;
+					}
+					else break;
+				}
+			}
+
+			traceln(TRACE_DETAIL, "\n\nClock: " + clock); // display clock information
+			trace(TRACE_DETAIL, "PSR: " + psr + "\n"); // display PSR register information
+		}
+	}
+
+
+
+	/**
+	 * Brian Perel wrote this method 
+	 * 
+	 * Method Name: create process
+	 *
+	 * Method Description: Method creates the process for the program, 
+	 *  prepares the PCB block (object), initializes all PCB contents to 
+	 *  proper values, defines stack space for the program and dumps user 
+	 *  program area memory locations, loads program (process) from disk to memory.
+	 *  Every process created is assigned a stack area in RAM and a pointer in 
+	 *  SP by the OS. Stack size is predefined by OS. Programs have access to SP 
+	 *  through push and pop instructions only.    
+	 *
+	 * Input Parameters:
+	 *  filename: filename of machine file for which were creating a process
+	 *  priority: the priority value of the process, indicates which process should be handled first 
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return OK: returns successful execution code
+	 *  @throws IOException
+	 */
+	public long createProcess(String filename, long priority) throws IOException {
+		return createProcess(filename, priority, 0, 0);
+	}
+
+
+
+	/**
+	 * Method Name: createProcess
+	 *
+	 * Method Description:
+	 *  Create a process like createProcess(filename, priority) that also declares real time
+	 *  constraints: a new job is released every period clock ticks and each job should be done
+	 *  (halt or block for I/O) within the relative deadline after its release. The EDF
+	 *  scheduling policy uses them, the other policies ignore them.
+	 *
+	 * Input Parameters:
+	 *  @param filename: filename of machine file for which were creating a process
+	 *  @param priority: the priority value of the process
+	 *  @param period: clock ticks between job releases, 0 for a process that is not periodic
+	 *  @param relativeDeadline: clock ticks from a job's release to its deadline, 0 for no deadline
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return OK: returns successful execution code
+	 *  @throws IOException
+	 */
+	public long createProcess(String filename, long priority, long period, long relativeDeadline) throws IOException {
+
+		// Allocate stack space (memory) for PCB to create a process
+		long PCBptr = allocatePCB();
+
+		// check return value from allocatePCB(), if < 0 then error encountered
+		if(PCBptr < 0) {
+			return PCBptr;
+		}
+
+		initializePCB(PCBptr); // call initialize PCB pointer and set it to a variable (so we know which PCB we're working with)
+
+		// load the program from disk to memory, into a segment of its own when relocating
+		long value = relocating ? relocatingLoader(filename, PCBptr) : absoluteLoader(filename);
+
+		if(value < 0) {
+			discardNewProcess(PCBptr);
+			return value; // check for program loading error
+		}
+
+		hypoMainMemory.set(PCBptr + PCIndex, value);
+		
+		// Allocate stack space from user free list, allocate user memory of size stack size
+		long ptr = allocateUserMemory(stackSize);
+
+		// check for error
+		if(ptr < 0) {
+			// User memory allocation failed
+			discardNewProcess(PCBptr);
+			return ptr;
+		}
+
+		hypoMainMemory.set(PCBptr + SPIndex, ptr + stackSize);
+		hypoMainMemory.set(PCBptr + stackStartAddressIndex, ptr);
+		hypoMainMemory.set(PCBptr + stackSizeIndex, stackSize);
+		
+		// set priority in the PCB to priority
+		hypoMainMemory.set(PCBptr + priorityIndex, priority); 
+		processPeriod[(int) PCBptr] = Math.max(0, period);
+		processRelativeDeadline[(int) PCBptr] = Math.max(0, relativeDeadline);
+
+		dumpMemory("\nDumping memory addresses in user program area", 0, 99);
+
+		printPCB(PCBptr); // print PCB passing PCBptr
+		
+		insertIntoRQ(PCBptr); // insert PCB into ready queue passing PCBptr
+
+		return OK;
+	}
+
+
+
+	/**
+	 * Method Name: discardNewProcess
+	 *
+	 * Method Description:
+	 *  Undo a createProcess() or fork that failed after its PCB was initialized: tell the
+	 *  scheduler the process is gone, remove its PID from the PID table and return
+	 *  its segment, if it was loaded into one, and the PCB memory. The process was
+	 *  never put in a queue and has no stack yet.
+	 *
+	 * Input Parameters:
+	 *  @param PCBptr: memory address location of the new PCB
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void discardNewProcess(long PCBptr) {
+		scheduler.terminated(this, PCBptr);
+		unregisterPID(hypoMainMemory.get(PCBptr + PIDIndex));
+		freeSegment(PCBptr);
+		freePCB(PCBptr);
+	}
+
+
+
+	/**
+	 * Brian Perel wrote this method 
+	 * 
+	 * Method Name: initializePCB
+	 *
+	 * Method Description: PCB (Process Control Block) is related to process - anything that calls create process will deal with PCB such as initializeSystem function
+	 *  Method is used to initialize a new PCB node in which we set all its element variables. The new PCB will start at the specified address and have the specified PID.
+	 *  It's priority will be set to the default priority of 128 and all other values are initialized to value of 0.
+	 *
+	 * Input Parameters: 
+	 *  PCBptr: memory location of the PCB, used to identify it in memory and in queues
+	 *  
+	 * Output Parameters:
+	 *  None 
+	 *
+	 * Method Return Values: 
+	 *  None
+	 */
+	public void initializePCB(long PCBptr) {
+
+		// initialize all PCB values to 0 
+		for(int i = 0; i < PCB_SIZE; i++) {
+			hypoMainMemory.set(PCBptr + i, 0);
+		}
+
+		// PID of value zero is invalid, since process id's value is going into PID method we check process id value
+		if(ProcessID == 0) {
+			traceln(TRACE_ERRORS, "Invalid PID given. Error code: " + ERROR_INVALID_ADDRESS);
+		}
+		
+		hypoMainMemory.set(PCBptr + PIDIndex, ProcessID++); // allocate PID and set it in the PCB
+		processPeriod[(int) PCBptr] = processRelativeDeadline[(int) PCBptr] = 0;
+		processBase[(int) PCBptr] = 0; // the relocating loader gives the process a segment of its own
+		processLimit[(int) PCBptr] = USER_PROGRAM_AREA_SIZE;
+		scheduler.created(this, PCBptr);
+		registerPID(hypoMainMemory.get(PCBptr + PIDIndex), PCBptr);
+		hypoMainMemory.set(PCBptr + priorityIndex, DEFAULT_PRIORITY); // set priority field in the PCB to default priority
+		hypoMainMemory.set(PCBptr + stateIndex, READY_STATE); // set state field in the PCB equal to ready state
+		hypoMainMemory.set(PCBptr + nextPCBptrIndex, END_OF_LIST); // set next PCB pointer field (next pointer in the list)  in the PCB to end of list
+	}
+
+
+
+	/**
+	 * Jon Petani wrote this method 
+	 * 
+	 * Method Name: printPCB
+	 *
+	 * Method Description: 
+	 *  Print values of all the fields in the PCB. This includes it's PID, state
+	 *  priority, SP, PC, size, next PCB pointer, GPR's, and stack address 
+	 *  
+	 * Input Parameters: 
+	 *  PCBptr: memory location of PCB 
+	 *  
+	 * Output Parameters:
+	 *  None 
+	 *  
+	 * Method Return Values:
+	 *  None 
+	 */
+	public void printPCB(long PCBptr) {
+
+		if(!tracing(TRACE_DETAIL)) {
+			return;
+		}
+	
+		traceln(TRACE_DETAIL, "\nContents of the PCB in memory address: " + PCBptr +
+				"\nPCB address = " + PCBptr +
+				", Next PCB ptr = " + hypoMainMemory.get(PCBptr + nextPCBptrIndex) +
+				", PID = " + hypoMainMemory.get(PCBptr + PIDIndex) +
+				", Reason for waiting code = " + hypoMainMemory.get(PCBptr + reasonForWaitingCodeIndex) + 
+				", State = " + hypoMainMemory.get(PCBptr + stateIndex) +
+				",\nMessage queue start address = " + hypoMainMemory.get(PCBptr + messageQueueStartAddressIndex) +
+				", Message queue size = " + hypoMainMemory.get(PCBptr + messageQueueSizeIndex) +
+				", Number of messages in queue = " + hypoMainMemory.get(PCBptr + numOfMessagesInQueueIndex) +  
+				",\nPSR = " + hypoMainMemory.get(PCBptr + PSRIndex) + 
+				", PC = " + hypoMainMemory.get(PCBptr + PCIndex) +
+				", SP = " + hypoMainMemory.get(PCBptr + SPIndex) +
+				", Priority = " + hypoMainMemory.get(PCBptr + priorityIndex) +
+				", Stack info: start address = " + hypoMainMemory.get(PCBptr + stackStartAddressIndex) +
+				" , size = " + hypoMainMemory.get(PCBptr + stackSizeIndex));
+
+				// print 8 GPR values: GPRs = print 8 values of GPR 0 to GPR 7
+				trace(TRACE_DETAIL, "GPRs:\t");
+				trace(TRACE_DETAIL, "GPR0" + ": " + hypoMainMemory.get(PCBptr + GPR0Index) + " ");
+				trace(TRACE_DETAIL, "GPR1" + ": " + hypoMainMemory.get(PCBptr + GPR1Index) + " ");
+				trace(TRACE_DETAIL, "GPR2" + ": " + hypoMainMemory.get(PCBptr + GPR2Index) + " ");
+				trace(TRACE_DETAIL, "GPR3" + ": " + hypoMainMemory.get(PCBptr + GPR3Index) + " ");
+				trace(TRACE_DETAIL, "GPR4" + ": " + hypoMainMemory.get(PCBptr + GPR4Index) + " ");
+				trace(TRACE_DETAIL, "GPR5" + ": " + hypoMainMemory.get(PCBptr + GPR5Index) + " ");
+				trace(TRACE_DETAIL, "GPR6" + ": " + hypoMainMemory.get(PCBptr + GPR6Index) + " ");
+				trace(TRACE_DETAIL, "GPR7" + ": " + hypoMainMemory.get(PCBptr + GPR7Index) + " ");
+
+				traceln(TRACE_DETAIL, "");
+	}
+
+
+
+	/**
+	 * Jon Petani wrote this method 
+	 * 
+	 * Method Name: printQueue
+	 * 
+	 * Method Description: 
+	 *  Walk through the queue from the given pointer until the end of list
+	 *  and print the given queue passed in as argument, queue can be
+	 *  ready queue or waiting queue. 
+	 *
+	 * Input Parameters: 
+	 *  @param Qptr
+	 *  
+	 * Output Parameters: 
+	 *  None 
+	 *  
+	 * Method return values: 
+	 *  @return OK: Success code, is returned if queue was printed 
+	 */
+	public long printQueue(long Qptr) {
+
+		if(!tracing(TRACE_DETAIL)) {
+			return OK;
+		}
+
+		long currentPCBptr = Qptr;
+
+		if(currentPCBptr == END_OF_LIST) {
+			traceln(TRACE_DETAIL, "The list is empty");
+			return OK;
+		}
+
+		// walk through the queue
+		while(currentPCBptr != END_OF_LIST) {
+			printPCB(currentPCBptr);
+			currentPCBptr = hypoMainMemory.get(currentPCBptr + nextPCBptrIndex);
+		}
+
+		return OK;
+	}
+
+
+
+	/**
+	 * Jon Petani wrote this method 
+	 * 
+	 * Method Name: insertIntoRQ
+	 *
+	 * Description:
+	 *  The ready queue is an ordered list. The first PCB in the queue has the highest priority.
+	 *  Hence it will get the CPU next when CPU scheduling is done. Keeping RQ as an ordered linked list
+	 *  will avoid having to search the list for the highest priority process that should get the CPU.
+	 *  Therefore, insert the given PCB according to the CPU scheduling algorithm (Priority Round Robin Algorithm by default).
+	 *  The scheduling algorithm is implemented at the time of inserting the ready PCB into the RQ: the scheduler
+	 *  policy decides where the PCB goes.
+	 *
+	 * Input Parameters: 
+	 *  @param PCBptr: memory location of the PCB 
+	 *  
+	 * Output Parameters: 
+	 *  None 
+	 *  
+	 * Method return values: 
+	 *  @return ERROR_INVALID_MEMORY_ADDRESS: Invalid memory address encountered 
+	 *  @return OK: success code, if PCB was inserted 
+	 */
+	public long insertIntoRQ(long PCBptr) {
+
+		// check for valid PCB memory address
+		if(PCBptr < 0 || PCBptr > MAX_MEMORY_ADDRESS) {
+			traceln(TRACE_ERRORS, "\nError: Invalid memory range detected. Return error code: " + ERROR_INVALID_ADDRESS);
+			return ERROR_INVALID_MEMORY_ADDRESS;
+		}
+
+		// multi-core machine: the process goes to the core with the shortest RQ
+		if(cores != null) {
+			HypoMachine target = cores[0];
+
+			for(HypoMachine core : cores) {
+				if(core.readyCount < target.readyCount) {
+					target = core;
+				}
+			}
+
+			synchronized(target) {
+				target.insertIntoRQ(PCBptr);
+			}
+
+			synchronized(this) {
+				notifyAll(); // wake the idle cores
+			}
+			return OK;
+		}
+
+		scheduler.insert(this, PCBptr);
+		return OK;
+	}
+
+
+
+	/**
+	 * Method Name: insertIntoReadyLevel
+	 *
+	 * Method Description:
+	 *  Put a ready PCB at the end (or the front) of a RQ level, used by the scheduler policies that order RQ by level.
+	 *  Every level keeps its first and last PCB and a bitmap marks the non empty levels, so the insert place is found
+	 *  without walking the list. Levels stay chained in memory from highest to lowest through nextPCBptrIndex,
+	 *  so RQ still reads as one ordered list.
+	 *
+	 * Input Parameters:
+	 *  @param PCBptr: memory location of the PCB
+	 *  @param level: RQ level 0 to PRIORITY_LEVELS - 1, the highest level runs first
+	 *  @param atFront: true to queue the PCB before the others of its level
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method return values:
+	 *  None
+	 */
+	public void insertIntoReadyLevel(long PCBptr, int level, boolean atFront) {
+		hypoMainMemory.set(PCBptr + stateIndex, READY_STATE); 
+		readyLevelOf[(int) PCBptr] = level;
+		readyCount++;
+
+		long headPtr = readyLevelHead[level];
+		long tailPtr = readyLevelTail[level];
+
+		// level already holds PCBs and PCB goes first: it takes over the link from the higher levels
+		if(headPtr != END_OF_LIST && atFront) {
+			int higherLevel = nextHigherReadyLevel(level);
+
+			if(higherLevel < 0) {
+				RQ = PCBptr;
+			}
+			else {
+				hypoMainMemory.set(readyLevelTail[higherLevel] + nextPCBptrIndex, PCBptr);
+			}
+
+			hypoMainMemory.set(PCBptr + nextPCBptrIndex, headPtr);
+			readyPrevious[(int) headPtr] = PCBptr;
+			readyPrevious[(int) PCBptr] = END_OF_LIST;
+			readyLevelHead[level] = PCBptr;
+			return;
+		}
+
+		// level already holds PCBs: PCB will be inserted at the end of its priority, taking over the link to the lower levels
+		if(tailPtr != END_OF_LIST) {
+			hypoMainMemory.set(PCBptr + nextPCBptrIndex, hypoMainMemory.get(tailPtr + nextPCBptrIndex));
+			hypoMainMemory.set(tailPtr + nextPCBptrIndex, PCBptr);
+			readyPrevious[(int) PCBptr] = tailPtr;
+			readyLevelTail[level] = PCBptr;
+			return;
+		}
+
+		// first PCB of its level: link it in between the closest higher and lower levels
+		int lowerLevel = nextLowerReadyLevel(level);
+		int higherLevel = nextHigherReadyLevel(level);
+
+		hypoMainMemory.set(PCBptr + nextPCBptrIndex, (lowerLevel < 0) ? END_OF_LIST : readyLevelHead[lowerLevel]);
+
+		if(higherLevel < 0) {
+			// enter PCB in the front of the list as first entry
+			RQ = PCBptr;
+		}
+		else {
+			// enter PCB behind the last PCB of the higher level
+			hypoMainMemory.set(readyLevelTail[higherLevel] + nextPCBptrIndex, PCBptr);
+		}
+
+		readyPrevious[(int) PCBptr] = END_OF_LIST;
+		readyLevelHead[level] = readyLevelTail[level] = PCBptr;
+		readyLevelBitmap[level >> 6] |= 1L << (level & 63);
+	}
+
+
+
+	/**
+	 * Method Name: removeFromRQ
+	 *
+	 * Method Description:
+	 *  Unlink the given PCB from wherever it is in RQ, the scheduler policy knows where it is.
+	 *
+	 * Input Parameters:
+	 *  @param PCBptr: memory location of the PCB
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method return values:
+	 *  @return ERROR_INVALID_MEMORY_ADDRESS: Invalid memory address encountered
+	 *  @return ERROR_INVALID_ID: the PCB is not in RQ
+	 *  @return OK: success code, if PCB was removed
+	 */
+	public long removeFromRQ(long PCBptr) {
+
+		if(PCBptr < 0 || PCBptr > MAX_MEMORY_ADDRESS) {
+			traceln(TRACE_ERRORS, "\nError: Invalid memory range detected. Return error code: " + ERROR_INVALID_MEMORY_ADDRESS);
+			return ERROR_INVALID_MEMORY_ADDRESS;
+		}
+
+		return scheduler.remove(this, PCBptr);
+	}
+
+
+
+	/**
+	 * Method Name: removeFromReadyLevel
+	 *
+	 * Method Description:
+	 *  Unlink a PCB queued by insertIntoReadyLevel. Its predecessor is either the previous PCB of the
+	 *  same level or the last PCB of the closest higher level, so no walk through RQ is needed.
+	 *
+	 * Input Parameters:
+	 *  @param PCBptr: memory location of the PCB
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method return values:
+	 *  @return ERROR_INVALID_ID: the PCB is not in RQ
+	 *  @return OK: success code, if PCB was removed
+	 */
+	public long removeFromReadyLevel(long PCBptr) {
+		int level = readyLevelOf[(int) PCBptr];
+		long previousPtr = readyPrevious[(int) PCBptr];
+		long nextPtr = hypoMainMemory.get(PCBptr + nextPCBptrIndex);
+
+		if(previousPtr == END_OF_LIST && readyLevelHead[level] != PCBptr) {
+			traceln(TRACE_ERRORS, "\nError: PCB " + PCBptr + " is not in the ready queue. Return error code: " + ERROR_INVALID_ID);
+			return ERROR_INVALID_ID;
+		}
+
+		readyCount--;
+
+		if(previousPtr != END_OF_LIST) {
+			// PCB in the middle or at the end of its level
+			hypoMainMemory.set(previousPtr + nextPCBptrIndex, nextPtr);
+		}
+		else {
+			// PCB is first of its level, the closest higher level (or RQ itself) points to it
+			int higherLevel = nextHigherReadyLevel(level);
+
+			if(higherLevel < 0) {
+				RQ = nextPtr;
+			}
+			else {
+				hypoMainMemory.set(readyLevelTail[higherLevel] + nextPCBptrIndex, nextPtr);
+			}
+
+			readyLevelHead[level] = (readyLevelTail[level] == PCBptr) ? END_OF_LIST : nextPtr;
+		}
+
+		if(readyLevelTail[level] == PCBptr) {
+			readyLevelTail[level] = previousPtr;
+		}
+		else {
+			readyPrevious[(int) nextPtr] = previousPtr;
+		}
+
+		// level is empty now
+		if(readyLevelHead[level] == END_OF_LIST) {
+			readyLevelBitmap[level >> 6] &= ~(1L << (level & 63));
+		}
+
+		hypoMainMemory.set(PCBptr + nextPCBptrIndex, END_OF_LIST);
+		readyPrevious[(int) PCBptr] = END_OF_LIST;
+
+		return OK;
+	}
+
+
+
+	/**
+	 * Method Name: resetReadyQueue
+	 *
+	 * Method Description:
+	 *  Empty RQ, its priority levels and the scheduler policy's own bookkeeping.
+	 *
+	 * Input Parameters:
+	 *  None
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method return values:
+	 *  None
+	 */
+	public void resetReadyQueue() {
+		RQ = END_OF_LIST;
+		readyCount = 0;
+		Arrays.fill(readyLevelBitmap, 0);
+		Arrays.fill(readyLevelHead, END_OF_LIST);
+		Arrays.fill(readyLevelTail, END_OF_LIST);
+		Arrays.fill(readyPrevious, END_OF_LIST);
+		scheduler.reset(this);
+	}
+
+
+
+	/**
+	 * Method Name: priorityLevel
+	 *
+	 * Method Description:
+	 *  Ready queue level of the given PCB. Priorities outside 0 to 255 share the lowest or highest level.
+	 *
+	 * Input Parameters:
+	 *  @param PCBptr: memory location of the PCB
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method return values:
+	 *  @return level: priority level 0 to PRIORITY_LEVELS - 1
+	 */
+	public int priorityLevel(long PCBptr) {
+		long priority = hypoMainMemory.get(PCBptr + priorityIndex);
+		return (int) Math.max(0, Math.min(PRIORITY_LEVELS - 1, priority));
+	}
+
+
+
+	/**
+	 * Method Name: nextLowerReadyLevel
+	 *
+	 * Method Description:
+	 *  Find the highest non empty ready queue level below the given level using the level bitmap,
+	 *  looking at one bitmap word (64 levels) at a time.
+	 *
+	 * Input Parameters:
+	 *  @param level: priority level to look below
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method return values:
+	 *  @return level: closest lower level holding a ready PCB, -1 if there is none
+	 */
+	public int nextLowerReadyLevel(int level) {
+		if(level == 0) {
+			return -1;
+		}
+
+		int word = (level - 1) >> 6;
+		long bits = readyLevelBitmap[word] & (-1L >>> (63 - ((level - 1) & 63))); // levels up to level - 1 of this word
+
+		while(bits == 0) {
+			if(--word < 0) {
+				return -1;
+			}
+			bits = readyLevelBitmap[word];
+		}
+
+		return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+	}
+
+
+
+	/**
+	 * Method Name: nextHigherReadyLevel
+	 *
+	 * Method Description:
+	 *  Find the lowest non empty ready queue level above the given level using the level bitmap,
+	 *  looking at one bitmap word (64 levels) at a time.
+	 *
+	 * Input Parameters:
+	 *  @param level: priority level to look above
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method return values:
+	 *  @return level: closest higher level holding a ready PCB, -1 if there is none
+	 */
+	public int nextHigherReadyLevel(int level) {
+		if(level == PRIORITY_LEVELS - 1) {
+			return -1;
+		}
+
+		int word = (level + 1) >> 6;
+		long bits = readyLevelBitmap[word] & (-1L << ((level + 1) & 63)); // levels from level + 1 up of this word
+
+		while(bits == 0) {
+			if(++word == readyLevelBitmap.length) {
+				return -1;
+			}
+			bits = readyLevelBitmap[word];
+		}
+
+		return (word << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+
+
+	/**
+	 * Jon Petani wrote this method 
+	 * 
+	 * Method Name: insertIntoWQ
+	 * 
+	 * Method Description: 
+	 *  Take PCBptr and insert it into the front of waiting queue after 
+	 *  which we adjust the next pointer index value.
+	 *  
+	 * Input Parameters:
+	 *  @param PCBptr: memory location of the PCB 
+	 *  
+	 * Output Parameters:
+	 *  None 
+	 * 
+	 * Method return values: 
+	 *  @return OK: success code, if PCB was inserted into WQ 
+	 *  @return ERROR_INVALID_MEMORY_ADDRESS: invalid memory address encountered code 
+	 */
+	public long insertIntoWQ(long PCBptr) {
+		// insert the given PCB at the front of WQ
+		if(PCBptr < 0 || PCBptr > MAX_MEMORY_ADDRESS) {
+			traceln(TRACE_ERRORS, "\nError: Invalid memory range found. Return error code: " + ERROR_INVALID_MEMORY_ADDRESS);
+			return ERROR_INVALID_MEMORY_ADDRESS;
+		}
+
+		hypoMainMemory.set(PCBptr + stateIndex, WAITING_STATE); // set state to ready state
+		hypoMainMemory.set(PCBptr + nextPCBptrIndex, WQ); // set next pointer to end of list
+		waitingPrevious[(int) PCBptr] = END_OF_LIST;
+
+		if(WQ != END_OF_LIST) {
+			waitingPrevious[(int) WQ] = PCBptr; // old first PCB now comes after the given PCB
+		}
+
+		WQ = PCBptr;
+
+		return OK;
+	}
+
+
+
+	/**
+	 * Jon Petani wrote this method 
+	 * 
+	 * Method Name: selectProcessFromRQ
+	 *
+	 * Method Description: 
+	 *  Select first process from RQ to give CPU. When CPU has to be allocated to the next process in RQ, select the first process
+	 *  in the RQ and return the pointer to the PCB since processes in RQ are already ordered by the scheduler policy.
+	 *
+	 * Input Parameters: 
+	 *  None 
+	 *  
+	 * Output Parameter:
+	 *  None 
+	 *
+	 * Method Return Values: 
+	 *  @return PCBptr: PCB address of the first PCB in the ready queue 
+	 *  @return END_OF_LIST: RQ is empty
+	 */
+	public long selectProcessFromRQ() {
+		long PCBptr = scheduler.select(this); // first entry in RQ, removed from RQ
+
+		if(PCBptr != END_OF_LIST) {
+			hypoMainMemory.set(PCBptr + nextPCBptrIndex, END_OF_LIST); // set next point to END_OF_LIST in the PCB; set next PCB field in the given PCB to END_OF_LIST
+		}
+
+		return PCBptr;
+	}
+
+
+
+	/**
+	 * Brian Perel wrote this method 
+	 * 
+	 * Method Name: saveContext
+	 *
+	 * Method Description:
+	 *  Save CPU context into running process PCB.
+	 *  Running process is going to lose the CPU. Hence, its CPU context has to be
+	 *  saved in its PCB so that it can be restored when it gets the CPU at a later time.
+	 *  CPU context consists of GPRs, SP, PC, and PSR.
+	 *  Method used to store the specified value into the PCB who's 
+	 *  start address is startAddress at this index's address.
+	 *
+	 * Input Parameters: 
+	 *  @param PCBptr: memory location of the PCB 
+	 *  
+	 * Output Parameters:
+	 *  None 
+	 *  
+	 * Method Return Values: 
+	 *  None 
+	 */
+	public void saveContext(long PCBptr) {
+		// copy all CPU GPRs, SP, PC, and PSR values into PCB using PCBptr
+		hypoMainMemory.set(PCBptr + GPR0Index, gpr[0]);
+		hypoMainMemory.set(PCBptr + GPR1Index, gpr[1]);
+		hypoMainMemory.set(PCBptr + GPR2Index, gpr[2]);
+		hypoMainMemory.set(PCBptr + GPR3Index, gpr[3]);
+		hypoMainMemory.set(PCBptr + GPR4Index, gpr[4]);
+		hypoMainMemory.set(PCBptr + GPR5Index, gpr[5]);
+		hypoMainMemory.set(PCBptr + GPR6Index, gpr[6]);
+		hypoMainMemory.set(PCBptr + GPR7Index, gpr[7]);
+		
+		hypoMainMemory.set(PCBptr + SPIndex, sp);
+		hypoMainMemory.set(PCBptr + PCIndex, pc);
+		hypoMainMemory.set(PCBptr + PSRIndex, psr);
+		processBase[(int) PCBptr] = base;
+		processLimit[(int) PCBptr] = limit;
+	}
+
+
+
+	/**
+	 * Jon Petani wrote this method 
+	 * 
+	 * Method Name: dispatcher
+	 * 
+	 * Method Description: 
+	 *  Take PCBptr and store its context to all hardware components. 
+	 *  Copy CPU GPR register values from given PCBptr into the CPU registers.
+	 *  Do the opposite operation of save context. The selected process has 
+	 *  been given the CPU to run, so that's why we must restore its CPU
+	 *  context from the PCB into the CPU registers.The OS code that performs 
+	 *  this restore context process is called the dispatcher.  
+	 *
+	 * Input Parameters:
+	 *  @param PCBptr: memory location of the PCB 
+	 *  
+	 * Output Parameters: 
+	 *  None 
+	 *  
+	 * Method Return Values: 
+	 *  None 
+	 */
+	public void dispatcher(long PCBptr) {
+		gpr[0] = hypoMainMemory.get(PCBptr + GPR0Index);
+		gpr[1] = hypoMainMemory.get(PCBptr + GPR1Index);
+		gpr[2] = hypoMainMemory.get(PCBptr + GPR2Index);
+		gpr[3] = hypoMainMemory.get(PCBptr + GPR3Index); 
+		gpr[4] = hypoMainMemory.get(PCBptr + GPR4Index);
+		gpr[5] = hypoMainMemory.get(PCBptr + GPR5Index);
+		gpr[6] = hypoMainMemory.get(PCBptr + GPR6Index);
+		gpr[7] = hypoMainMemory.get(PCBptr + GPR7Index);
+		
+		sp = hypoMainMemory.get(PCBptr + SPIndex);
+		pc = hypoMainMemory.get(PCBptr + PCIndex);
+		psr = UserMode;
+		runningPCB = PCBptr;
+
+		// segment or page table of the process (an invalid PCBptr, when RQ was empty, keeps the registers as they are)
+		if(PCBptr >= 0) {
+			base = processBase[(int) PCBptr];
+			limit = processLimit[(int) PCBptr];
+
+			if(paging) {
+				flushTLB();
+			}
+		}
+	}
+
+
+
+	/**
+	 * Jon Petani wrote this method 
+	 * 
+	 * Method Name: terminateProcess
+	 * 
+	 * Method Description: 
+	 *  Method terminates a process by freeing the stack and PCB memory 
+	 *  so that another process can have space. Return stack memory 
+	 *  using stack start address and stack size in the given PCB.
+	 *  Return PCB memory using the PCBptr. Recover all resources 
+	 *  allocated to the process. 
+	 *  
+	 * Input Parameters:
+	 *  @param PCBptr: memory address location of PCB 
+	 *  
+	 * Output Parameters: 
+	 *  None 
+	 *  
+	 * Method Return Values:
+	 *  None 
+	 */
+	public void terminateProcess(long PCBptr) {
+		scheduler.terminated(this, PCBptr);
+		releaseMutexes(hypoMainMemory.get(PCBptr + PIDIndex));
+		unregisterPID(hypoMainMemory.get(PCBptr + PIDIndex));
+
+		freeUserMemory(hypoMainMemory.get(PCBptr + stackStartAddressIndex),
+				hypoMainMemory.get(PCBptr + stackSizeIndex));
+
+		freeSegment(PCBptr);
+
+		// mailbox, if a message was ever sent to the process
+		if(hypoMainMemory.get(PCBptr + messageQueueStartAddressIndex) != 0) {
+			freeUserMemory(hypoMainMemory.get(PCBptr + messageQueueStartAddressIndex),
+					hypoMainMemory.get(PCBptr + messageQueueSizeIndex));
+		}
+
+		freePCB(PCBptr);
+	}
+
+
+
+	/**
+	 * Method Name: allocatePCB
+	 *
+	 * Method Description:
+	 *  Take a free slot of the PCB slab for a new PCB. The lowest free slot is found
+	 *  from the slab bitmap one 64 slot word at a time. When the slab is full the PCB
+	 *  is allocated from the OS free list like any other OS memory.
+	 *
+	 * Input Parameters:
+	 *  None
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return PCBptr: memory address of the PCB
+	 *  @return ERROR_NO_FREE_MEMORY: if the slab is full and no OS memory is left
+	 */
+	public long allocatePCB() {
+		for(int word = 0; word < pcbSlabFreeSlots.length; word++) {
+			if(pcbSlabFreeSlots[word] != 0) {
+				int slot = (word << 6) + Long.numberOfTrailingZeros(pcbSlabFreeSlots[word]);
+				pcbSlabFreeSlots[word] &= pcbSlabFreeSlots[word] - 1; // clear the lowest set bit, the slot taken
+				return PCB_SLAB_START + slot * PCB_SIZE;
+			}
+		}
+
+		pcbSlabFallbacks++;
+		return allocateOSMemory(PCB_SIZE);
+	}
+
+
+
+	/**
+	 * Method Name: freePCB
+	 *
+	 * Method Description:
+	 *  Give back the memory of a PCB: its slab slot, or OS memory for a PCB
+	 *  allocated while the slab was full.
+	 *
+	 * Input Parameters:
+	 *  @param PCBptr: memory address of the PCB
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return ERROR_INVALID_MEMORY_ADDRESS: if the address is not the start of a used slab slot
+	 *  @return OK: success code, if the PCB memory was freed
+	 */
+	public long freePCB(long PCBptr) {
+		if(PCBptr < PCB_SLAB_START || PCBptr >= PCB_SLAB_START + PCB_SLAB_SLOTS * PCB_SIZE) {
+			return freeOSMemory(PCBptr, PCB_SIZE);
+		}
+
+		int slot = (int) ((PCBptr - PCB_SLAB_START) / PCB_SIZE);
+		long bit = 1L << (slot & 63);
+
+		if((PCBptr - PCB_SLAB_START) % PCB_SIZE != 0 || (pcbSlabFreeSlots[slot >> 6] & bit) != 0) {
+			traceln(TRACE_ERRORS, "\nError: No PCB is allocated at " + PCBptr + ". Returning error code: " + ERROR_INVALID_MEMORY_ADDRESS);
+			return ERROR_INVALID_MEMORY_ADDRESS;
+		}
+
+		pcbSlabFreeSlots[slot >> 6] |= bit;
+		return OK;
+	}
+
+
+
+	/**
+	 * Jon Petani wrote this method 
+	 * 
+	 * Method Name: allocateOSMemory
+	 * 
+	 * Method Description: 
+	 *  Method allocates (takes aside) a block of OS free memory to be used.
+	 *  The block comes from osAllocator: first fit (default), buddy or segregated fit.
+	 *  
+	 * Input Parameters: 
+	 *  @param RequestedSize: memory size needed for allocation of block 
+	 *  
+	 * Output Parameters: 
+	 *  None 
+	 *  
+	 * Function Return Values: 
+	 *  @return ERROR_NO_FREE_MEMORY: if no free memory available 
+	 *  @return ERROR_INVALID_MEMORY_SIZE: if requested memory size is invalid value
+	 *  @return OK: success code, if memory allocation was completed successfully 
+	 */
+	public long allocateOSMemory(long RequestedSize) {
+		if(RequestedSize < 0) {
+			traceln(TRACE_ERRORS, "\nError: The requested memory size is too small, it must be greater than 1. Returning error code: " + ERROR_INVALID_MEMORY_SIZE);
+			return ERROR_INVALID_MEMORY_SIZE;
+		}
+
+		if(RequestedSize == 1) {
+			// minimum allocated memory is 2 locations
+			RequestedSize = 2;
+		}
+
+		long ptr = osAllocator.allocate(RequestedSize);
+
+		if(ptr < 0) {
+			traceln(TRACE_ERRORS, "\nError: No free OS memory. Returning error code: " + ERROR_NO_FREE_MEMORY);
+			return ERROR_NO_FREE_MEMORY;
+		}
+
+		return ptr; // return memory address
+	}
+
+
+
+	/**
+	 * Jon Petani wrote this method 
+	 * 
+	 * Method Name: freeOSMemory
+	 * 
+	 * Method Description: 
+	 *  Method takes a memory location and memory size and tries to free 
+	 *  in OS free list.
+	 *
+	 * Input Parameters:
+	 *  @param ptr: Pointer of the block to free memory 
+	 *  @param size: size of the block 
+	 *  
+	 * Output Parameters:
+	 *  None 
+	 *  
+	 * Method Return Values:
+	 *  @return ERROR_INVALID_MEMORY_ADDRESS: if invalid memory address given
+	 *  @return ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS: if invalid size or memory address given 
+	 *  @return OK: success code, if memory was freed successfully 
+	 */
+	public long freeOSMemory(long ptr, long size) {
+
+	   if(ptr < START_ADDR_OF_OS_FREELIST || ptr > MAX_MEMORY_ADDRESS) {
+	 		traceln(TRACE_ERRORS, "Error: Invalid memory address, memory address that you're trying to free is outside of OS free list area. Returning error code: " + ERROR_INVALID_MEMORY_ADDRESS);
+	 		return ERROR_INVALID_MEMORY_ADDRESS;
+	   }
+
+		// check for minimum allocated size, which is 2 even if user asks for 1 location
+		if(size == 1) {
+			size = 2; // minimum allocated size
+		}
+
+		else if(size < 1 || ((ptr + size) >= MAX_MEMORY_ADDRESS)) {
+			traceln(TRACE_ERRORS, "\nError: Invalid memory size. Returning error code: " + ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS);
+			return ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS;
+		}
+
+		// give the block back to the OS free list
+		if(osAllocator.free(ptr, size) < 0) {
+			traceln(TRACE_ERRORS, "\nError: No OS memory block was allocated at " + ptr + ". Returning error code: " + ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS);
+			return ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS;
+		}
+
+		return OK;
+	}
+
+
+
+	/**
+	 * Jon Petani wrote this method  
+	 * 
+	 * Method Name: allocateUserMemory
+	 * 
+	 * Method Description: 
+	 *  Method allocates a block of user memory to be used. 
+	 *  The block comes from userAllocator: first fit (default), buddy or segregated fit.
+	 *
+	 * Input Parameters:
+	 *  @param size: size needed for allocation of the block
+	 *  
+	 * Output Parameters:
+	 *  None 
+	 *  
+	 * Method Return Values: 
+	 *  @return ERROR_NO_FREE_MEMORY: if no free memory remaining 
+	 *  @return ERROR_REQUESTED_MEMORY_TOO_SMALL: if size of requested memory is to small
+	 *  @return OK: success code, if memory allocation was completed successfully
+	 */
+	public long allocateUserMemory(long size) {
+		if(size < 0) {
+			traceln(TRACE_ERRORS, "Error: The requested memory size is too small. Returning error code: " + ERROR_REQUESTED_MEMORY_TOO_SMALL);
+			return ERROR_REQUESTED_MEMORY_TOO_SMALL;
+		}
+
+		if(size == 1) {
+			size = 2;
+		}
+
+		long ptr = userAllocator.allocate(size);
+
+		if(ptr < 0) {
+			traceln(TRACE_ERRORS, "\nError: No free memory left. Returning error code: " + ERROR_NO_FREE_MEMORY);
+			return ERROR_NO_FREE_MEMORY;
+		}
+
+		return ptr;
+	}
+
+
+
+	/**
+	 * Brian Perel wrote this method 
+	 * 
+	 * Method Name: freeUserMemory
+	 * 
+	 * Method Description: 
+	 *  Free user memory at pointer memory location with amount of size as given by size
+	 *
+	 * Input Parameters:
+	 *  @param ptr: block pointer to free memory for 
+	 *  @param size: size of block to free user memory 
+	 * 
+	 * Output Parameters:
+	 *  None 
+	 *  
+	 * Method Return Values: 
+	 *  @return ERROR_INVALID_MEMORY_ADDRESS: if memory address trying to be freed is out of allowed range
+	 *  @return ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS: if memory address trying to be freed is out of allowed range or improper given size
+	 *  @return OK: success code, if memory was successfully freed  
+	 */
+	public long freeUserMemory(long ptr, long size) {
+
+		// check that pointer is in given user free list range
+	    if(ptr < userFreeStart || ptr > userFreeEnd) {
+	 		traceln(TRACE_ERRORS, "Error: Invalid memory address, memory address given is outside user free list range. Returning error code: " + ERROR_INVALID_MEMORY_ADDRESS);
+	 		return ERROR_INVALID_MEMORY_ADDRESS;
+   		}
+
+		// check for minimum allocated size, which is 2 even if user asks for 1 location
+		if(size == 1) {
+			size = 2; // minimum allocated size
+		}
+		else if(size < 1 || ((ptr + size) >= hypoMainMemory.size() - 1)) {
+			traceln(TRACE_ERRORS, "Error: Invalid memory address, memory address given is outside memory address range. Returning error code: " + ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS);
+			return ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS;
+		}
+
+		if(userAllocator.free(ptr, size) < 0) {
+			traceln(TRACE_ERRORS, "Error: No user memory block was allocated at " + ptr + ". Returning error code: " + ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS);
+			return ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS;
+		}
+
+		return OK;
+	}
+
+
+
+	/**
+	 * Jon Petani wrote this method 
+	 * 
+	 * Method Name: checkAndProcessInterrupt
+	 *
+	 * Method Description: 
+	 *  Read interrupt ID number. Based on the interrupt ID,
+	 *  service the interrupt type by calling its handler in the interrupt vector.
+	 *  The occurrence of an event raises an interrupt in the system, in MTOPS 
+	 *  were dealing with software interrupts raised by system call. 
+	 *  When the interrupt occurs, the OS gets control. 
+	 *  Every time CPU scheduling is done the OS checks for interrupts and services
+	 *  all of them in one pass: the interrupts of the interrupt source in the order
+	 *  they come (the console gives one per round), then every pending interrupt
+	 *  by priority, the due I/O device completions before a shutdown.
+	 * 
+	 * Input Parameters: 
+	 *  None
+	 *  
+	 * Output Parameters: 
+	 *  None 
+	 *  
+	 * Method Return Values:
+	 *  @return SHUTDOWN_STATUS: if the shutdown interrupt was serviced
+	 *  @return interruptID: return the last entered interrupt ID, 0 if there was none
+	 *  @throws IOException
+	 */
+	public long checkAndProcessInterrupt() throws IOException {
+		long lastInterruptID = 0;
+
+		// read interrupt IDs from the interrupt source (the console source prompts the interrupt selection menu), the handler
+		// reads the arguments of the interrupt from the source so it is serviced right away, except shutdown that goes last
+		for(boolean first = true; ; first = false) {
+			int interruptID = (int) interruptSource.nextInterrupt(this);
+
+			if(interruptID == 0) {
+				if(first) {
+					traceln(TRACE_EVENTS, "Interrupt ID entered: " + interruptID);
+				}
+				break;
+			}
+			traceln(TRACE_EVENTS, "Interrupt ID entered: " + interruptID);
+			lastInterruptID = interruptID;
+
+			if(interruptID == SHUTDOWN_STATUS) {
+				raiseInterrupt(interruptID);
+				break;
+			}
+			serviceInterrupt(interruptID, null);
+
+			if(interruptSource.oneInterruptPerRound()) {
+				break;
+			}
+		}
+
+		// completions the I/O devices posted and the other timed events that are due by now
+		collectIOCompletions();
+		raiseDueEvents();
+
+		// every pending interrupt, highest priority first
+		for(long pending[] = pendingInterrupts.poll(); pending != null; pending = pendingInterrupts.poll()) {
+			serviceInterrupt((int) pending[0], Arrays.copyOfRange(pending, 2, pending.length));
+
+			if(pending[0] == SHUTDOWN_STATUS) {
+				pendingInterrupts.clear();
+				return SHUTDOWN_STATUS;
+			}
+		}
+		return lastInterruptID;
+	}
+
+
+
+	/**
+	 * Method Name: serviceInterrupt
+	 *
+	 * Method Description:
+	 *  Call the handler of an interrupt ID from the interrupt vector.
+	 *
+	 * Input Parameters:
+	 *  @param interruptID: interrupt to service
+	 *  @param arguments: arguments of a pending interrupt, null to read them from the interrupt source
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 *  @throws IOException
+	 */
+	public void serviceInterrupt(int interruptID, long arguments[]) throws IOException {
+		if(interruptID <= 0 || interruptID >= INTERRUPT_VECTORS || interruptVector[interruptID] == null) {
+			traceln(TRACE_ERRORS, "\nError: Invalid interrupt ID entered. Error code: " + ERROR_INVALID_ID); // invalid interrupt ID
+			return;
+		}
+		interruptVector[interruptID].service(arguments);
+	}
+
+
+
+	/**
+	 * Method Name: raiseInterrupt
+	 *
+	 * Method Description:
+	 *  Make an interrupt pending, it is serviced by priority in the next pass of checkAndProcessInterrupt().
+	 *  Interrupts of the same priority are serviced in the order they were raised.
+	 *
+	 * Input Parameters:
+	 *  @param interruptID: interrupt to raise
+	 *  @param arguments: arguments handed to its handler
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void raiseInterrupt(long interruptID, long... arguments) {
+		long pending[] = new long[arguments.length + 2];
+		pending[0] = interruptID;
+		pending[1] = interruptsRaised++;
+		System.arraycopy(arguments, 0, pending, 2, arguments.length);
+		pendingInterrupts.add(pending);
+	}
+
+
+
+	/**
+	 * Brian Perel wrote this method 
+	 * 
+	 * Method Name: isrRunProgramInterrupt
+	 *
+	 * Method Description: 
+	 *  Run program interrupt service routine (ISR).
+	 *  Read filename and create process. 
+	 *  
+	 * Input Parameters: 
+	 *  None 
+	 *  
+	 * Output Parameters: 
+	 *  None 
+	 *  
+	 * Method Return Values:
+	 *  None 
+	 *  @throws IOException
+	 */
+	public void isrRunProgramInterrupt() throws IOException {
+
+		// read filename
+		String filename = interruptSource.readProgramName(this);
+
+		// real time constraints, only asked for when the scheduler uses deadlines
+		long constraints[] = scheduler.usesDeadlines() ? interruptSource.readTimingConstraints(this) : new long[2];
+		
+		// create the process
+		createProcess(filename, DEFAULT_PRIORITY, constraints[0], constraints[1]);
+	}
+
+
+
+	/**
+	 * Brian Perel wrote this method 
+	 * 
+	 * Method Name: isrInputCompletionInterrupt
+	 * 
+	 * Method Description: 
+	 *  Method services a 'input completion' request.
+	 *  By reading a PID entered by user, method searches the WQ for the PCB that 
+	 *  is a match. Then read 1 character from the keyboard and store input character in GPR1 in the PCB of the process. 
+	 *  A completion of the keyboard device brings the PID and the character with it.
+	 *  
+	 * Input Parameters: 
+	 *  @param arguments: {PID, character} of a keyboard device completion, null to read them from the interrupt source
+	 *  
+	 * Output Parameters: 
+	 *  None 
+	 *  
+	 * Method Return Values: 
+	 *  None 
+	 */
+	public void isrInputCompletionInterrupt(long arguments[]) {
+		long PID = (arguments == null) ? interruptSource.readProcessID(this) : arguments[0];
+
+		long PCBptr = searchAndRemovePCBFromWQ(PID); // search WQ to find the PCB having the given PID, then remove it 
+
+		if(PCBptr > 0) {
+			long inputCharacter = (arguments == null) ? interruptSource.readCharacter(this) : arguments[1];
+			// store inputCharacter in the GPR[1] in the PCB
+			hypoMainMemory.set(PCBptr + GPR1Index, inputCharacter);
+			hypoMainMemory.set(PCBptr + stateIndex, READY_STATE);
+			insertIntoRQ(PCBptr);
+		}
+	}
+
+
+
+	/**
+	 * Brian Perel wrote this method 
+	 * 
+	 * Method Name: isrOutputCompletionInterrupt
+	 * 
+	 * Method Description: 
+	 *  Method serves a 'input completion' request given by user. 
+	 *  It reads a PID entered by user, searches the WQ for the PCB that matches,
+	 *  then displays 1 character from the GPR1 in PCB of the process. 
+	 *  A completion of the console device brings the PID with it.
+	 *  
+	 * Input Parameters: 
+	 *  @param arguments: {PID, character} of a console device completion, null to read the PID from the interrupt source
+	 *  
+	 * Output Parameters: 
+	 *  None 
+	 *  
+	 * Method Return Values: 
+	 *  None 
+	 */
+	public void isrOutputCompletionInterrupt(long arguments[]) {
+		long PID = (arguments == null) ? interruptSource.readProcessID(this) : arguments[0];
+
+		long PCBptr = searchAndRemovePCBFromWQ(PID);
+
+		if(PCBptr > 0) {
+			// then retrieve index 1 of GPR array and assign to variable
+			char outputCharacter = (char) hypoMainMemory.get(PCBptr + GPR1Index);
+
+			traceln(TRACE_EVENTS, "Character in the GPR in PCB: " + outputCharacter);
+			hypoMainMemory.set(PCBptr + stateIndex, READY_STATE);
+			insertIntoRQ(PCBptr);
+		}
+	}
+
+
+
+	/**
+	 * Method Name: requestIO
+	 *
+	 * Method Description:
+	 *  Hand the io_getc or io_putc of a process that just moved to WQ to the keyboard or
+	 *  the console device. The character to output is the one in GPR1 of its PCB. Without
+	 *  I/O devices nothing is done, the interrupt source completes the operation.
+	 *
+	 * Input Parameters:
+	 *  @param PCBptr: PCB of the process waiting in WQ
+	 *  @param interruptID: IO_GETCINTERRUPT or IO_PUTCINTERRUPT, the CPU status of the system call
+	 *  @param atClock: clock at the time of the request
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void requestIO(long PCBptr, long interruptID, long atClock) {
+		if(keyboard == null) {
+			return;
+		}
+
+		long PID = hypoMainMemory.get(PCBptr + PIDIndex);
+		ioRequestsInFlight++;
+
+		if(interruptID == IO_GETCINTERRUPT) {
+			keyboard.submit(PID, 0, atClock);
+		}
+		else {
+			console.submit(PID, hypoMainMemory.get(PCBptr + GPR1Index), atClock);
+		}
+	}
+
+
+
+	/**
+	 * Method Name: collectIOCompletions
+	 *
+	 * Method Description:
+	 *  Drain the completions the I/O devices posted and schedule each as a timed event: the interrupt
+	 *  of the device with the PID and the character as its arguments, raised at its due clock.
+	 *
+	 * Input Parameters:
+	 *  None
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void collectIOCompletions() {
+		for(long completion[] = ioCompletions.poll(); completion != null; completion = ioCompletions.poll()) {
+			ioRequestsInFlight--;
+			scheduleInterrupt(completion[3], completion[0], completion[1], completion[2]);
+		}
+	}
+
+
+
+	/**
+	 * Method Name: scheduleInterrupt
+	 *
+	 * Method Description:
+	 *  Put a timed event on the event queue: the interrupt is raised once the clock reaches the given time.
+	 *
+	 * Input Parameters:
+	 *  @param atClock: clock to raise the interrupt at
+	 *  @param interruptID: interrupt to raise
+	 *  @param arguments: arguments handed to its handler
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void scheduleInterrupt(long atClock, long interruptID, long... arguments) {
+		long event[] = new long[arguments.length + 3];
+		event[0] = atClock;
+		event[1] = eventsScheduled++;
+		event[2] = interruptID;
+		System.arraycopy(arguments, 0, event, 3, arguments.length);
+		eventQueue.add(event);
+	}
+
+
+
+	/**
+	 * Method Name: raiseDueEvents
+	 *
+	 * Method Description:
+	 *  Raise the interrupt of every timed event the clock has reached, in clock order.
+	 *
+	 * Input Parameters:
+	 *  None
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void raiseDueEvents() {
+		while(!eventQueue.isEmpty() && eventQueue.peek()[0] <= clock) {
+			long event[] = eventQueue.poll();
+			raiseInterrupt(event[2], Arrays.copyOfRange(event, 3, event.length));
+		}
+	}
+
+
+
+	/**
+	 * Method Name: fastForwardIdleClock
+	 *
+	 * Method Description:
+	 *  When only the null process is ready, move the clock straight to the next event
+	 *  (the first timed event or the next interrupt of the interrupt source) instead of
+	 *  running the null process until then. Blocks for a moment at most on a device with a
+	 *  request in flight until it posts its completion. Nothing is done while it still has one or when the time
+	 *  of the next event is not known.
+	 *
+	 * Input Parameters:
+	 *  None
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return true: if the clock jumped, the interrupts are checked again before scheduling
+	 *  @return false: if there is a process to run
+	 */
+	public boolean fastForwardIdleClock() {
+		// a ready process other than the null process (priority 0) has to run
+		if(RQ != END_OF_LIST && (hypoMainMemory.get(RQ + nextPCBptrIndex) != END_OF_LIST || hypoMainMemory.get(RQ + priorityIndex) != 0)) {
+			return false;
+		}
+
+		// a device is still doing a transfer, its completion time is known once it is posted: sleep until it is,
+		// for a moment at most (a keyboard reading the console waits for someone to type)
+		if(ioRequestsInFlight > 0) {
+			long waitUntil = System.nanoTime() + IDLE_WAIT_MILLIS * 1000000;
+
+			try {
+				for(long completion[]; ioRequestsInFlight > 0 && (completion = ioCompletions.poll(waitUntil - System.nanoTime(), TimeUnit.NANOSECONDS)) != null; ) {
+					ioRequestsInFlight--;
+					scheduleInterrupt(completion[3], completion[0], completion[1], completion[2]);
+				}
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+
+			if(ioRequestsInFlight > 0) {
+				return false;
+			}
+		}
+
+		long nextEvent = Math.min(eventQueue.isEmpty() ? NO_EVENT : eventQueue.peek()[0], interruptSource.nextInterruptClock(this));
+
+		if(nextEvent == NO_EVENT || nextEvent <= clock) {
+			return false;
+		}
+
+		traceln(TRACE_EVENTS, "\nIdle: clock moves from " + clock + " to the next event at " + nextEvent);
+		idleJumps++;
+		idleTicksSkipped += nextEvent - clock;
+		clock = nextEvent;
+		return true;
+	}
+
+
+
+	/**
+	 * Method Name: createAllocator
+	 *
+	 * Method Description:
+	 *  Make a memory allocator for this machine by name, used by -allocator=<name>.
+	 *
+	 * Input Parameters:
+	 *  @param name: firstfit, buddy or segregated
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return allocator: a new allocator, reset by initializeSystem
+	 *  @return null: unknown allocator name
+	 */
+	public MemoryAllocator createAllocator(String name) {
+		switch(name) {
+			case "firstfit":
+				return new FirstFitAllocator(this);
+			case "buddy":
+				return new BuddyAllocator(this);
+			case "segregated":
+				return new SegregatedFitAllocator(this);
+			default:
+				return null;
+		}
+	}
+
+
+
+	/**
+	 * Method Name: createScheduler
+	 *
+	 * Method Description:
+	 *  Make a CPU scheduling policy for this machine by name, used by -scheduler=<name>.
+	 *
+	 * Input Parameters:
+	 *  @param name: priority, strict, fcfs, mlfq, fair or edf
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return scheduler: a new scheduling policy, reset by initializeSystem
+	 *  @return null: unknown scheduler name
+	 */
+	public SchedulerPolicy createScheduler(String name) {
+		switch(name) {
+			case "priority":
+				return new PriorityRoundRobinPolicy();
+			case "strict":
+				return new StrictPriorityPolicy();
+			case "fcfs":
+				return new FCFSPolicy();
+			case "mlfq":
+				return new MLFQPolicy();
+			case "fair":
+				return new FairSharePolicy();
+			case "edf":
+				return new EDFPolicy();
+			default:
+				return null;
+		}
+	}
+
+
+
+	/**
+	 * Method Name: createReplacementPolicy
+	 *
+	 * Method Description:
+	 *  Make a page replacement policy for demand paging by name, used by -swap=<name>.
+	 *
+	 * Input Parameters:
+	 *  @param name: lru, clock, secondchance or workingset
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return policy: a new replacement policy, reset by initializeSystem
+	 *  @return null: unknown policy name
+	 */
+	public ReplacementPolicy createReplacementPolicy(String name) {
+		switch(name) {
+			case "lru":
+				return new LRUReplacement();
+			case "clock":
+				return new ClockReplacement();
+			case "secondchance":
+				return new SecondChanceReplacement();
+			case "workingset":
+				return new WorkingSetReplacement(WORKING_SET_WINDOW);
+			default:
+				return null;
+		}
+	}
+
+
+
+	/**
+	 * Method Name: createMemory
+	 *
+	 * Method Description:
+	 *  Make the main memory of this machine by backend name, used by -memorybackend=<name>
+	 *  and -memory=<words>. Every word of a new memory is 0.
+	 *
+	 * Input Parameters:
+	 *  @param name: heap, offheap or sparse
+	 *  @param words: number of words, at least the standard layout (10000)
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return memory: the new main memory
+	 *  @return null: unknown backend name, or more words than a heap memory can hold
+	 */
+	public MainMemory createMemory(String name, long words) {
+		switch(name) {
+			case "heap":
+				return (words <= HeapMemory.MAX_WORDS) ? new HeapMemory(words) : null;
+			case "offheap":
+				return new OffHeapMemory(words);
+			case "sparse":
+				return new SparseMemory(words);
+			default:
+				return null;
+		}
+	}
+
+
+
+	/**
+	 * Method Name: printAllocatorStatistics
+	 *
+	 * Method Description:
+	 *  Print the counters of the OS and user memory allocators: calls, average latency,
+	 *  free words and fragmentation, and the size of main memory and how much of it is
+	 *  backed by host memory. Traced as an OS event, so it goes wherever the trace goes.
+	 *
+	 * Input Parameters:
+	 *  None
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void printAllocatorStatistics() {
+		int usedSlots = PCB_SLAB_SLOTS;
+		for(long word : pcbSlabFreeSlots) {
+			usedSlots -= Long.bitCount(word);
+		}
+
+		traceln(TRACE_EVENTS, "\nPCB slab: " + usedSlots + " of " + PCB_SLAB_SLOTS + " slots used, " + pcbSlabFallbacks + " PCBs allocated from OS memory when the slab was full");
+		traceln(TRACE_EVENTS, "OS memory, " + osAllocator.statistics());
+		traceln(TRACE_EVENTS, "User memory, " + userAllocator.statistics());
+		traceln(TRACE_EVENTS, "Main memory, " + hypoMainMemory.statistics());
+	}
+
+
+
+	/**
+	 * Brian Perel wrote this method 
+	 * 
+	 * Method Name: isrShutdownSystem
+	 *
+	 * Method Description: 
+	 *  terminate all processes in RQ and WQ and exit from the program.
+	 *  This is the only place that the operating system program should exit.
+	 *  
+	 * Input Parameters: 
+	 *  None 
+	 *  
+	 * Output Parameters: 
+	 *  None 
+	 *  
+	 * Method Return Values: 
+	 *  None 
+	 */
+	public void isrShutdownSystem() {
+
+		if(allocatorStatistics) {
+			printAllocatorStatistics();
+		}
+
+		// scheduler counters worth reporting (EDF deadline misses)
+		String schedulerStatistics = scheduler.statistics(this);
+		if(schedulerStatistics != null) {
+			traceln(TRACE_EVENTS, "\n" + schedulerStatistics);
+		}
+
+		// idle time the clock jumped over
+		if(idleJumps > 0) {
+			traceln(TRACE_EVENTS, "\nIdle: the clock jumped " + idleJumps + " times over " + idleTicksSkipped + " of " + clock + " clock ticks");
+		}
+
+		// stop the cores of a multi-core machine, their running processes go back into their RQs
+		if(cores != null) {
+			stopCores();
+		}
+
+		// TLB counters of every core
+		if(paging) {
+			long hits = 0, misses = 0, flushes = 0;
+
+			for(HypoMachine core : (cores == null) ? new HypoMachine[] {this} : cores) {
+				hits += core.tlbHits;
+				misses += core.tlbMisses;
+				flushes += core.tlbFlushes;
+			}
+			traceln(TRACE_EVENTS, String.format("\nTLB: %d hits, %d misses (%.1f%% hit rate), %d flushes",
+					hits, misses, (hits + misses == 0) ? 0.0 : 100.0 * hits / (hits + misses), flushes));
+		}
+
+		// processes created by fork and the pages they had to copy
+		if(forks > 0) {
+			traceln(TRACE_EVENTS, "\nFork: " + forks + " child processes created, " + copyOnWriteFaults + " shared pages copied on write");
+		}
+
+		// page faults of the replacement policy
+		if(demandPaging) {
+			traceln(TRACE_EVENTS, String.format("\nDemand paging, %s: %d page faults, %d pages evicted, %.0f ns per page fault",
+					replacementPolicy.name(), pageFaults, pagesEvicted, (pageFaults == 0) ? 0.0 : (double) pageFaultNanos / pageFaults));
+		}
+
+		// stop the I/O devices, processes still waiting for them are in WQ
+		if(keyboard != null) {
+			keyboard.stop();
+			console.stop();
+		}
+
+		// terminate all processes waiting on semaphores and mutexes first: a terminating process releases the mutexes it
+		// holds, and a release with waiters left would move one into RQ after RQ was emptied, where nothing terminates it.
+		// A waiter woken here by another waiter's release goes to RQ before RQ is emptied.
+		for(int slot = 0; slot < MAX_SEMAPHORES; slot++) {
+			long ptr = semaphoreHead[slot];
+			semaphoreHead[slot] = semaphoreTail[slot] = END_OF_LIST;
+
+			while(ptr != END_OF_LIST) {
+				long nextPtr = hypoMainMemory.get(ptr + nextPCBptrIndex);
+				terminateProcess(ptr);
+				ptr = nextPtr;
+			}
+		}
+
+		// terminate all processes in RQ one by one, on a multi-core machine in the RQ of every core
+		for(HypoMachine core : (cores == null) ? new HypoMachine[] {this} : cores) {
+			long ptr = core.RQ; // set ptr to first PCB pointed by RQ
+
+			while(ptr != END_OF_LIST) {
+				core.RQ = hypoMainMemory.get(ptr + nextPCBptrIndex); // RQ is set to next PCB using ptr
+				terminateProcess(ptr); // terminate process
+				ptr = core.RQ;
+			}
+
+			core.resetReadyQueue();
+		}
+
+		// terminate all processes waiting for a message, they are in no queue
+		List<Long> receivers = new ArrayList<Long>();
+
+		for(int slot = 0; slot < pidTableKeys.length; slot++) {
+			if(pidTableKeys[slot] == 0) {
+				continue;
+			}
+
+			long PCBptr = pidTablePCBs[slot];
+			long reason = hypoMainMemory.get(PCBptr + reasonForWaitingCodeIndex);
+
+			if(hypoMainMemory.get(PCBptr + stateIndex) == WAITING_STATE && (reason == MESSAGE_WAIT || reason == MESSAGE_BATCH_WAIT)) {
+				receivers.add(PCBptr);
+			}
+		}
+
+		for(long PCBptr : receivers) {
+			terminateProcess(PCBptr);
+		}
+
+		// terminate all processes in WQ one by one
+		long ptr = WQ;
+
+		while(ptr != END_OF_LIST) {
+			WQ = hypoMainMemory.get(ptr + nextPCBptrIndex); // RQ is set to next PCB using ptr
+			terminateProcess(ptr); // terminate process
+			ptr = WQ;
+		}
+	}
+
+
+
+	/**
+	 * Brian Perel wrote this method 
+	 * 
+	 * Method Name: searchAndRemovePCBFromWQ
+	 *
+	 * Method Description: 
+	 *  Search the WQ for the matching PID.
+	 *  When a match is found remove it from WQ and return PCB pointer.
+	 *  If no match is found, return invalid PID error code.
+	 *  The PCB is looked up in the PID table and unlinked using its previous PCB pointer,
+	 *  so the cost does not depend on the number of waiting processes.
+	 *
+	 * Input Parameters: 
+	 *  @param PID: process ID of which PCB will be removed from WQ
+	 *  
+	 * Output Parameters:
+	 *  None 
+	 *  
+	 * Method Return Values: 
+	 *  @return END_OF_LIST: returns value in END_OF_LIST 
+	 *  @return currentPCBptr: returns current PCBptr 
+	 */
+	public long searchAndRemovePCBFromWQ(long PID) {
+		long currentPCBptr = lookupPID(PID);
+
+		// No matching PCB is found, display PID message and return end of list code
+		if(currentPCBptr == END_OF_LIST || hypoMainMemory.get(currentPCBptr + stateIndex) != WAITING_STATE
+				|| hypoMainMemory.get(currentPCBptr + reasonForWaitingCodeIndex) == SEMAPHORE_WAIT
+				|| hypoMainMemory.get(currentPCBptr + reasonForWaitingCodeIndex) == MESSAGE_WAIT
+				|| hypoMainMemory.get(currentPCBptr + reasonForWaitingCodeIndex) == MESSAGE_BATCH_WAIT) {
+			traceln(TRACE_ERRORS, "PID not found");
+			return END_OF_LIST;
+		}
+
+		long previousPCBptr = waitingPrevious[(int) currentPCBptr];
+		long nextPCBptr = hypoMainMemory.get(currentPCBptr + nextPCBptrIndex);
+
+		if(previousPCBptr == END_OF_LIST) {
+			// first PCB
+			WQ = nextPCBptr;
+		}
+		else {
+			// not first PCB
+			hypoMainMemory.set(previousPCBptr + nextPCBptrIndex, nextPCBptr);
+		}
+
+		if(nextPCBptr != END_OF_LIST) {
+			waitingPrevious[(int) nextPCBptr] = previousPCBptr;
+		}
+
+		hypoMainMemory.set(currentPCBptr + nextPCBptrIndex, END_OF_LIST);
+		waitingPrevious[(int) currentPCBptr] = END_OF_LIST;
+		return currentPCBptr;
+	}
+
+
+
+	/**
+	 * Method Name: registerPID
+	 *
+	 * Method Description:
+	 *  Add a new process to the PID table so its PCB can be found by PID without walking a queue.
+	 *  The table doubles when it becomes half full.
+	 *
+	 * Input Parameters:
+	 *  @param PID: process ID of the new process
+	 *  @param PCBptr: memory location of its PCB
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void registerPID(long PID, long PCBptr) {
+		if((pidTableCount + 1) * 2 > pidTableKeys.length) {
+			long oldKeys[] = pidTableKeys;
+			long oldPCBs[] = pidTablePCBs;
+
+			pidTableKeys = new long[oldKeys.length * 2];
+			pidTablePCBs = new long[oldKeys.length * 2];
+			pidTableCount = 0;
+
+			for(int i = 0; i < oldKeys.length; i++) {
+				if(oldKeys[i] != 0) {
+					registerPID(oldKeys[i], oldPCBs[i]);
+				}
+			}
+		}
+
+		int mask = pidTableKeys.length - 1;
+		int slot = (int) PID & mask;
+
+		while(pidTableKeys[slot] != 0 && pidTableKeys[slot] != PID) {
+			slot = (slot + 1) & mask;
+		}
+
+		if(pidTableKeys[slot] == 0) {
+			pidTableCount++;
+		}
+
+		pidTableKeys[slot] = PID;
+		pidTablePCBs[slot] = PCBptr;
+	}
+
+
+
+	/**
+	 * Method Name: lookupPID
+	 *
+	 * Method Description:
+	 *  Find the PCB of the given process in the PID table.
+	 *
+	 * Input Parameters:
+	 *  @param PID: process ID to look up
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return PCBptr: memory location of the PCB
+	 *  @return END_OF_LIST: no live process has this PID
+	 */
+	public long lookupPID(long PID) {
+		if(PID == 0) {
+			return END_OF_LIST;
+		}
+
+		int mask = pidTableKeys.length - 1;
+		int slot = (int) PID & mask;
+
+		while(pidTableKeys[slot] != 0) {
+			if(pidTableKeys[slot] == PID) {
+				return pidTablePCBs[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		return END_OF_LIST;
+	}
+
+
+
+	/**
+	 * Method Name: unregisterPID
+	 *
+	 * Method Description:
+	 *  Remove a terminated process from the PID table. The entries following it in
+	 *  its probe run are shifted back into the freed slot so lookups never stop early.
+	 *
+	 * Input Parameters:
+	 *  @param PID: process ID of the terminated process
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void unregisterPID(long PID) {
+		if(PID == 0) {
+			return;
+		}
+
+		int mask = pidTableKeys.length - 1;
+		int hole = (int) PID & mask;
+
+		while(pidTableKeys[hole] != PID) {
+			if(pidTableKeys[hole] == 0) {
+				return; // not in the table
+			}
+			hole = (hole + 1) & mask;
+		}
+
+		int slot = (hole + 1) & mask;
+
+		while(pidTableKeys[slot] != 0) {
+			int home = (int) pidTableKeys[slot] & mask;
+
+			// entry can move back into the hole when the hole lies between its home slot and its current slot
+			if(((slot - home) & mask) >= ((slot - hole) & mask)) {
+				pidTableKeys[hole] = pidTableKeys[slot];
+				pidTablePCBs[hole] = pidTablePCBs[slot];
+				hole = slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		pidTableKeys[hole] = 0;
+		pidTableCount--;
+	}
+
+
+
+	/**
+	 * Jon Petani wrote this method 
+	 * 
+	 * Method Name: systemCall
+	 * 
+	 * Method Description: 
+	 *  Method takes a system call ID as argument and runs command that is 
+	 *  associated to this specific system call ID. 
+	 *  
+	 * Input Parameters: 
+	 *  @param systemCallID: system call ID number 
+	 * 
+	 * Output Parameters: 
+	 *  None 
+	 *  
+	 * Method Return Values: 
+	 *  @return status: returns status of method 
+	 */
+	public long systemCall(long systemCallID) {
+
+		psr = OSMode;
+		long status = OK;
+
+		switch((int) systemCallID) {
+			// create process = user process is creating a child process
+			// (fork: a copy of the running process sharing its pages copy-on-write, PCBs and frames are shared by the cores)
+			case 1: synchronized(kernel) {
+						status = kernel.forkSystemCall(this);
+					}
+					break;
+	
+			// delete process
+			case 2: traceln(TRACE_ERRORS, "Delete process system call not implemented");
+					break;
+	
+			// process inquiry
+			case 3: traceln(TRACE_ERRORS, "Process inquery system call not implemented");
+					break;
+	
+			// dynamic memory allocation: allocate user free memory system call
+			// (the user free list is shared by the cores of a multi-core machine)
+			case 4: synchronized(kernel) {
+						status = memAllocSystemCall();
+					}
+					break;
+	
+			// free dynamically allocated user memory system call
+			case 5: synchronized(kernel) {
+						status = memFreeSystemCall();
+					}
+					break;
+	
+			// message send (mailboxes are shared by the cores of a multi-core machine)
+			case 6: synchronized(kernel) {
+						status = messageSendSystemCall(false);
+					}
+					break;
+	
+			// message receive
+			case 7: synchronized(kernel) {
+						status = messageReceiveSystemCall(false);
+					}
+					break;
+	
+			// IO_getC - input a single character
+			case 8: status = io_getcSystemCall();
+					break;
+	
+			// IO_getC - output a single character
+			case 9: status = io_putcSystemCall();
+					break;
+
+			// semaphores and mutexes (shared by the cores of a multi-core machine)
+			case 10: synchronized(kernel) {
+						status = semaphoreCreateSystemCall(false);
+					}
+					break;
+
+			case 11: synchronized(kernel) {
+						status = semaphoreWaitSystemCall(false);
+					}
+					break;
+
+			case 12: synchronized(kernel) {
+						status = semaphoreSignalSystemCall(false);
+					}
+					break;
+
+			case 13: synchronized(kernel) {
+						status = semaphoreCreateSystemCall(true);
+					}
+					break;
+
+			case 14: synchronized(kernel) {
+						status = semaphoreWaitSystemCall(true);
+					}
+					break;
+
+			case 15: synchronized(kernel) {
+						status = semaphoreSignalSystemCall(true);
+					}
+					break;
+
+			case 16: synchronized(kernel) {
+						status = semaphoreDeleteSystemCall();
+					}
+					break;
+
+			// batch message send and receive
+			case 17: synchronized(kernel) {
+						status = messageSendSystemCall(true);
+					}
+					break;
+
+			case 18: synchronized(kernel) {
+						status = messageReceiveSystemCall(true);
+					}
+					break;
+	
+			// invalid system call ID
+			default: traceln(TRACE_ERRORS, "Invalid system call ID error");
+					break;
+		}
+
+		psr = UserMode;
+
+		return status;
+	}
+
+
+
+	/**
+	 * Method Name: forkSystemCall
+	 *
+	 * Method Description:
+	 *  Create a child of the process running on the given CPU: a new PCB with the
+	 *  registers, priority and a copy of the stack of the parent, and the program of
+	 *  the parent shared by duplicateProgram(). The child is put in RQ and continues
+	 *  after the system call like the parent, GPR1 tells them apart.
+	 *
+	 * Input Parameters:
+	 *  @param cpu: machine or core running the parent
+	 *
+	 * Output Parameters:
+	 *  GPR0 of the parent: status, GPR1 of the parent: PID of the child
+	 *  GPR0 of the child: OK, GPR1 of the child: 0
+	 *
+	 * Method Return Values:
+	 *  @return OK: the child was created
+	 *  @return ERROR_NO_FREE_MEMORY: no memory for the PCB, stack or program of the child
+	 */
+	public long forkSystemCall(HypoMachine cpu) {
+		long parent = cpu.runningPCB;
+		long child = allocatePCB();
+
+		if(child < 0) {
+			cpu.gpr[0] = ERROR_NO_FREE_MEMORY;
+			return cpu.gpr[0];
+		}
+
+		initializePCB(child);
+		long childPID = hypoMainMemory.get(child + PIDIndex);
+		long stackStart = hypoMainMemory.get(parent + stackStartAddressIndex);
+		long stackSize = hypoMainMemory.get(parent + stackSizeIndex);
+		long stack = allocateUserMemory(stackSize);
+		long status = (stack < 0) ? stack : duplicateProgram(parent, child);
+
+		if(status < 0) {
+			if(stack >= 0) {
+				freeUserMemory(stack, stackSize);
+			}
+			discardNewProcess(child);
+
+			cpu.gpr[0] = status;
+			return status;
+		}
+
+		// the child starts from the registers the parent has now, right after the system call
+		long childBase = processBase[(int) child];
+		long childLimit = processLimit[(int) child];
+		cpu.saveContext(child);
+		processBase[(int) child] = childBase;
+		processLimit[(int) child] = childLimit;
+
+		hypoMainMemory.copy(stackStart, stack, stackSize);
+		hypoMainMemory.set(child + SPIndex, stack + (cpu.sp - stackStart));
+		hypoMainMemory.set(child + stackStartAddressIndex, stack);
+		hypoMainMemory.set(child + stackSizeIndex, stackSize);
+		hypoMainMemory.set(child + GPR0Index, OK);
+		hypoMainMemory.set(child + GPR1Index, 0);
+		hypoMainMemory.set(child + priorityIndex, hypoMainMemory.get(parent + priorityIndex));
+		processPeriod[(int) child] = processPeriod[(int) parent];
+		processRelativeDeadline[(int) child] = processRelativeDeadline[(int) parent];
+
+		forks++;
+		traceln(TRACE_EVENTS, "\nFork: PID " + hypoMainMemory.get(parent + PIDIndex) + " created PID " + childPID);
+		insertIntoRQ(child);
+
+		cpu.gpr[0] = OK;
+		cpu.gpr[1] = childPID;
+		return OK;
+	}
+
+
+
+	/**
+	 * Method Name: duplicateProgram
+	 *
+	 * Method Description:
+	 *  Give a forked child the program of its parent. With paging the child gets a copy
+	 *  of the page table and the frames are shared copy-on-write, with demand paging
+	 *  every page is copied into a swap slot of the child, with the relocating loader
+	 *  the segment is copied. Absolute programs are shared as they are.
+	 *
+	 * Input Parameters:
+	 *  @param parent: PCB of the parent
+	 *  @param child: PCB of the child
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return OK: the child has the program
+	 *  @return ERROR_NO_FREE_MEMORY: no memory for the page table, swap slots or segment, nothing is kept
+	 */
+	public long duplicateProgram(long parent, long child) {
+		long size = processLimit[(int) parent];
+
+		if(!relocating) {
+			return OK;
+		}
+
+		if(!paging) {
+			long segment = programAllocator.allocate(Math.max(2, size));
+
+			if(segment < 0) {
+				traceln(TRACE_ERRORS, "\nError: no room for a segment of " + size + " words. Returning error code: " + ERROR_NO_FREE_MEMORY);
+				return ERROR_NO_FREE_MEMORY;
+			}
+
+			invalidateDecodedInstructions(segment, segment + size - 1);
+			hypoMainMemory.copy(processBase[(int) parent], segment, size);
+			processBase[(int) child] = segment;
+			processLimit[(int) child] = size;
+			return OK;
+		}
+
+		long pages = (size + PAGE_SIZE - 1) / PAGE_SIZE;
+		long pageTable = osAllocator.allocate(Math.max(2, pages));
+
+		if(pageTable < 0) {
+			traceln(TRACE_ERRORS, "\nError: no OS memory for a page table of " + pages + " pages. Returning error code: " + ERROR_NO_FREE_MEMORY);
+			return ERROR_NO_FREE_MEMORY;
+		}
+
+		for(long page = 0; page < pages; page++) {
+			long entry = hypoMainMemory.get(processBase[(int) parent] + page);
+
+			if(!demandPaging) {
+				frameTable.shareCount[frameTable.number(entry)]++;
+				hypoMainMemory.set(pageTable + page, entry);
+				continue;
+			}
+
+			long slot = swapFile.allocate();
+
+			if(slot < 0) {
+				for(long copied = 0; copied < page; copied++) {
+					swapFile.free(-hypoMainMemory.get(pageTable + copied) - 1);
+				}
+				osAllocator.free(pageTable, Math.max(2, pages));
+
+				traceln(TRACE_ERRORS, "\nError: no free swap slot for page " + page + " of " + pages + ". Returning error code: " + ERROR_NO_FREE_MEMORY);
+				return ERROR_NO_FREE_MEMORY;
+			}
+
+			// the page as it is now, from its frame or from the parent's slot
+			if(entry < 0) {
+				swapFile.copy(-entry - 1, slot);
+			}
+			else {
+				swapFile.write(slot, hypoMainMemory, entry);
+			}
+			hypoMainMemory.set(pageTable + page, -slot - 1);
+		}
+
+		processBase[(int) child] = pageTable;
+		processLimit[(int) child] = size;
+		return OK;
+	}
+
+
+
+	/**
+	 * Jon Petani wrote this method 
+	 * 
+	 * Method Name: memAllocSystemCall
+	 * 
+	 * Method Description: 
+	 *  Method takes a system call.
+	 *  
+	 * Input Parameters: None 
+	 * 
+	 * Output Parameters: 
+	 *  GPR0: return value code 
+	 *  GPR1: return value code 
+	 *  
+	 * Method Return Values: 
+	 *  @return ERROR_INVALID_MEMORY_SIZE: if invalid memory size is found 
+	 *  @return GPR[0]: returns value of CPU GPR index 0 
+	 */
+	public long memAllocSystemCall() {
+		long size = gpr[2];
+
+		// check for size out of range
+		if(size < 1 || size > userFreeSize) {
+			traceln(TRACE_ERRORS, "The size of requested memory to be freed is out of range");
+			return ERROR_INVALID_MEMORY_SIZE;
+		}
+
+		// check size of 1 and change it to 2
+		if(size == 1) {
+			size = 2;
+		}
+
+		gpr[1] = allocateUserMemory(size);
+
+		if(gpr[1] < 0) {
+			gpr[0] = gpr[1]; // set gpr0 to have the return status
+		}
+		else {
+			gpr[0] = OK;
+		}
+
+		traceln(TRACE_EVENTS, "Mem alloc system call: GPR0 = " + gpr[0] + ", GPR1 = " + gpr[1] + ", GPR2 = " + gpr[2]);
+		return gpr[0];
+	}
+
+
+
+	/**
+	 * Jon Petani wrote this method 
+	 * 
+	 * Method Name: memFreeSystemCall
+	 * 
+	 * Method Description: 
+	 *  Method takes a system call. 
+	 *  
+	 * Input Parameters: 
+	 *  None
+	 *
+	 * Output Parameters: 
+	 *  None 
+	 * 
+	 * Method Return Values: 
+	 *  @return GPR[0]: return value code of GPR[0]
+	 */
+	public long memFreeSystemCall() {
+		long size = gpr[2];
+		
+		// check for size out of range
+		if(size < 1 || size > userFreeSize) {
+			traceln(TRACE_ERRORS, "The size of requested memory to be freed is out of range");
+			return ERROR_INVALID_MEMORY_SIZE;
+		}
+
+		// check size of 1 and change it to 2
+		if(size == 1) {
+			size = 2;
+		}
+
+		gpr[0] = freeUserMemory(gpr[1], size);
+
+		traceln(TRACE_EVENTS, "Mem free system call: GPR0 = " + gpr[0] + ", GPR1 = " + gpr[1] + ", GPR2 = " + gpr[2]);
+		return gpr[0];
+	}
+
+
+
+	/**
+	 * Brian Perel wrote this method 
+	 * 
+	 * Method Name: io_getcSystemCall
+	 * 
+	 * Method Description: 
+	 *  Method takes a system call.
+	 *  
+	 * Input Parameters: 
+	 *  None 
+	 *  
+	 * Output Parameters: 
+	 *  None 
+	 *
+	 * Method Return Values: 
+	 *  @return IO_GETCINTERRUPT: returns value in variable 
+	 */
+	public long io_getcSystemCall() {
+		return IO_GETCINTERRUPT;
+	}
+
+
+
+	/**
+	 * Brian Perel wrote this method 
+	 * 
+	 * Method Name: io_putcSystemCall
+	 * 
+	 * Method Description: 
+	 *  Method takes a system call. 
+	 *
+	 * Input Parameters:
+	 *  None 
+	 *  
+	 * Output Parameters: 
+	 *  None 
+	 *
+	 * method Return values;
+	 *  @return IO_PUTCINTERRUPT: returns value in variable 
+	 */
+	public long io_putcSystemCall() {
+		return IO_PUTCINTERRUPT;
+	}
+
+
+
+	/**
+	 * Method Name: semaphoreCreateSystemCall
+	 *
+	 * Method Description:
+	 *  Create a counting semaphore with the count in GPR2 (system call 10) or a free
+	 *  mutex (system call 13) in the lowest free semaphore slot.
+	 *
+	 * Input Parameters:
+	 *  @param mutex: true to create a mutex
+	 *
+	 * Output Parameters:
+	 *  GPR0: return status
+	 *  GPR1: ID of the new semaphore or mutex
+	 *
+	 * Method Return Values:
+	 *  @return OK: the semaphore or mutex was created
+	 *  @return ERROR_INVALID_SEMAPHORE_OPERATION: negative semaphore count
+	 *  @return ERROR_NO_FREE_SEMAPHORE: all slots are in use
+	 */
+	public long semaphoreCreateSystemCall(boolean mutex) {
+		if(!mutex && gpr[2] < 0) {
+			traceln(TRACE_ERRORS, "\nError: semaphore count can't be negative. Return error code: " + ERROR_INVALID_SEMAPHORE_OPERATION);
+			return gpr[0] = ERROR_INVALID_SEMAPHORE_OPERATION;
+		}
+
+		for(int word = 0; word < semaphoreFreeSlots.length; word++) {
+			if(semaphoreFreeSlots[word] != 0) {
+				int slot = (word << 6) + Long.numberOfTrailingZeros(semaphoreFreeSlots[word]);
+				semaphoreFreeSlots[word] &= semaphoreFreeSlots[word] - 1; // clear the lowest set bit, the slot taken
+
+				semaphoreIsMutex[slot] = mutex;
+				semaphoreCount[slot] = mutex ? 0 : gpr[2];
+				semaphoreOwner[slot] = 0;
+				semaphoreHead[slot] = semaphoreTail[slot] = END_OF_LIST;
+
+				gpr[1] = slot + 1;
+				return gpr[0] = OK;
+			}
+		}
+
+		traceln(TRACE_ERRORS, "\nError: no free semaphore. Return error code: " + ERROR_NO_FREE_SEMAPHORE);
+		return gpr[0] = ERROR_NO_FREE_SEMAPHORE;
+	}
+
+
+
+	/**
+	 * Method Name: semaphoreSlot
+	 *
+	 * Method Description:
+	 *  Find the slot of the semaphore or mutex whose ID is in GPR1.
+	 *
+	 * Input Parameters:
+	 *  @param mutex: true if the ID has to be a mutex, false if it has to be a semaphore
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return slot: slot of the semaphore or mutex
+	 *  @return ERROR_INVALID_ID: no semaphore (or mutex) has the ID
+	 */
+	public int semaphoreSlot(boolean mutex) {
+		long slot = gpr[1] - 1;
+
+		if(slot < 0 || slot >= MAX_SEMAPHORES || (semaphoreFreeSlots[(int) slot >> 6] & 1L << (slot & 63)) != 0
+				|| semaphoreIsMutex[(int) slot] != mutex) {
+			traceln(TRACE_ERRORS, "\nError: invalid " + (mutex ? "mutex" : "semaphore") + " ID " + gpr[1] + ". Return error code: " + ERROR_INVALID_ID);
+			return (int) ERROR_INVALID_ID;
+		}
+
+		return (int) slot;
+	}
+
+
+
+	/**
+	 * Method Name: semaphoreWaitSystemCall
+	 *
+	 * Method Description:
+	 *  Take one unit of the semaphore (system call 11) or lock the mutex (system call 14)
+	 *  whose ID is in GPR1. If none is left, the process has to wait: CPU() stops it and
+	 *  the OS queues it on the semaphore with waitForSemaphore().
+	 *
+	 * Input Parameters:
+	 *  @param mutex: true for the mutex lock system call
+	 *
+	 * Output Parameters:
+	 *  GPR0: return status, set when the process is woken up if it has to wait
+	 *
+	 * Method Return Values:
+	 *  @return OK: the unit was taken or the mutex locked
+	 *  @return SEMAPHORE_WAIT: the process has to wait
+	 *  @return ERROR_INVALID_ID: no semaphore (or mutex) has the ID
+	 *  @return ERROR_INVALID_SEMAPHORE_OPERATION: the process already holds the mutex
+	 */
+	public long semaphoreWaitSystemCall(boolean mutex) {
+		int slot = semaphoreSlot(mutex);
+
+		if(slot < 0) {
+			return gpr[0] = slot;
+		}
+
+		long PID = hypoMainMemory.get(runningPCB + PIDIndex);
+
+		if(mutex && semaphoreOwner[slot] == PID) {
+			traceln(TRACE_ERRORS, "\nError: PID " + PID + " already holds mutex " + gpr[1] + ". Return error code: " + ERROR_INVALID_SEMAPHORE_OPERATION);
+			return gpr[0] = ERROR_INVALID_SEMAPHORE_OPERATION;
+		}
+
+		if(takeSemaphore(slot, PID)) {
+			return gpr[0] = OK;
+		}
+
+		semaphoreWaiting = slot;
+		return SEMAPHORE_WAIT;
+	}
+
+
+
+	/**
+	 * Method Name: semaphoreSignalSystemCall
+	 *
+	 * Method Description:
+	 *  Give back one unit of the semaphore (system call 12) or unlock the mutex (system call 15)
+	 *  whose ID is in GPR1. If processes wait on it, the oldest one gets the unit (or the mutex)
+	 *  and goes to RQ, otherwise the count goes up (or the mutex is free).
+	 *
+	 * Input Parameters:
+	 *  @param mutex: true for the mutex unlock system call
+	 *
+	 * Output Parameters:
+	 *  GPR0: return status
+	 *
+	 * Method Return Values:
+	 *  @return OK: the unit was given back or the mutex unlocked
+	 *  @return ERROR_INVALID_ID: no semaphore (or mutex) has the ID
+	 *  @return ERROR_INVALID_SEMAPHORE_OPERATION: the process doesn't hold the mutex
+	 */
+	public long semaphoreSignalSystemCall(boolean mutex) {
+		int slot = semaphoreSlot(mutex);
+
+		if(slot < 0) {
+			return gpr[0] = slot;
+		}
+
+		if(mutex && semaphoreOwner[slot] != hypoMainMemory.get(runningPCB + PIDIndex)) {
+			traceln(TRACE_ERRORS, "\nError: mutex " + gpr[1] + " is not held by the process. Return error code: " + ERROR_INVALID_SEMAPHORE_OPERATION);
+			return gpr[0] = ERROR_INVALID_SEMAPHORE_OPERATION;
+		}
+
+		signalSemaphore(slot);
+		return gpr[0] = OK;
+	}
+
+
+
+	/**
+	 * Method Name: semaphoreDeleteSystemCall
+	 *
+	 * Method Description:
+	 *  Delete the semaphore or mutex whose ID is in GPR1 (system call 16) and free its slot.
+	 *
+	 * Input Parameters:
+	 *  None
+	 *
+	 * Output Parameters:
+	 *  GPR0: return status
+	 *
+	 * Method Return Values:
+	 *  @return OK: the semaphore or mutex was deleted
+	 *  @return ERROR_INVALID_ID: no semaphore or mutex has the ID
+	 *  @return ERROR_INVALID_SEMAPHORE_OPERATION: processes still wait on it
+	 */
+	public long semaphoreDeleteSystemCall() {
+		long slot = gpr[1] - 1;
+		int found = (slot >= 0 && slot < MAX_SEMAPHORES) ? semaphoreSlot(semaphoreIsMutex[(int) slot]) : semaphoreSlot(false);
+
+		if(found < 0) {
+			return gpr[0] = found;
+		}
+
+		if(semaphoreHead[found] != END_OF_LIST) {
+			traceln(TRACE_ERRORS, "\nError: processes wait on semaphore " + gpr[1] + ". Return error code: " + ERROR_INVALID_SEMAPHORE_OPERATION);
+			return gpr[0] = ERROR_INVALID_SEMAPHORE_OPERATION;
+		}
+
+		semaphoreFreeSlots[found >> 6] |= 1L << (found & 63);
+		return gpr[0] = OK;
+	}
+
+
+
+	/**
+	 * Method Name: takeSemaphore
+	 *
+	 * Method Description:
+	 *  Take a unit of a semaphore or lock a mutex for a process if one is left.
+	 *
+	 * Input Parameters:
+	 *  @param slot: slot of the semaphore or mutex
+	 *  @param PID: process taking it
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return true if it was taken, false if the process has to wait
+	 */
+	public boolean takeSemaphore(int slot, long PID) {
+		if(semaphoreIsMutex[slot]) {
+			if(semaphoreOwner[slot] != 0) {
+				return false;
+			}
+			semaphoreOwner[slot] = PID;
+			return true;
+		}
+
+		if(semaphoreCount[slot] <= 0) {
+			return false;
+		}
+		semaphoreCount[slot]--;
+		return true;
+	}
+
+
+
+	/**
+	 * Method Name: signalSemaphore
+	 *
+	 * Method Description:
+	 *  Hand a unit of a semaphore (or a mutex) to its oldest waiting process and move that
+	 *  process to RQ, or give it back if nobody waits.
+	 *
+	 * Input Parameters:
+	 *  @param slot: slot of the semaphore or mutex
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void signalSemaphore(int slot) {
+		long PCBptr = semaphoreHead[slot];
+
+		if(PCBptr == END_OF_LIST) {
+			if(semaphoreIsMutex[slot]) {
+				semaphoreOwner[slot] = 0;
+			}
+			else {
+				semaphoreCount[slot]++;
+			}
+			return;
+		}
+
+		// unlink the oldest waiter, it gets the unit (or the mutex) directly
+		semaphoreHead[slot] = hypoMainMemory.get(PCBptr + nextPCBptrIndex);
+		if(semaphoreHead[slot] == END_OF_LIST) {
+			semaphoreTail[slot] = END_OF_LIST;
+		}
+
+		if(semaphoreIsMutex[slot]) {
+			semaphoreOwner[slot] = hypoMainMemory.get(PCBptr + PIDIndex);
+		}
+
+		hypoMainMemory.set(PCBptr + nextPCBptrIndex, END_OF_LIST);
+		hypoMainMemory.set(PCBptr + GPR0Index, OK); // status of its wait system call
+		kernel.insertIntoRQ(PCBptr);
+	}
+
+
+
+	/**
+	 * Method Name: waitForSemaphore
+	 *
+	 * Method Description:
+	 *  Queue a process stopped by a wait or lock system call at the end of the FIFO of the
+	 *  semaphore it waits on. On a multi-core machine another core may have signaled the
+	 *  semaphore since the system call, then the process takes the unit and goes to RQ.
+	 *
+	 * Input Parameters:
+	 *  @param PCBptr: PCB of the process, its context already saved
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void waitForSemaphore(long PCBptr) {
+		int slot = semaphoreWaiting;
+		semaphoreWaiting = -1;
+
+		if(takeSemaphore(slot, hypoMainMemory.get(PCBptr + PIDIndex))) {
+			hypoMainMemory.set(PCBptr + GPR0Index, OK);
+			kernel.insertIntoRQ(PCBptr);
+			return;
+		}
+
+		scheduler.blocked(this, PCBptr); // tell the policy the process blocks
+		hypoMainMemory.set(PCBptr + stateIndex, WAITING_STATE);
+		hypoMainMemory.set(PCBptr + reasonForWaitingCodeIndex, SEMAPHORE_WAIT);
+		hypoMainMemory.set(PCBptr + nextPCBptrIndex, END_OF_LIST);
+
+		if(semaphoreTail[slot] == END_OF_LIST) {
+			semaphoreHead[slot] = PCBptr;
+		}
+		else {
+			hypoMainMemory.set(semaphoreTail[slot] + nextPCBptrIndex, PCBptr);
+		}
+		semaphoreTail[slot] = PCBptr;
+	}
+
+
+
+	/**
+	 * Method Name: releaseMutexes
+	 *
+	 * Method Description:
+	 *  Unlock every mutex a terminating process still holds, so its waiters don't wait forever.
+	 *
+	 * Input Parameters:
+	 *  @param PID: the terminating process
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void releaseMutexes(long PID) {
+		for(int slot = 0; slot < MAX_SEMAPHORES; slot++) {
+			if(semaphoreIsMutex[slot] && semaphoreOwner[slot] == PID && (semaphoreFreeSlots[slot >> 6] & 1L << (slot & 63)) == 0) {
+				signalSemaphore(slot);
+			}
+		}
+	}
+
+
+
+	/**
+	 * Method Name: messageSendSystemCall
+	 *
+	 * Method Description:
+	 *  Put the word in GPR2 (system call 6), or the GPR3 words starting at the address in GPR2
+	 *  (system call 17), at the end of the mailbox of the process whose PID is in GPR1. A batch
+	 *  sends as many words as fit. If the receiver waits for a message it goes to RQ, a single
+	 *  word is put in its GPR1 right away, a batch receive runs again and takes the words itself.
+	 *
+	 * Input Parameters:
+	 *  @param batch: true for the batch send system call
+	 *
+	 * Output Parameters:
+	 *  GPR0: return status
+	 *  GPR3: number of words sent by a batch
+	 *
+	 * Method Return Values:
+	 *  @return OK: the message was sent
+	 *  @return ERROR_INVALID_ID: no process has the PID
+	 *  @return ERROR_INVALID_MEMORY_ADDRESS: a word of the batch is outside the process's memory
+	 *  @return ERROR_MAILBOX_FULL: the mailbox has no room
+	 *  @return ERROR_NO_FREE_MEMORY: no user memory is left for the mailbox
+	 */
+	public long messageSendSystemCall(boolean batch) {
+		long receiverPtr = kernel.lookupPID(gpr[1]);
+
+		if(receiverPtr == END_OF_LIST) {
+			traceln(TRACE_ERRORS, "\nError: no process has PID " + gpr[1] + ". Return error code: " + ERROR_INVALID_ID);
+			return gpr[0] = ERROR_INVALID_ID;
+		}
+
+		long words = batch ? gpr[3] : 1;
+
+		if(batch && words < 0) {
+			traceln(TRACE_ERRORS, "\nError: negative message batch size. Return error code: " + ERROR_INVALID_MEMORY_ADDRESS);
+			gpr[3] = 0;
+			return gpr[0] = ERROR_INVALID_MEMORY_ADDRESS;
+		}
+
+		// first message to the process: make its mailbox
+		if(hypoMainMemory.get(receiverPtr + messageQueueStartAddressIndex) == 0) {
+			long mailboxPtr = allocateUserMemory(MESSAGE_QUEUE_SIZE);
+
+			if(mailboxPtr < 0) {
+				if(batch) {
+					gpr[3] = 0;
+				}
+				return gpr[0] = mailboxPtr;
+			}
+
+			hypoMainMemory.set(receiverPtr + messageQueueStartAddressIndex, mailboxPtr);
+			hypoMainMemory.set(receiverPtr + messageQueueSizeIndex, MESSAGE_QUEUE_SIZE);
+			hypoMainMemory.set(receiverPtr + numOfMessagesInQueueIndex, 0);
+			messageQueueHead[(int) receiverPtr] = 0;
+		}
+
+		long start = hypoMainMemory.get(receiverPtr + messageQueueStartAddressIndex);
+		long size = hypoMainMemory.get(receiverPtr + messageQueueSizeIndex);
+		long count = hypoMainMemory.get(receiverPtr + numOfMessagesInQueueIndex);
+		long sent = Math.min(words, size - count);
+
+		if(words > 0 && sent == 0) {
+			traceln(TRACE_ERRORS, "\nError: mailbox of PID " + gpr[1] + " is full. Return error code: " + ERROR_MAILBOX_FULL);
+			if(batch) {
+				gpr[3] = 0;
+			}
+			return gpr[0] = ERROR_MAILBOX_FULL;
+		}
+
+		// the words past the count are free, a batch word outside the process's memory leaves the mailbox as it was
+		for(long i = 0; i < sent; i++) {
+			long tail = start + (messageQueueHead[(int) receiverPtr] + count + i) % size;
+			long word = gpr[2];
+
+			if(batch) {
+				long address = messageBufferAddress(gpr[2] + i, false);
+
+				if(address < 0) {
+					gpr[3] = 0;
+					return gpr[0] = address;
+				}
+				word = hypoMainMemory.get(address);
+			}
+			hypoMainMemory.set(tail, word);
+		}
+		hypoMainMemory.set(receiverPtr + numOfMessagesInQueueIndex, count + sent);
+
+		if(batch) {
+			gpr[3] = sent;
+		}
+
+		// receiver waits on its empty mailbox: wake it up, a batch receiver takes the words in its own address space
+		long reason = hypoMainMemory.get(receiverPtr + reasonForWaitingCodeIndex);
+
+		if(hypoMainMemory.get(receiverPtr + stateIndex) == WAITING_STATE && (reason == MESSAGE_WAIT || reason == MESSAGE_BATCH_WAIT)) {
+			if(reason == MESSAGE_WAIT) {
+				deliverMessage(receiverPtr);
+			}
+			hypoMainMemory.set(receiverPtr + reasonForWaitingCodeIndex, 0);
+			kernel.insertIntoRQ(receiverPtr);
+		}
+
+		return gpr[0] = OK;
+	}
+
+
+
+	/**
+	 * Method Name: messageReceiveSystemCall
+	 *
+	 * Method Description:
+	 *  Take the oldest word of the running process's mailbox into GPR1 (system call 7), or up to
+	 *  GPR3 words into the buffer starting at the address in GPR2 (system call 18). If the mailbox is
+	 *  empty the process has to wait: CPU() stops it and the OS parks it with waitForMessage().
+	 *  A waiting batch receive is run again when a message wakes the process.
+	 *
+	 * Input Parameters:
+	 *  @param batch: true for the batch receive system call
+	 *
+	 * Output Parameters:
+	 *  GPR0: return status, set when the process is woken up if it has to wait
+	 *  GPR1: the message
+	 *  GPR3: number of words received by a batch
+	 *
+	 * Method Return Values:
+	 *  @return OK: a message was received
+	 *  @return MESSAGE_WAIT, MESSAGE_BATCH_WAIT: the process has to wait
+	 *  @return ERROR_INVALID_MEMORY_ADDRESS: a word of the batch buffer is outside the process's memory
+	 *  @return ERROR_NO_FREE_MEMORY: no frame is left to bring in or copy a page of the buffer
+	 */
+	public long messageReceiveSystemCall(boolean batch) {
+		if(batch && gpr[3] < 1) {
+			traceln(TRACE_ERRORS, "\nError: message buffer size must be at least 1. Return error code: " + ERROR_INVALID_MEMORY_ADDRESS);
+			gpr[3] = 0;
+			return gpr[0] = ERROR_INVALID_MEMORY_ADDRESS;
+		}
+
+		long count = hypoMainMemory.get(runningPCB + numOfMessagesInQueueIndex);
+
+		if(count == 0) {
+			return batch ? MESSAGE_BATCH_WAIT : MESSAGE_WAIT;
+		}
+
+		if(!batch) {
+			// the registers are live on the CPU, deliver through the PCB and take them back
+			saveContext(runningPCB);
+			deliverMessage(runningPCB);
+			gpr[0] = hypoMainMemory.get(runningPCB + GPR0Index);
+			gpr[1] = hypoMainMemory.get(runningPCB + GPR1Index);
+			return gpr[0];
+		}
+
+		long start = hypoMainMemory.get(runningPCB + messageQueueStartAddressIndex);
+		long size = hypoMainMemory.get(runningPCB + messageQueueSizeIndex);
+		long head = messageQueueHead[(int) runningPCB];
+		long received = Math.min(count, gpr[3]);
+
+		// check the whole buffer before taking any message, a shared page of it gets a frame of its own here
+		for(long i = 0; i < received; i++) {
+			long address = messageBufferAddress(gpr[2] + i, true);
+
+			if(address < 0) {
+				gpr[3] = 0;
+				return gpr[0] = address;
+			}
+		}
+
+		for(long i = 0; i < received; i++) {
+			long address = messageBufferAddress(gpr[2] + i, true);
+			hypoMainMemory.set(address, hypoMainMemory.get(start + (head + i) % size));
+			invalidateDecodedInstruction(address); // the buffer may overwrite an instruction
+		}
+
+		messageQueueHead[(int) runningPCB] = (head + received) % size;
+		hypoMainMemory.set(runningPCB + numOfMessagesInQueueIndex, count - received);
+		gpr[3] = received;
+		return gpr[0] = OK;
+	}
+
+
+
+	/**
+	 * Method Name: messageBufferAddress
+	 *
+	 * Method Description:
+	 *  Memory address of a word of a batch message buffer of the running process. The word has to
+	 *  be one the process's own instructions could reach: an address in the user free area but not
+	 *  in OS memory, used as it is like a register deferred operand, or a program address, translated
+	 *  like a direct mode operand. A word that is written first gets a page of its own if its page is shared copy-on-write.
+	 *
+	 * Input Parameters:
+	 *  @param address: user free area or program address of the word
+	 *  @param store: true if the word is going to be written
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  @return address: memory address of the word
+	 *  @return ERROR_INVALID_MEMORY_ADDRESS: the word is outside the process's memory
+	 *  @return ERROR_NO_FREE_MEMORY: the word's page is swapped out and no frame can be freed for it, or it is shared and no frame is free for the copy
+	 */
+	public long messageBufferAddress(long address, boolean store) {
+		// the standard user free area runs into the OS free area, PCBs and page tables stay out of reach
+		if(address >= userFreeStart && address <= userFreeEnd && (address < START_ADDR_OF_OS_FREELIST || address > END_ADDR_OF_OS_FREELIST)) {
+			return address;
+		}
+
+		long physicalAddress = translateAddress(address);
+
+		// a page fault or a copy-on-write that found no frame has already been reported
+		if(physicalAddress == ERROR_NO_FREE_MEMORY || (physicalAddress >= 0 && store && (physicalAddress = writableAddress(physicalAddress)) == ERROR_NO_FREE_MEMORY)) {
+			return ERROR_NO_FREE_MEMORY;
+		}
+
+		if(physicalAddress < 0) {
+			traceln(TRACE_ERRORS, "\nError: message buffer word " + address + " is outside the process's memory. Return error code: " + ERROR_INVALID_MEMORY_ADDRESS);
+			return ERROR_INVALID_MEMORY_ADDRESS;
+		}
+
+		return physicalAddress;
+	}
+
+
+
+	/**
+	 * Method Name: deliverMessage
+	 *
+	 * Method Description:
+	 *  Take the oldest word of a process's non empty mailbox into GPR1 saved in its PCB, GPR0 gets OK.
+	 *  Works for any process, the PCB is all it touches.
+	 *
+	 * Input Parameters:
+	 *  @param PCBptr: PCB of the receiving process
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void deliverMessage(long PCBptr) {
+		long start = hypoMainMemory.get(PCBptr + messageQueueStartAddressIndex);
+		long size = hypoMainMemory.get(PCBptr + messageQueueSizeIndex);
+		long count = hypoMainMemory.get(PCBptr + numOfMessagesInQueueIndex);
+		long head = messageQueueHead[(int) PCBptr];
+
+		hypoMainMemory.set(PCBptr + GPR1Index, hypoMainMemory.get(start + head));
+		messageQueueHead[(int) PCBptr] = (head + 1) % size;
+		hypoMainMemory.set(PCBptr + numOfMessagesInQueueIndex, count - 1);
+		hypoMainMemory.set(PCBptr + GPR0Index, OK);
+	}
+
+
+
+	/**
+	 * Method Name: waitForMessage
+	 *
+	 * Method Description:
+	 *  Park a process stopped by a receive system call on its empty mailbox. On a multi-core
+	 *  machine a message may have arrived since the system call, then the process goes to RQ,
+	 *  with the message in GPR1 or, for a batch, to run its receive system call again.
+	 *
+	 * Input Parameters:
+	 *  @param PCBptr: PCB of the process, its context already saved
+	 *  @param reason: MESSAGE_WAIT or MESSAGE_BATCH_WAIT
+	 *
+	 * Output Parameters:
+	 *  None
+	 *
+	 * Method Return Values:
+	 *  None
+	 */
+	public void waitForMessage(long PCBptr, long reason) {
+		if(hypoMainMemory.get(PCBptr + numOfMessagesInQueueIndex) > 0) {
+			if(reason == MESSAGE_WAIT) {
+				deliverMessage(PCBptr);
+			}
+			kernel.insertIntoRQ(PCBptr);
+			return;
+		}
+
+		scheduler.blocked(this, PCBptr); // tell the policy the process blocks
+		hypoMainMemory.set(PCBptr + stateIndex, WAITING_STATE);
+		hypoMainMemory.set(PCBptr + reasonForWaitingCodeIndex, reason);
+		hypoMainMemory.set(PCBptr + nextPCBptrIndex, END_OF_LIST);
+	}
+}
+
+
+
+/* trace sink, receives every message the OS and HYPO machine trace */
+interface TraceSink {
+	void print(String text); // write text as it is
+	void println(String text); // write text followed by a line break
+	void close(); // flush anything still buffered, called once when the JVM exits
+}
+
+
+
+/* trace sink that writes to the console, same output as before trace sinks existed */
+class ConsoleTraceSink implements TraceSink {
+	public void print(String text) {
+		System.out.print(text);
+	}
+	public void println(String text) {
+		System.out.println(text);
+	}
+	public void close() {
+		System.out.flush();
+	}
+}
+
+
+
+/* trace sink that drops everything, used for headless runs together with TRACE_OFF */
+class NullTraceSink implements TraceSink {
+	public void print(String text) {
+	}
+	public void println(String text) {
+	}
+	public void close() {
+	}
+}
+
+
+
+/* trace sink that writes to a file through a large buffer, so tracing costs no console I/O per message */
+class BufferedFileTraceSink implements TraceSink {
+	PrintWriter writer;
+
+	public BufferedFileTraceSink(String filename) throws IOException {
+		writer = new PrintWriter(new BufferedWriter(new FileWriter(filename), 1 << 16));
+	}
+	public void print(String text) {
+		writer.print(text);
+	}
+	public void println(String text) {
+		writer.println(text);
+	}
+	public void close() {
+		writer.flush();
+	}
+}
+
+
+
+/* trace sink that keeps only the last events (print/println calls) in memory and dumps them to the console on close,
+used for a post-mortem look at what the OS did right before it stopped or crashed */
+class RingBufferTraceSink implements TraceSink {
+	String events[]; // the last events, oldest is overwritten first
+	int next; // index the next event is stored at
+	long count; // number of events traced so far
+
+	public RingBufferTraceSink(int size) {
+		events = new String[Math.max(1, size)];
+	}
+	public void print(String text) {
+		events[next] = text;
+		next = (next + 1) % events.length;
+		count++;
+	}
+	public void println(String text) {
+		print(text + System.lineSeparator());
+	}
+	public void close() {
+		System.out.println("\nLast " + Math.min(count, events.length) + " of " + count + " trace events:");
+
+		// oldest event first
+		for(int i = 0; i < events.length; i++) {
+			String event = events[(next + i) % events.length];
+			if(event != null) {
+				System.out.print(event);
+			}
+		}
+		System.out.flush();
+	}
+}
+
+
+
+/* trace sink shared by the cores of a multi-core machine, lets one thread at a time through to the sink it wraps */
+class SynchronizedTraceSink implements TraceSink {
+	TraceSink sink; // the sink written to
+
+	public SynchronizedTraceSink(TraceSink sink) {
+		this.sink = sink;
+	}
+	public synchronized void print(String text) {
+		sink.print(text);
+	}
+	public synchronized void println(String text) {
+		sink.println(text);
+	}
+	public synchronized void close() {
+		sink.close();
+	}
+}
+
+
+
+/* source of the interrupts the OS services, checkAndProcessInterrupt() asks it for one interrupt every scheduling round */
+interface InterruptSource {
+	long nextInterrupt(HypoMachine machine); // interrupt ID to service this scheduling round, 0 for no interrupt
+	String readProgramName(HypoMachine machine); // machine language program file of the run program interrupt
+	long readProcessID(HypoMachine machine); // PID of the process completing an input or output operation
+	char readCharacter(HypoMachine machine); // character read by an input completion interrupt
+	long[] readTimingConstraints(HypoMachine machine); // {period, relative deadline} of the run program interrupt, asked for by EDF scheduling
+
+	// give at most one interrupt per scheduling round instead of every one that is due
+	default boolean oneInterruptPerRound() {
+		return false;
+	}
+
+	// clock of the next interrupt, NO_EVENT if it can't be told, lets an idle machine jump its clock there
+	default long nextInterruptClock(HypoMachine machine) {
+		return HypoMachine.NO_EVENT;
+	}
+}
+
+
+
+/* handler of an interrupt ID in the interrupt vector of the machine */
+interface InterruptHandler {
+	void service(long arguments[]) throws IOException; // service one interrupt, arguments of a pending interrupt or null to read them from the interrupt source
+}
+
+
+
+/* interrupt source that prompts the user at the console for every interrupt */
+class InteractiveInterruptSource implements InterruptSource {
+	Scanner scan = new Scanner(System.in); // console input object instance
+
+	public long nextInterrupt(HypoMachine machine) {
+		// prompt possible interrupts selection menu
+		machine.traceln(HypoMachine.TRACE_EVENTS, "\n***********************************************"
+							+ "\n\tPossible Interrupts: \n\t0 - no interrupt"
+							+ "\n\t1 - run program\n\t2 - shutdown system\n\t"
+							+ "3 - input operation completion (io_getc)\n\t"
+							+ "4 - output operation completion (io_putc)\n"
+							+ "\n***********************************************");
+
+		machine.trace(HypoMachine.TRACE_EVENTS, "Please choose an interrupt number: ");
+		return scan.nextInt();
+	}
+	public String readProgramName(HypoMachine machine) {
+		machine.trace(HypoMachine.TRACE_EVENTS, "Enter name of program to run - machine language program (add .txt to the end): ");
+		return scan.next();
+	}
+	public long readProcessID(HypoMachine machine) {
+		machine.trace(HypoMachine.TRACE_EVENTS, "\nEnter PID of the process completing input completion interrupt: ");
+		return scan.nextInt();
+	}
+	public char readCharacter(HypoMachine machine) {
+		machine.traceln(HypoMachine.TRACE_EVENTS, "Enter a character to store: ");
+		return scan.next().charAt(0);
+	}
+	public long[] readTimingConstraints(HypoMachine machine) {
+		machine.trace(HypoMachine.TRACE_EVENTS, "Enter period and relative deadline in clock ticks (0 0 for none): ");
+		return new long[] {scan.nextLong(), scan.nextLong()};
+	}
+	public boolean oneInterruptPerRound() {
+		return true; // the user types one interrupt per prompt
+	}
+}
+
+
+
+/* interrupt source driven by a program: interrupts raised through the raise methods (from any thread) are delivered
+one per scheduling round once the clock reaches their time (or right away when no process is ready to move the clock),
+no interrupt is delivered while nothing is due */
+class QueuedInterruptSource implements InterruptSource {
+	ConcurrentLinkedQueue<String[]> pending = new ConcurrentLinkedQueue<String[]>(); // queued interrupts: {"ID@clock", arguments...}
+	String arguments[] = new String[0]; // the interrupt being serviced and its arguments
+	boolean shutdownWhenEmpty = false; // deliver the shutdown interrupt once nothing is queued anymore
+
+	public void raise(long interruptID, long atClock, String... interruptArguments) {
+		String entry[] = new String[interruptArguments.length + 1];
+		entry[0] = interruptID + "@" + atClock;
+		System.arraycopy(interruptArguments, 0, entry, 1, interruptArguments.length);
+		pending.add(entry);
+	}
+	public void raiseRunProgram(String filename) {
+		raise(1, 0, filename);
+	}
+	public void raiseRunProgram(String filename, long period, long relativeDeadline) {
+		raise(1, 0, filename, String.valueOf(period), String.valueOf(relativeDeadline));
+	}
+	public void raiseShutdown() {
+		raise(2, 0);
+	}
+	public void raiseInputCompletion(long PID, char inputCharacter) {
+		raise(3, 0, String.valueOf(PID), String.valueOf(inputCharacter));
+	}
+	public void raiseOutputCompletion(long PID) {
+		raise(4, 0, String.valueOf(PID));
+	}
+
+	public long nextInterrupt(HypoMachine machine) {
+		String entry[] = pending.peek();
+
+		if(entry == null) {
+			return shutdownWhenEmpty ? HypoMachine.SHUTDOWN_STATUS : 0;
+		}
+
+		String when[] = entry[0].split("@");
+
+		// not due yet, nothing to service this round (unless no process is ready, then nothing would move the clock there;
+		// the cores of a multi-core machine move the clock on their own)
+		if(when.length > 1 && Long.parseLong(when[1].trim()) > machine.clock && (machine.RQ != HypoMachine.END_OF_LIST || machine.cores != null)) {
+			return 0;
+		}
+
+		pending.poll();
+		arguments = entry;
+		return Long.parseLong(when[0].trim());
+	}
+	public long nextInterruptClock(HypoMachine machine) {
+		String entry[] = pending.peek();
+
+		// an empty queue of a program can be raised into at any time
+		if(entry == null) {
+			return shutdownWhenEmpty ? machine.clock : HypoMachine.NO_EVENT;
+		}
+
+		String when[] = entry[0].split("@");
+		return (when.length > 1) ? Math.max(machine.clock, Long.parseLong(when[1].trim())) : machine.clock;
+	}
+	public String readProgramName(HypoMachine machine) {
+		return arguments.length > 1 ? arguments[1] : "";
+	}
+	public long readProcessID(HypoMachine machine) {
+		return arguments.length > 1 ? Long.parseLong(arguments[1]) : HypoMachine.END_OF_LIST;
+	}
+	public char readCharacter(HypoMachine machine) {
+		return arguments.length > 2 ? arguments[2].charAt(0) : ' ';
+	}
+	public long[] readTimingConstraints(HypoMachine machine) {
+		return new long[] {arguments.length > 2 ? Long.parseLong(arguments[2]) : 0, arguments.length > 3 ? Long.parseLong(arguments[3]) : 0};
+	}
+}
+
+
+
+/* interrupt source that reads the interrupts from a script file, one "interrupt@clock [arguments]" entry per line
+(for example "1@0 p2.txt", "3@600 2 a", "4@800 2", "2@5000"), lines starting with # are comments. With EDF scheduling a run
+program entry can add a period and a relative deadline: "1@0 p2.txt 500 400".
+Entries are delivered in file order once the clock reaches their time, the system shuts down after the last one. */
+class ScriptedInterruptSource extends QueuedInterruptSource {
+	public ScriptedInterruptSource(String filename) throws IOException {
+		BufferedReader br = new BufferedReader(new FileReader(filename));
+		String st;
+
+		while((st = br.readLine()) != null) {
+			st = st.trim();
+
+			if(st.isEmpty() || st.startsWith("#")) {
+				continue;
+			}
+
+			pending.add(st.split("\\s+"));
+		}
+
+		br.close();
+		shutdownWhenEmpty = true;
+	}
+}
+
+
+
+/* simulated I/O device running on a host thread of its own. It takes the requests {PID, character, clock} the run loop submits
+in order from its request queue, does the transfer and posts the completion interrupt {interrupt ID, PID, character, due clock}
+to the blocking ioCompletions queue of the machine, due ioLatency clock ticks after the request */
+abstract class IODevice implements Runnable {
+	final static long STOP[] = new long[0]; // request that ends the device thread
+	HypoMachine machine; // machine the device is attached to
+	long interruptID; // completion interrupt the device raises, IO_GETCINTERRUPT or IO_PUTCINTERRUPT
+	LinkedBlockingQueue<long[]> requests = new LinkedBlockingQueue<long[]>(); // requests not transferred yet
+	Thread thread; // host thread of the device, a daemon so a keyboard blocked on its input never keeps the JVM alive
+
+	public IODevice(HypoMachine machine, long interruptID, String name) {
+		this.machine = machine;
+		this.interruptID = interruptID;
+		thread = new Thread(this, name);
+		thread.setDaemon(true);
+	}
+
+	public void submit(long PID, long character, long atClock) {
+		requests.add(new long[] {PID, character, atClock});
+	}
+	public void start() {
+		thread.start();
+	}
+	public void stop() {
+		requests.add(STOP);
+	}
+
+	public void run() {
+		try {
+			for(long request[] = requests.take(); request != STOP; request = requests.take()) {
+				long character = transfer(request[1]);
+				machine.ioCompletions.add(new long[] {interruptID, request[0], character, request[2] + machine.ioLatency});
+			}
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	abstract long transfer(long character); // transfer one character, returns the character moved
+}
+
+
+
+/* keyboard device serving io_getc: every request reads the next character of its input (the standard input or the file given
+with -keyboard=<file>), line breaks are skipped, END_OF_LIST is read once the input is used up */
+class KeyboardDevice extends IODevice {
+	BufferedReader input; // characters typed on the keyboard
+
+	public KeyboardDevice(HypoMachine machine, Reader input) {
+		super(machine, HypoMachine.IO_GETCINTERRUPT, "HYPO keyboard");
+		this.input = new BufferedReader(input);
+	}
+
+	long transfer(long character) {
+		try {
+			int c = input.read();
+
+			while(c == '\n' || c == '\r') {
+				c = input.read();
+			}
+			return (c < 0) ? HypoMachine.END_OF_LIST : c;
+		}
+		catch(IOException e) {
+			return HypoMachine.END_OF_LIST;
+		}
+	}
+}
+
+
+
+/* console device serving io_putc: every request takes the character from GPR1 of the process, the machine displays it through
+its trace sink when it services the completion, so device output lands wherever the rest of the output goes */
+class ConsoleDevice extends IODevice {
+	public ConsoleDevice(HypoMachine machine) {
+		super(machine, HypoMachine.IO_PUTCINTERRUPT, "HYPO console");
+	}
+
+	long transfer(long character) {
+		return character;
+	}
+}
+
+
+
+/* memory allocator for one free area of HYPO memory (the OS free area or the user free area). Free blocks live in HYPO memory
+as [next free block, size] like the original free lists, bookkeeping that needs more than that is kept in arrays indexed by offset
+in the area. allocate() and free() count calls and time them so allocators can be compared on long running process churn. */
+abstract class MemoryAllocator {
+	HypoMachine machine; // machine whose memory is managed
+	long start; // first address of the free area
+	long size; // number of words in the free area
+
+	long allocations; // successful allocate() calls
+	long frees; // successful free() calls
+	long failedAllocations; // allocate() calls that found no block
+	long liveRequestedWords; // words asked for by the blocks currently allocated
+	long liveGrantedWords; // words handed out for the blocks currently allocated (rounded up sizes)
+	long allocateNanos; // total time spent in allocate()
+	long freeNanos; // total time spent in free()
+
+	public MemoryAllocator(HypoMachine machine) {
+		this.machine = machine;
+	}
+
+	abstract String name(); // allocator name used in reports
+	abstract void resetArea(); // make the whole area one set of free blocks
+	abstract long allocateBlock(long words); // address of a block of at least words, ERROR_NO_FREE_MEMORY if none
+	abstract long freeBlock(long ptr, long words); // words actually given back (0 or more), or an error code below 0
+	abstract long allocatedWords(long ptr, long words); // words really handed out for the block at ptr allocated with a request of words
+	abstract long freeWords(); // total words in free blocks
+	abstract long largestFreeBlock(); // size of the largest free block
+
+	// start managing the area from address start with size words, all of it free
+	public void reset(long start, long size) {
+		this.start = start;
+		this.size = size;
+		allocations = frees = failedAllocations = liveRequestedWords = liveGrantedWords = allocateNanos = freeNanos = 0;
+		resetArea();
+	}
+
+	// allocate a block of words (at least 2), returns its address or ERROR_NO_FREE_MEMORY
+	public long allocate(long words) {
+		long startTime = System.nanoTime();
+		long ptr = allocateBlock(words);
+		allocateNanos += System.nanoTime() - startTime;
+
+		if(ptr < 0) {
+			failedAllocations++;
+			return ptr;
+		}
+
+		allocations++;
+		liveRequestedWords += words;
+		liveGrantedWords += allocatedWords(ptr, words);
+		return ptr;
+	}
+
+	// give back the block at ptr that was allocated with words, returns OK or ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS
+	public long free(long ptr, long words) {
+		long startTime = System.nanoTime();
+		long granted = freeBlock(ptr, words);
+		freeNanos += System.nanoTime() - startTime;
+
+		if(granted < 0) {
+			return granted;
+		}
+
+		frees++;
+		liveRequestedWords -= Math.min(words, granted);
+		liveGrantedWords -= granted;
+		return HypoMachine.OK;
+	}
+
+	// one line summary: calls, latency and fragmentation (internal: rounding waste of live blocks, external: free words outside the largest free block)
+	public String statistics() {
+		long free = freeWords();
+		double internal = (liveGrantedWords == 0) ? 0 : 100.0 * (liveGrantedWords - liveRequestedWords) / liveGrantedWords;
+		double external = (free == 0) ? 0 : 100.0 * (free - largestFreeBlock()) / free;
+
+		return String.format("%s: %d allocations, %d frees, %d failed, %.0f ns per allocation, %.0f ns per free, "
+				+ "%d words free, largest free block %d, internal fragmentation %.1f%%, external fragmentation %.1f%%",
+				name(), allocations, frees, failedAllocations,
+				(allocations + failedAllocations == 0) ? 0.0 : (double) allocateNanos / (allocations + failedAllocations),
+				(frees == 0) ? 0.0 : (double) freeNanos / frees,
+				free, largestFreeBlock(), internal, external);
+	}
+}
+
+
+
+/* the original allocator: first fit walk of a singly linked free list, freed blocks are pushed on the front without coalescing */
+class FirstFitAllocator extends MemoryAllocator {
+	long freeList = HypoMachine.END_OF_LIST; // first free block
+
+	public FirstFitAllocator(HypoMachine machine) {
+		super(machine);
+	}
+
+	String name() {
+		return "first fit";
+	}
+
+	void resetArea() {
+		freeList = start;
+		machine.hypoMainMemory.set(freeList, HypoMachine.END_OF_LIST);
+		machine.hypoMainMemory.set(freeList + 1, size);
+	}
+
+	long allocateBlock(long words) {
+		MainMemory memory = machine.hypoMainMemory;
+		long currentPtr = freeList;
+		long previousPtr = HypoMachine.END_OF_LIST;
+
+		while(currentPtr != HypoMachine.END_OF_LIST) {
+			// check each block in the linked list until block with requested memory size is found
+			if(memory.get(currentPtr + 1) == words) {
+				// if block found with requested size, adjust pointers
+				if(currentPtr == freeList) {
+					freeList = memory.get(currentPtr);
+				}
+				// not first block
+				else {
+					memory.set(previousPtr, memory.get(currentPtr)); // point to next block
+				}
+				memory.set(currentPtr, HypoMachine.END_OF_LIST); // reset next pointer in the allocated block
+				return currentPtr; // return memory address
+			}
+
+			// if block found with size greater than requested size
+			else if(memory.get(currentPtr + 1) > words) {
+				memory.set(currentPtr + words, memory.get(currentPtr)); // move to next block pointer
+				memory.set(currentPtr + words + 1, memory.get(currentPtr + 1) - words);
+
+				// first block
+				if(currentPtr == freeList) {
+					freeList = currentPtr + words; // address of reduced block
+				}
+				// not first block
+				else {
+					memory.set(previousPtr, currentPtr + words); // address of reduced block
+				}
+				memory.set(currentPtr, HypoMachine.END_OF_LIST); // reset next pointer in the allocated block
+				return currentPtr;
+			}
+
+			// small block, look at the next block
+			previousPtr = currentPtr;
+			currentPtr = memory.get(currentPtr);
+		}
+
+		return HypoMachine.ERROR_NO_FREE_MEMORY;
+	}
+
+	long freeBlock(long ptr, long words) {
+		machine.hypoMainMemory.set(ptr, freeList); // make the given free block point to the first free block
+		machine.hypoMainMemory.set(ptr + 1, words); // set the free block size in the given free block
+		freeList = ptr;
+		return words;
+	}
+
+	long allocatedWords(long ptr, long words) {
+		return words;
+	}
+
+	long freeWords() {
+		long words = 0;
+		for(long ptr = freeList; ptr != HypoMachine.END_OF_LIST; ptr = machine.hypoMainMemory.get(ptr)) {
+			words += machine.hypoMainMemory.get(ptr + 1);
+		}
+		return words;
+	}
+
+	long largestFreeBlock() {
+		long largest = 0;
+		for(long ptr = freeList; ptr != HypoMachine.END_OF_LIST; ptr = machine.hypoMainMemory.get(ptr)) {
+			largest = Math.max(largest, machine.hypoMainMemory.get(ptr + 1));
+		}
+		return largest;
+	}
+}
+
+
+
+/* free blocks kept on one doubly linked list per size class, with a bitmap of the non empty classes. The next link and size
+are in HYPO memory, the previous link in an array. Used by the buddy and segregated fit allocators. */
+abstract class SizeClassAllocator extends MemoryAllocator {
+	final static int CLASSES = 63; // size classes 0 to 62, class k holds blocks of 2^k words (buddy) or 2^k to 2^(k+1) - 1 words (segregated fit)
+	long classHead[] = new long[CLASSES]; // first free block of every class
+	long classBitmap; // bit k set while class k has a free block
+	long previous[]; // previous free block in its class, indexed by offset in the area
+
+	public SizeClassAllocator(HypoMachine machine) {
+		super(machine);
+	}
+
+	void resetClasses() {
+		Arrays.fill(classHead, HypoMachine.END_OF_LIST);
+		classBitmap = 0;
+		if(previous == null || previous.length != size) {
+			previous = new long[(int) size];
+		}
+	}
+
+	// put the free block at offset with words on the front of class k
+	void pushBlock(int k, long offset, long words) {
+		MainMemory memory = machine.hypoMainMemory;
+		long ptr = start + offset;
+
+		memory.set(ptr, classHead[k]);
+		memory.set(ptr + 1, words);
+		previous[(int) offset] = HypoMachine.END_OF_LIST;
+
+		if(classHead[k] != HypoMachine.END_OF_LIST) {
+			previous[(int) (classHead[k] - start)] = ptr;
+		}
+
+		classHead[k] = ptr;
+		classBitmap |= 1L << k;
+	}
+
+	// unlink the free block at offset from class k
+	void unlinkBlock(int k, long offset) {
+		MainMemory memory = machine.hypoMainMemory;
+		long ptr = start + offset;
+		long previousPtr = previous[(int) offset];
+		long nextPtr = memory.get(ptr);
+
+		if(previousPtr == HypoMachine.END_OF_LIST) {
+			classHead[k] = nextPtr;
+		}
+		else {
+			memory.set(previousPtr, nextPtr);
+		}
+
+		if(nextPtr != HypoMachine.END_OF_LIST) {
+			previous[(int) (nextPtr - start)] = previousPtr;
+		}
+
+		if(classHead[k] == HypoMachine.END_OF_LIST) {
+			classBitmap &= ~(1L << k);
+		}
+
+		memory.set(ptr, HypoMachine.END_OF_LIST);
+	}
+
+	// lowest non empty class from k up, -1 if none
+	int classAtLeast(int k) {
+		if(k >= CLASSES) {
+			return -1;
+		}
+		long bits = classBitmap & (-1L << k);
+		return (bits == 0) ? -1 : Long.numberOfTrailingZeros(bits);
+	}
+
+	// class k with 2^k <= words
+	static int floorClass(long words) {
+		return 63 - Long.numberOfLeadingZeros(words);
+	}
+
+	// class k with 2^k >= words
+	static int ceilClass(long words) {
+		return (words <= 1) ? 0 : 64 - Long.numberOfLeadingZeros(words - 1);
+	}
+}
+
+
+
+/* binary buddy allocator: blocks are 2^k words aligned to their size within the area, a request is rounded up to a power of 2
+and a freed block merges with its buddy (offset ^ 2^k) as long as the buddy is free, so allocate and free are O(log n) */
+class BuddyAllocator extends SizeClassAllocator {
+	final static int MIN_ORDER = 1; // smallest block is 2 words: next pointer and size
+	byte freeOrder[]; // order + 1 of the free block starting at an offset, 0 if no free block starts there
+	byte allocatedOrder[]; // order + 1 of the allocated block starting at an offset, 0 if no allocated block starts there
+
+	public BuddyAllocator(HypoMachine machine) {
+		super(machine);
+	}
+
+	String name() {
+		return "buddy";
+	}
+
+	void resetArea() {
+		resetClasses();
+		freeOrder = new byte[(int) size];
+		allocatedOrder = new byte[(int) size];
+
+		// cut the area into the largest aligned power of 2 blocks, an area that is not a power of 2 gives a few top blocks
+		long offset = 0;
+		while(size - offset >= (1L << MIN_ORDER)) {
+			int k = floorClass(size - offset);
+			addFree(k, offset);
+			offset += 1L << k;
+		}
+	}
+
+	void addFree(int k, long offset) {
+		pushBlock(k, offset, 1L << k);
+		freeOrder[(int) offset] = (byte) (k + 1);
+	}
+
+	long allocateBlock(long words) {
+		int order = Math.max(MIN_ORDER, ceilClass(words));
+		int k = classAtLeast(order);
+
+		if(k < 0) {
+			return HypoMachine.ERROR_NO_FREE_MEMORY;
+		}
+
+		long offset = classHead[k] - start;
+		unlinkBlock(k, offset);
+		freeOrder[(int) offset] = 0;
+
+		// split down to the requested order, the upper halves stay free
+		while(k > order) {
+			k--;
+			addFree(k, offset + (1L << k));
+		}
+
+		allocatedOrder[(int) offset] = (byte) (order + 1);
+		return start + offset;
+	}
+
+	long freeBlock(long ptr, long words) {
+		long offset = ptr - start;
+
+		if(offset < 0 || offset >= size || allocatedOrder[(int) offset] == 0) {
+			return HypoMachine.ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS; // not a block handed out by this allocator
+		}
+
+		int k = allocatedOrder[(int) offset] - 1;
+		long granted = 1L << k;
+		allocatedOrder[(int) offset] = 0;
+
+		// merge with the buddy while it is free and of the same order
+		while(true) {
+			long buddy = offset ^ (1L << k);
+			if(buddy + (1L << k) > size || freeOrder[(int) buddy] != k + 1) {
+				break;
+			}
+			unlinkBlock(k, buddy);
+			freeOrder[(int) buddy] = 0;
+			offset = Math.min(offset, buddy);
+			k++;
+		}
+
+		addFree(k, offset);
+		return granted;
+	}
+
+	long allocatedWords(long ptr, long words) {
+		return 1L << (allocatedOrder[(int) (ptr - start)] - 1);
+	}
+
+	long freeWords() {
+		long words = 0;
+		for(int k = 0; k < CLASSES; k++) {
+			for(long ptr = classHead[k]; ptr != HypoMachine.END_OF_LIST; ptr = machine.hypoMainMemory.get(ptr)) {
+				words += 1L << k;
+			}
+		}
+		return words;
+	}
+
+	long largestFreeBlock() {
+		return (classBitmap == 0) ? 0 : 1L << (63 - Long.numberOfLeadingZeros(classBitmap));
+	}
+}
+
+
+
+/* segregated fit allocator: free blocks of any size on one list per power of 2 size class. A request takes the first block of
+the smallest class whose blocks all fit (after one try at the front of its own class) and splits off the rest. Boundary arrays
+give the free neighbours of a freed block in O(1), so adjacent free blocks are always coalesced. */
+class SegregatedFitAllocator extends SizeClassAllocator {
+	long freeSize[]; // size of the free block starting at an offset, 0 if no free block starts there
+	long freeStartByEnd[]; // offset + 1 of the free block whose last word is at an offset, 0 if none ends there
+	long allocatedSize[]; // size of the allocated block starting at an offset, 0 if no allocated block starts there
+
+	public SegregatedFitAllocator(HypoMachine machine) {
+		super(machine);
+	}
+
+	String name() {
+		return "segregated fit";
+	}
+
+	void resetArea() {
+		resetClasses();
+		freeSize = new long[(int) size];
+		freeStartByEnd = new long[(int) size];
+		allocatedSize = new long[(int) size];
+
+		if(size >= 2) {
+			addFree(0, size);
+		}
+	}
+
+	void addFree(long offset, long words) {
+		pushBlock(floorClass(words), offset, words);
+		freeSize[(int) offset] = words;
+		freeStartByEnd[(int) (offset + words - 1)] = offset + 1;
+	}
+
+	void removeFree(long offset) {
+		long words = freeSize[(int) offset];
+		unlinkBlock(floorClass(words), offset);
+		freeSize[(int) offset] = 0;
+		freeStartByEnd[(int) (offset + words - 1)] = 0;
+	}
+
+	long allocateBlock(long words) {
+		words = Math.max(2, words); // room for the free block header when it comes back
+		int k = floorClass(words);
+		long ptr = classHead[k];
+
+		// the front block of the request's own class may be big enough, otherwise every block of a higher class is
+		if(ptr == HypoMachine.END_OF_LIST || freeSize[(int) (ptr - start)] < words) {
+			k = classAtLeast(k + 1);
+			if(k < 0) {
+				return HypoMachine.ERROR_NO_FREE_MEMORY;
+			}
+			ptr = classHead[k];
+		}
+
+		long offset = ptr - start;
+		long blockWords = freeSize[(int) offset];
+		removeFree(offset);
+
+		// split off the rest unless it is too small to hold a free block header
+		if(blockWords - words >= 2) {
+			addFree(offset + words, blockWords - words);
+			blockWords = words;
+		}
+
+		allocatedSize[(int) offset] = blockWords;
+		return ptr;
+	}
+
+	long freeBlock(long ptr, long words) {
+		long offset = ptr - start;
+
+		if(offset < 0 || offset >= size || allocatedSize[(int) offset] == 0) {
+			return HypoMachine.ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS; // not a block handed out by this allocator
+		}
+
+		long granted = allocatedSize[(int) offset];
+		long blockWords = granted;
+		allocatedSize[(int) offset] = 0;
+
+		// coalesce with the free block after it
+		long next = offset + blockWords;
+		if(next < size && freeSize[(int) next] != 0) {
+			blockWords += freeSize[(int) next];
+			removeFree(next);
+		}
+
+		// coalesce with the free block before it
+		if(offset > 0 && freeStartByEnd[(int) (offset - 1)] != 0) {
+			long before = freeStartByEnd[(int) (offset - 1)] - 1;
+			blockWords += freeSize[(int) before];
+			removeFree(before);
+			offset = before;
+		}
+
+		addFree(offset, blockWords);
+		return granted;
+	}
+
+	long allocatedWords(long ptr, long words) {
+		return allocatedSize[(int) (ptr - start)];
+	}
+
+	long freeWords() {
+		long words = 0;
+		for(int k = 0; k < CLASSES; k++) {
+			for(long ptr = classHead[k]; ptr != HypoMachine.END_OF_LIST; ptr = machine.hypoMainMemory.get(ptr)) {
+				words += freeSize[(int) (ptr - start)];
+			}
+		}
+		return words;
+	}
+
+	long largestFreeBlock() {
+		if(classBitmap == 0) {
+			return 0;
+		}
+
+		long largest = 0;
+		int k = 63 - Long.numberOfLeadingZeros(classBitmap);
+		for(long ptr = classHead[k]; ptr != HypoMachine.END_OF_LIST; ptr = machine.hypoMainMemory.get(ptr)) {
+			largest = Math.max(largest, freeSize[(int) (ptr - start)]);
+		}
+		return largest;
+	}
+}
+
+
+
+/* main memory of a HYPO machine: size() words with the addresses 0 to size() - 1, every word 0 until it is written. The cores of
+a multi-core machine share it, compareAndExchange() and getAndAdd() are atomic. The bulk operations have default loops over
+get() and set(), the backends do them in one go where they can. */
+interface MainMemory {
+	long size(); // number of words
+	long get(long address); // word at address
+	void set(long address, long value); // store value at address
+	long compareAndExchange(long address, long expected, long value); // store value if the word is expected, returns the word it was
+	long getAndAdd(long address, long delta); // add delta to the word, returns the word it was
+	void clear(); // make every word 0
+	String statistics(); // one line summary: backend, size and host memory used
+
+	// store value in the words from address to address + words - 1
+	default void fill(long address, long words, long value) {
+		for(long i = 0; i < words; i++) {
+			set(address + i, value);
+		}
+	}
+
+	// copy words from one address to another, the two ranges may overlap
+	default void copy(long from, long to, long words) {
+		if(to <= from) {
+			for(long i = 0; i < words; i++) {
+				set(to + i, get(from + i));
+			}
+		}
+		else {
+			for(long i = words - 1; i >= 0; i--) {
+				set(to + i, get(from + i));
+			}
+		}
+	}
+
+	// copy words from address on into buffer from index on
+	default void copyTo(long address, LongBuffer buffer, int index, int words) {
+		for(int i = 0; i < words; i++) {
+			buffer.put(index + i, get(address + i));
+		}
+	}
+
+	// copy words from buffer from index on to address on
+	default void copyFrom(LongBuffer buffer, int index, long address, int words) {
+		for(int i = 0; i < words; i++) {
+			set(address + i, buffer.get(index + i));
+		}
+	}
+}
+
+
+
+/* the original memory: a long[] on the Java heap, atomic access through a VarHandle on the array */
+class HeapMemory implements MainMemory {
+	final static long MAX_WORDS = Integer.MAX_VALUE - 8; // largest array the JVM allocates
+	final static VarHandle WORD = MethodHandles.arrayElementVarHandle(long[].class); // atomic access to the words
+	long words[]; // the memory words
+
+	public HeapMemory(long size) {
+		words = new long[(int) size];
+	}
+
+	public long size() {
+		return words.length;
+	}
+
+	public long get(long address) {
+		return words[(int) address];
+	}
+
+	public void set(long address, long value) {
+		words[(int) address] = value;
+	}
+
+	public long compareAndExchange(long address, long expected, long value) {
+		return (long) WORD.compareAndExchange(words, (int) address, expected, value);
+	}
+
+	public long getAndAdd(long address, long delta) {
+		return (long) WORD.getAndAdd(words, (int) address, delta);
+	}
+
+	public void clear() {
+		Arrays.fill(words, 0);
+	}
+
+	public String statistics() {
+		return String.format("heap: %d words, %d bytes of Java heap", words.length, words.length * (long) Long.BYTES);
+	}
+
+	public void fill(long address, long count, long value) {
+		Arrays.fill(words, (int) address, (int) (address + count), value);
+	}
+
+	public void copy(long from, long to, long count) {
+		System.arraycopy(words, (int) from, words, (int) to, (int) count);
+	}
+
+	public void copyTo(long address, LongBuffer buffer, int index, int count) {
+		buffer.put(index, words, (int) address, count);
+	}
+
+	public void copyFrom(LongBuffer buffer, int index, long address, int count) {
+		buffer.get(index, words, (int) address, count);
+	}
+}
+
+
+
+/* memory outside the Java heap: the words are in direct buffers of up to 2^CHUNK_SHIFT words (a buffer is indexed by an int
+byte offset), all allocated up front. Billions of words need a large enough -XX:MaxDirectMemorySize but no larger Java heap. */
+class OffHeapMemory implements MainMemory {
+	final static int CHUNK_SHIFT = 27; // 2^27 words (1 GiB) per buffer
+	final static long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1; // address bits of a word within its buffer
+	final static VarHandle WORD = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder()); // access to the words of a buffer
+	final static byte ZEROS[] = new byte[1 << 16]; // copied over a buffer to clear it
+	long size; // number of words
+	ByteBuffer chunks[]; // the buffers, chunk n holds the words from n * 2^CHUNK_SHIFT on
+
+	public OffHeapMemory(long size) {
+		this.size = size;
+		chunks = new ByteBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT)];
+
+		for(int n = 0; n < chunks.length; n++) {
+			chunks[n] = ByteBuffer.allocateDirect((int) (Math.min(size - ((long) n << CHUNK_SHIFT), 1L << CHUNK_SHIFT) * Long.BYTES));
+		}
+	}
+
+	public long size() {
+		return size;
+	}
+
+	public long get(long address) {
+		return (long) WORD.get(chunks[(int) (address >>> CHUNK_SHIFT)], (int) (address & CHUNK_MASK) << 3);
+	}
+
+	public void set(long address, long value) {
+		WORD.set(chunks[(int) (address >>> CHUNK_SHIFT)], (int) (address & CHUNK_MASK) << 3, value);
+	}
+
+	public long compareAndExchange(long address, long expected, long value) {
+		return (long) WORD.compareAndExchange(chunks[(int) (address >>> CHUNK_SHIFT)], (int) (address & CHUNK_MASK) << 3, expected, value);
+	}
+
+	public long getAndAdd(long address, long delta) {
+		return (long) WORD.getAndAdd(chunks[(int) (address >>> CHUNK_SHIFT)], (int) (address & CHUNK_MASK) << 3, delta);
+	}
+
+	public void clear() {
+		for(ByteBuffer chunk : chunks) {
+			for(int offset = 0; offset < chunk.capacity(); offset += ZEROS.length) {
+				chunk.put(offset, ZEROS, 0, Math.min(ZEROS.length, chunk.capacity() - offset));
+			}
+		}
+	}
+
+	public String statistics() {
+		return String.format("off-heap: %d words in %d direct buffers, %d bytes outside the Java heap", size, chunks.length, size * Long.BYTES);
+	}
+}
+
+
+
+/* memory that grows on touch: the words are in direct buffers of 2^PAGE_SHIFT words, a buffer is only allocated when one of its
+words is first written and words of buffers never written read as 0, so a huge memory costs only the parts in use. Buffers
+are published through an AtomicReferenceArray, the cores may touch the same buffer first at the same time. */
+class SparseMemory implements MainMemory {
+	final static int PAGE_SHIFT = 12; // 4096 words (32 KiB) per buffer
+	final static long PAGE_MASK = (1L << PAGE_SHIFT) - 1; // address bits of a word within its buffer
+	final static VarHandle WORD = OffHeapMemory.WORD; // access to the words of a buffer
+	long size; // number of words
+	AtomicReferenceArray<ByteBuffer> pages; // buffer of every page, null until the page is written
+	long pagesTouched; // buffers allocated
+
+	public SparseMemory(long size) {
+		this.size = size;
+		pages = new AtomicReferenceArray<ByteBuffer>((int) ((size + PAGE_MASK) >>> PAGE_SHIFT));
+	}
+
+	// buffer of the page of address, allocated the first time
+	ByteBuffer touch(long address) {
+		int page = (int) (address >>> PAGE_SHIFT);
+		ByteBuffer buffer = pages.get(page);
+
+		if(buffer == null) {
+			synchronized(this) {
+				buffer = pages.get(page);
+
+				if(buffer == null) {
+					buffer = ByteBuffer.allocateDirect((1 << PAGE_SHIFT) * Long.BYTES);
+					pages.set(page, buffer);
+					pagesTouched++;
+				}
+			}
+		}
+		return buffer;
+	}
 
-		long currentPCBptr = Qptr;
+	public long size() {
+		return size;
+	}
 
-		if(currentPCBptr == END_OF_LIST) {
-			System.out.println("The list is empty");
-			return OK;
-		}
+	public long get(long address) {
+		ByteBuffer buffer = pages.get((int) (address >>> PAGE_SHIFT));
+		return (buffer == null) ? 0 : (long) WORD.get(buffer, (int) (address & PAGE_MASK) << 3);
+	}
 
-		// walk through the queue
-		while(currentPCBptr != END_OF_LIST) {
-			printPCB(currentPCBptr);
-			currentPCBptr = hypoMainMemory[(int) (currentPCBptr + nextPCBptrIndex)];
+	public void set(long address, long value) {
+		// storing 0 into a page never written changes nothing
+		if(value == 0 && pages.get((int) (address >>> PAGE_SHIFT)) == null) {
+			return;
 		}
+		WORD.set(touch(address), (int) (address & PAGE_MASK) << 3, value);
+	}
 
-		return OK;
+	public long compareAndExchange(long address, long expected, long value) {
+		return (long) WORD.compareAndExchange(touch(address), (int) (address & PAGE_MASK) << 3, expected, value);
 	}
 
+	public long getAndAdd(long address, long delta) {
+		return (long) WORD.getAndAdd(touch(address), (int) (address & PAGE_MASK) << 3, delta);
+	}
 
+	// dropping the buffers makes every word 0 again and gives their host memory back
+	public synchronized void clear() {
+		for(int page = 0; page < pages.length(); page++) {
+			pages.set(page, null);
+		}
+		pagesTouched = 0;
+	}
 
-	/**
-	 * Jon Petani wrote this method 
-	 * 
-	 * Method Name: insertIntoRQ
-	 *
-	 * Description:
-	 *  The ready queue is an ordered list. The first PCB in the queue has the highest priority.
-	 *  Hence it will get the CPU next when CPU scheduling is done. Keeping RQ as an ordered linked list
-	 *  will avoid having to search the list for the highest priority process that should get the CPU.
-	 *  Therefore, insert the given PCB according to the CPU scheduling algorithm (Priority Round Robin Algorithm).
-	 *  The scheduling algorithm is implemented at the time of inserting the ready PCB into the RQ.
-	 *
-	 * Input Parameters: 
-	 *  @param PCBptr: memory location of the PCB 
-	 *  
-	 * Output Parameters: 
-	 *  None 
-	 *  
-	 * Method return values: 
-	 *  @return ERROR_INVALID_MEMORY_ADDRESS: Invalid memory address encountered 
-	 *  @return OK: success code, if PCB was inserted 
-	 */
-	public static long insertIntoRQ(long PCBptr) {
-		
-		long previousPtr = END_OF_LIST;
-		long currentPtr = RQ;
+	public String statistics() {
+		return String.format("sparse: %d words, %d of %d pages of %d words touched, %d bytes outside the Java heap",
+				size, pagesTouched, pages.length(), 1 << PAGE_SHIFT, pagesTouched * (Long.BYTES << PAGE_SHIFT));
+	}
+}
 
-		// check for valid PCB memory address
-		if(PCBptr < 0 || PCBptr > MAX_MEMORY_ADDRESS) {
-			System.out.println("\nError: Invalid memory range detected. Return error code: " + ERROR_INVALID_ADDRESS);
-			return ERROR_INVALID_MEMORY_ADDRESS;
-		}
 
-		hypoMainMemory[(int) (PCBptr + stateIndex)] = READY_STATE; 
-		hypoMainMemory[(int) (PCBptr + nextPCBptrIndex)] = END_OF_LIST; 
 
-		// if RQ is empty
-		if(RQ == END_OF_LIST) {
-			RQ = PCBptr;
-			return OK;
+/* frames of the paged virtual memory: frame n is the PAGE_SIZE words from start + n * PAGE_SIZE. The numbers of the free frames
+are kept on a stack, so allocate() and free() take constant time and the frame freed last is the first one used again. */
+class FrameTable {
+	long start; // memory address of frame 0
+	long frameSize; // words in a frame
+	int freeFrames[]; // numbers of the free frames, the top of the stack is at freeCount - 1
+	int freeCount; // number of free frames
+
+	// demand paging: the page in every frame and what the replacement policies decide from, indexed by frame number
+	long ownerPCB[]; // PCB of the process whose page is in the frame, -1 if none
+	long ownerPage[]; // page of that process
+	long swapSlot[]; // swap slot of that page
+	boolean referenced[]; // reference bit, set on every translation to the frame, cleared by the policies
+	long lastReference[]; // clock of the last translation to the frame
+	int shareCount[]; // page tables mapping the frame, more than 1 for pages shared copy-on-write by fork
+
+	public FrameTable(long start, int frames, long frameSize) {
+		this.start = start;
+		this.frameSize = frameSize;
+		freeFrames = new int[frames];
+		ownerPCB = new long[frames];
+		ownerPage = new long[frames];
+		swapSlot = new long[frames];
+		referenced = new boolean[frames];
+		lastReference = new long[frames];
+		shareCount = new int[frames];
+		reset();
+	}
+
+	// make every frame free, frame 0 is handed out first
+	public void reset() {
+		for(int i = 0; i < freeFrames.length; i++) {
+			freeFrames[i] = freeFrames.length - 1 - i;
 		}
+		freeCount = freeFrames.length;
+		Arrays.fill(ownerPCB, -1);
+	}
 
-		// Walk through RQ and find the place to insert. PCB will be inserted at the end of its priority
-		while(currentPtr != END_OF_LIST) {
-			if(hypoMainMemory[(int) (PCBptr + priorityIndex)] > hypoMainMemory[(int) currentPtr + priorityIndex]) {
-				// found the place to insert
-				if(previousPtr == END_OF_LIST) {
-					// enter PCB in the front of the list as first entry
-					hypoMainMemory[(int) (PCBptr + nextPCBptrIndex)] = RQ;
-					RQ = PCBptr;
-					return OK;
-				}
+	// number of frames
+	public int frames() {
+		return freeFrames.length;
+	}
 
-				// enter PCB in the middle of the list
-				hypoMainMemory[(int) (PCBptr + nextPCBptrIndex)] = hypoMainMemory[(int) (previousPtr + nextPCBptrIndex)];
-				hypoMainMemory[(int) (previousPtr + nextPCBptrIndex)] = PCBptr;
-				return OK;
-			}
-			else {  // PCB to be inserted has lower or equal priority to the current PCB in RQ
-				// go the the next PCB in RQ
-				previousPtr = currentPtr;
-				currentPtr = hypoMainMemory[(int) (currentPtr + nextPCBptrIndex)];
-			}
-		}
+	// frame number of the frame at the memory address frame
+	public int number(long frame) {
+		return (int) ((frame - start) / frameSize);
+	}
 
-		// insert PCB at the end of the RQ
-		hypoMainMemory[(int) (previousPtr + nextPCBptrIndex)] = PCBptr;
-		return OK;
+	// memory address of frame number
+	public long address(int number) {
+		return start + number * frameSize;
 	}
 
+	// the page of a process was brought into frame number at clock
+	public void map(int number, long PCBptr, long page, long slot, long clock) {
+		ownerPCB[number] = PCBptr;
+		ownerPage[number] = page;
+		swapSlot[number] = slot;
+		referenced[number] = true;
+		lastReference[number] = clock;
+	}
 
+	// frame number holds no page anymore
+	public void unmap(int number) {
+		ownerPCB[number] = -1;
+		referenced[number] = false;
+	}
 
-	/**
-	 * Jon Petani wrote this method 
-	 * 
-	 * Method Name: insertIntoWQ
-	 * 
-	 * Method Description: 
-	 *  Take PCBptr and insert it into the front of waiting queue after 
-	 *  which we adjust the next pointer index value.
-	 *  
-	 * Input Parameters:
-	 *  @param PCBptr: memory location of the PCB 
-	 *  
-	 * Output Parameters:
-	 *  None 
-	 * 
-	 * Method return values: 
-	 *  @return OK: success code, if PCB was inserted into WQ 
-	 *  @return ERROR_INVALID_MEMORY_ADDRESS: invalid memory address encountered code 
-	 */
-	public static long insertIntoWQ(long PCBptr) {
-		// insert the given PCB at the front of WQ
-		if(PCBptr < 0 || PCBptr > MAX_MEMORY_ADDRESS) {
-			System.out.println("\nError: Invalid memory range found. Return error code: " + ERROR_INVALID_MEMORY_ADDRESS);
-			return ERROR_INVALID_MEMORY_ADDRESS;
+	// memory address of a free frame, ERROR_NO_FREE_MEMORY if all frames are in use
+	public long allocate() {
+		if(freeCount == 0) {
+			return HypoMachine.ERROR_NO_FREE_MEMORY;
 		}
+		shareCount[freeFrames[freeCount - 1]] = 1;
+		return start + freeFrames[--freeCount] * frameSize;
+	}
 
-		hypoMainMemory[(int) (PCBptr + stateIndex)] = WAITING_STATE; // set state to ready state
-		hypoMainMemory[(int) (PCBptr + nextPCBptrIndex)] = WQ; // set next pointer to end of list
-		WQ = PCBptr;
+	// give back the frame at the memory address frame
+	public void free(long frame) {
+		freeFrames[freeCount++] = (int) ((frame - start) / frameSize);
+	}
 
-		return OK;
+	// a page table stops mapping the frame at the memory address frame, the last one gives it back
+	public void release(long frame) {
+		if(--shareCount[number(frame)] == 0) {
+			free(frame);
+		}
 	}
+}
 
 
 
-	/**
-	 * Jon Petani wrote this method 
-	 * 
-	 * Method Name: selectProcessFromRQ
-	 *
-	 * Method Description: 
-	 *  Select first process from RQ to give CPU. When CPU has to be allocated to the next process in RQ, select the first process
-	 *  in the RQ and return the pointer to the PCB since processes in RQ are already ordered from highest to lowest priority.
-	 *
-	 * Input Parameters: 
-	 *  None 
-	 *  
-	 * Output Parameter:
-	 *  None 
-	 *
-	 * Method Return Values: 
-	 *  @return PCBptr: PCB address of the first PCB in the ready queue 
-	 */
-	public static long selectProcessFromRQ() {
-		long PCBptr = RQ; // first entry in RQ
+/* swap file of demand paging: SWAP_SLOTS slots of PAGE_SIZE words in a file on disk, mapped into memory with FileChannel.map so
+pages are copied between their slot and their frame without read or write calls. The numbers of the free slots are kept on a
+stack like the free frames. A temporary file is deleted when the simulator exits. */
+class SwapFile {
+	LongBuffer words; // the mapped file
+	long slotSize; // words in a slot
+	long zeros[]; // a slot of 0 words, copied into a slot to clear it
+	int freeSlots[]; // numbers of the free slots, the top of the stack is at freeCount - 1
+	int freeCount; // number of free slots
 
-		if(RQ != END_OF_LIST) {
-			RQ = hypoMainMemory[(int) (RQ + nextPCBptrIndex)]; // remove first PCB from RQ, set RQ to next PCB pointed by RQ
+	public SwapFile(String name, int slots, long slotSize) throws IOException {
+		File file = (name == null) ? File.createTempFile("hypo", ".swap") : new File(name);
+
+		if(name == null) {
+			file.deleteOnExit();
 		}
 
-		hypoMainMemory[(int) (PCBptr + nextPCBptrIndex)] = END_OF_LIST; // set next point to END_OF_LIST in the PCB; set next PCB field in the given PCB to END_OF_LIST
-		return PCBptr;
+		// the mapping stays valid after the channel is closed
+		try(RandomAccessFile swap = new RandomAccessFile(file, "rw"); FileChannel channel = swap.getChannel()) {
+			words = channel.map(FileChannel.MapMode.READ_WRITE, 0, slots * slotSize * Long.BYTES).asLongBuffer();
+		}
+
+		this.slotSize = slotSize;
+		zeros = new long[(int) slotSize];
+		freeSlots = new int[slots];
+		reset();
 	}
 
+	// make every slot free, slot 0 is handed out first
+	public void reset() {
+		for(int i = 0; i < freeSlots.length; i++) {
+			freeSlots[i] = freeSlots.length - 1 - i;
+		}
+		freeCount = freeSlots.length;
+	}
 
+	// number of a free slot, ERROR_NO_FREE_MEMORY if all slots are in use
+	public long allocate() {
+		if(freeCount == 0) {
+			return HypoMachine.ERROR_NO_FREE_MEMORY;
+		}
+		return freeSlots[--freeCount];
+	}
 
-	/**
-	 * Brian Perel wrote this method 
-	 * 
-	 * Method Name: saveContext
-	 *
-	 * Method Description:
-	 *  Save CPU context into running process PCB.
-	 *  Running process is going to lose the CPU. Hence, its CPU context has to be
-	 *  saved in its PCB so that it can be restored when it gets the CPU at a later time.
-	 *  CPU context consists of GPRs, SP, PC, and PSR.
-	 *  Method used to store the specified value into the PCB who's 
-	 *  start address is startAddress at this index's address.
-	 *
-	 * Input Parameters: 
-	 *  @param PCBptr: memory location of the PCB 
-	 *  
-	 * Output Parameters:
-	 *  None 
-	 *  
-	 * Method Return Values: 
-	 *  None 
-	 */
-	public static void saveContext(long PCBptr) {
-		// copy all CPU GPRs, SP, PC, and PSR values into PCB using PCBptr
-		hypoMainMemory[(int) (PCBptr + GPR0Index)] = gpr[0];
-		hypoMainMemory[(int) (PCBptr + GPR1Index)] = gpr[1];
-		hypoMainMemory[(int) (PCBptr + GPR2Index)] = gpr[2];
-		hypoMainMemory[(int) (PCBptr + GPR3Index)] = gpr[3];
-		hypoMainMemory[(int) (PCBptr + GPR4Index)] = gpr[4];
-		hypoMainMemory[(int) (PCBptr + GPR5Index)] = gpr[5];
-		hypoMainMemory[(int) (PCBptr + GPR6Index)] = gpr[6];
-		hypoMainMemory[(int) (PCBptr + GPR7Index)] = gpr[7];
-		
-		hypoMainMemory[(int) (PCBptr + SPIndex)] = sp;
-		hypoMainMemory[(int) (PCBptr + PCIndex)] = pc;
-		hypoMainMemory[(int) (PCBptr + PSRIndex)] = psr;
+	// give back slot
+	public void free(long slot) {
+		freeSlots[freeCount++] = (int) slot;
 	}
 
+	// fill slot with 0 words
+	public void clear(long slot) {
+		words.put((int) (slot * slotSize), zeros, 0, (int) slotSize);
+	}
 
+	// store value at offset in slot
+	public void store(long slot, long offset, long value) {
+		words.put((int) (slot * slotSize + offset), value);
+	}
 
-	/**
-	 * Jon Petani wrote this method 
-	 * 
-	 * Method Name: dispatcher
-	 * 
-	 * Method Description: 
-	 *  Take PCBptr and store its context to all hardware components. 
-	 *  Copy CPU GPR register values from given PCBptr into the CPU registers.
-	 *  Do the opposite operation of save context. The selected process has 
-	 *  been given the CPU to run, so that's why we must restore its CPU
-	 *  context from the PCB into the CPU registers.The OS code that performs 
-	 *  this restore context process is called the dispatcher.  
-	 *
-	 * Input Parameters:
-	 *  @param PCBptr: memory location of the PCB 
-	 *  
-	 * Output Parameters: 
-	 *  None 
-	 *  
-	 * Method Return Values: 
-	 *  None 
-	 */
-	public static void dispatcher(long PCBptr) {
-		gpr[0] = hypoMainMemory[(int) (PCBptr + GPR0Index)];
-		gpr[1] = hypoMainMemory[(int) (PCBptr + GPR1Index)];
-		gpr[2] = hypoMainMemory[(int) (PCBptr + GPR2Index)];
-		gpr[3] = hypoMainMemory[(int) (PCBptr + GPR3Index)]; 
-		gpr[4] = hypoMainMemory[(int) (PCBptr + GPR4Index)];
-		gpr[5] = hypoMainMemory[(int) (PCBptr + GPR5Index)];
-		gpr[6] = hypoMainMemory[(int) (PCBptr + GPR6Index)];
-		gpr[7] = hypoMainMemory[(int) (PCBptr + GPR7Index)];
-		
-		sp = hypoMainMemory[(int) (PCBptr + SPIndex)];
-		pc = hypoMainMemory[(int) (PCBptr + PCIndex)];
-		psr = UserMode;
+	// copy slot into memory from address on
+	public void read(long slot, MainMemory memory, long address) {
+		memory.copyFrom(words, (int) (slot * slotSize), address, (int) slotSize);
 	}
 
+	// copy the slotSize words of memory from address on into slot
+	public void write(long slot, MainMemory memory, long address) {
+		memory.copyTo(address, words, (int) (slot * slotSize), (int) slotSize);
+	}
 
+	// copy slot from into slot to
+	public void copy(long from, long to) {
+		words.put((int) (to * slotSize), words, (int) (from * slotSize), (int) slotSize);
+	}
+}
 
-	/**
-	 * Jon Petani wrote this method 
-	 * 
-	 * Method Name: terminateProcess
-	 * 
-	 * Method Description: 
-	 *  Method terminates a process by freeing the stack and PCB memory 
-	 *  so that another process can have space. Return stack memory 
-	 *  using stack start address and stack size in the given PCB.
-	 *  Return PCB memory using the PCBptr. Recover all resources 
-	 *  allocated to the process. 
-	 *  
-	 * Input Parameters:
-	 *  @param PCBptr: memory address location of PCB 
-	 *  
-	 * Output Parameters: 
-	 *  None 
-	 *  
-	 * Method Return Values:
-	 *  None 
-	 */
-	public static void terminateProcess(long PCBptr) {
-		freeUserMemory(hypoMainMemory[(int) (PCBptr + stackStartAddressIndex)],
-				hypoMainMemory[(int) (PCBptr + stackSizeIndex)]);
 
-		freeOSMemory(PCBptr, PCB_SIZE);
+
+/* page replacement policy of demand paging: picks the frame whose page is evicted when a page fault finds no free frame. A frame
+referenced at the current clock holds words of the instruction being executed and is never picked. */
+interface ReplacementPolicy {
+	String name(); // policy name used in reports
+
+	// forget every frame, called by initializeSystem
+	default void reset(FrameTable frames) {
 	}
 
+	// a page was brought into frame number
+	default void loaded(FrameTable frames, int number) {
+	}
 
+	// the page in frame number was evicted or its process terminated
+	default void freed(FrameTable frames, int number) {
+	}
 
-	/**
-	 * Jon Petani wrote this method 
-	 * 
-	 * Method Name: allocateOSMemory
-	 * 
-	 * Method Description: 
-	 *  Method allocates (takes aside) a block of OS free memory to be used.
-	 *  
-	 * Input Parameters: 
-	 *  @param RequestedSize: memory size needed for allocation of block 
-	 *  
-	 * Output Parameters: 
-	 *  None 
-	 *  
-	 * Function Return Values: 
-	 *  @return ERROR_NO_FREE_MEMORY: if no free memory available 
-	 *  @return ERROR_INVALID_MEMORY_SIZE: if requested memory size is invalid value
-	 *  @return OK: success code, if memory allocation was completed successfully 
-	 */
-	public static long allocateOSMemory(long RequestedSize) {
-		// ensure OS free memory exists
-		if(OSFreeList == END_OF_LIST) {
-			System.out.println("\nError: The OS free list is empty and there is no memory available to allocate. Returning error code: " + ERROR_NO_FREE_MEMORY);
-			return ERROR_NO_FREE_MEMORY;
-		}
+	int victim(FrameTable frames, long clock); // number of the frame to evict, -1 if there is none
+}
 
-		if(RequestedSize < 0) {
-			System.out.println("\nError: The requested memory size is too small, it must be greater than 1. Returning error code: " + ERROR_INVALID_MEMORY_SIZE);
-			return ERROR_INVALID_MEMORY_SIZE;
-		}
 
-		if(RequestedSize == 1) {
-			// minimum allocated memory is 2 locations
-			RequestedSize = 2;
+
+/* least recently used: evicts the page whose last reference is the oldest */
+class LRUReplacement implements ReplacementPolicy {
+	public String name() {
+		return "LRU";
+	}
+
+	public int victim(FrameTable frames, long clock) {
+		int victim = -1;
+
+		for(int number = 0; number < frames.frames(); number++) {
+			if(frames.ownerPCB[number] != -1 && frames.lastReference[number] != clock
+					&& (victim == -1 || frames.lastReference[number] < frames.lastReference[victim])) {
+				victim = number;
+			}
 		}
+		return victim;
+	}
+}
 
-		long currentPtr = OSFreeList;
-		long previousPtr = END_OF_LIST;
 
-		while(currentPtr != END_OF_LIST) {
-			// check each block in the linked list until block with requested memory size is found
-			if(hypoMainMemory[(int) (currentPtr + 1)] == RequestedSize) {
-				// if block found with requested size, adjust pointers
-				if(currentPtr == OSFreeList) {
-				OSFreeList = hypoMainMemory[(int) currentPtr];
-				hypoMainMemory[(int) currentPtr] = END_OF_LIST;
-				return currentPtr; // return memory address
-				}
-				// not first block
-				else {
-					hypoMainMemory[(int) previousPtr] = hypoMainMemory[(int) currentPtr]; // point to next block
-					hypoMainMemory[(int) currentPtr] = END_OF_LIST; // reset next pointer in the allocated block
-					return currentPtr; // return memory address
-				}
+
+/* CLOCK: a hand goes round the frames, a frame whose reference bit is set gets it cleared and is passed, the first frame found
+with a clear bit is evicted and the hand stops after it */
+class ClockReplacement implements ReplacementPolicy {
+	int hand; // next frame the hand looks at
+
+	public String name() {
+		return "CLOCK";
+	}
+
+	public void reset(FrameTable frames) {
+		hand = 0;
+	}
+
+	public int victim(FrameTable frames, long clock) {
+		// two turns clear every reference bit on the first one
+		for(int step = 0; step < 2 * frames.frames(); step++) {
+			int number = hand;
+			hand = (hand + 1) % frames.frames();
+
+			if(frames.ownerPCB[number] == -1 || frames.lastReference[number] == clock) {
+				continue;
+			}
+
+			if(frames.referenced[number]) {
+				frames.referenced[number] = false;
+			}
+			else {
+				return number;
 			}
+		}
+		return -1;
+	}
+}
+
+
+
+/* second chance: frames in a FIFO in the order their pages were brought in, the oldest one is evicted unless its reference bit
+is set, then the bit is cleared and the frame goes to the back as if its page was just brought in */
+class SecondChanceReplacement implements ReplacementPolicy {
+	ArrayDeque<Integer> fifo = new ArrayDeque<Integer>(); // frames holding a page, oldest first
+
+	public String name() {
+		return "second chance";
+	}
+
+	public void reset(FrameTable frames) {
+		fifo.clear();
+	}
+
+	public void loaded(FrameTable frames, int number) {
+		fifo.addLast(number);
+	}
+
+	public void freed(FrameTable frames, int number) {
+		fifo.remove(number);
+	}
+
+	public int victim(FrameTable frames, long clock) {
+		for(int step = 0; step < 2 * fifo.size(); step++) {
+			int number = fifo.removeFirst();
 
-			// if block found with size greater than requested size
-			else if(hypoMainMemory[(int) currentPtr + 1] > RequestedSize) {
-				// first block
-				if(currentPtr == OSFreeList) {
-					hypoMainMemory[(int) (currentPtr + RequestedSize)] = hypoMainMemory[(int) currentPtr]; // move to next block pointer
-					hypoMainMemory[(int) (currentPtr + RequestedSize + 1)] = hypoMainMemory[(int) currentPtr + 1] - RequestedSize;
-					OSFreeList = currentPtr + RequestedSize; // address of reduced block
-					hypoMainMemory[(int) currentPtr] = END_OF_LIST; // reset next pointer in the allocated block
-					return currentPtr;
-				}
-				// not first block
-				else {
-					hypoMainMemory[(int) (currentPtr + RequestedSize)] = hypoMainMemory[(int) currentPtr]; // move to next block pointer
-					hypoMainMemory[(int) (currentPtr + RequestedSize + 1)] = hypoMainMemory[(int) currentPtr + 1] - RequestedSize;
-					hypoMainMemory[(int) previousPtr] = currentPtr + RequestedSize; // address of reduced block
-					hypoMainMemory[(int) currentPtr] = END_OF_LIST; // reset next pointer in the allocated block
-					return currentPtr; // return memory address
-				}
+			if(frames.referenced[number] || frames.lastReference[number] == clock) {
+				frames.referenced[number] = false;
+				fifo.addLast(number);
 			}
-
-			// small block
 			else {
-				// look at the next block
-				previousPtr = currentPtr;
-				currentPtr = hypoMainMemory[(int) currentPtr];
+				fifo.addFirst(number); // freed() takes it out
+				return number;
 			}
 		}
-
-		System.out.println("\nError: No free OS memory. Returning error code: " + ERROR_NO_FREE_MEMORY);
-		return ERROR_NO_FREE_MEMORY;
+		return -1;
 	}
+}
 
 
 
-	/**
-	 * Jon Petani wrote this method 
-	 * 
-	 * Method Name: freeOSMemory
-	 * 
-	 * Method Description: 
-	 *  Method takes a memory location and memory size and tries to free 
-	 *  in OS free list.
-	 *
-	 * Input Parameters:
-	 *  @param ptr: Pointer of the block to free memory 
-	 *  @param size: size of the block 
-	 *  
-	 * Output Parameters:
-	 *  None 
-	 *  
-	 * Method Return Values:
-	 *  @return ERROR_INVALID_MEMORY_ADDRESS: if invalid memory address given
-	 *  @return ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS: if invalid size or memory address given 
-	 *  @return OK: success code, if memory was freed successfully 
-	 */
-	public static long freeOSMemory(long ptr, long size) {
+/* working set (WSClock): a hand goes round the frames and evicts the first page that was not referenced in the last window clock
+ticks, so it is out of the working set of its process. When every page is in a working set the least recently used one goes. */
+class WorkingSetReplacement implements ReplacementPolicy {
+	long window; // clock ticks a page stays in the working set after its last reference
+	int hand; // next frame the hand looks at
 
-	   if(ptr < START_ADDR_OF_OS_FREELIST || ptr > MAX_MEMORY_ADDRESS) {
-	 		System.out.println("Error: Invalid memory address, memory address that you're trying to free is outside of OS free list area. Returning error code: " + ERROR_INVALID_MEMORY_ADDRESS);
-	 		return ERROR_INVALID_MEMORY_ADDRESS;
-	   }
+	public WorkingSetReplacement(long window) {
+		this.window = window;
+	}
 
-		// check for minimum allocated size, which is 2 even if user asks for 1 location
-		if(size == 1) {
-			size = 2; // minimum allocated size
-		}
+	public String name() {
+		return "working set";
+	}
 
-		else if(size < 1 || ((ptr + size) >= MAX_MEMORY_ADDRESS)) {
-			System.out.println("\nError: Invalid memory size. Returning error code: " + ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS);
-			return ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS;
-		}
+	public void reset(FrameTable frames) {
+		hand = 0;
+	}
 
-		hypoMainMemory[(int) ptr] = OSFreeList; // make the given free block point to free block pointed by OS free list
-		hypoMainMemory[(int) ptr + 1] = size; // set the free block size in the given free block
-		OSFreeList = ptr; // set OS free list point to the given free block
+	public int victim(FrameTable frames, long clock) {
+		int oldest = -1;
 
-		return OK;
-	}
+		for(int step = 0; step < frames.frames(); step++) {
+			int number = hand;
+			hand = (hand + 1) % frames.frames();
 
+			if(frames.ownerPCB[number] == -1 || frames.lastReference[number] == clock) {
+				continue;
+			}
 
+			if(clock - frames.lastReference[number] > window) {
+				return number;
+			}
 
-	/**
-	 * Jon Petani wrote this method  
-	 * 
-	 * Method Name: allocateUserMemory
-	 * 
-	 * Method Description: 
-	 *  Method allocates a block of user memory to be used. 
-	 *
-	 * Input Parameters:
-	 *  @param size: size needed for allocation of the block
-	 *  
-	 * Output Parameters:
-	 *  None 
-	 *  
-	 * Method Return Values: 
-	 *  @return ERROR_NO_FREE_MEMORY: if no free memory remaining 
-	 *  @return ERROR_REQUESTED_MEMORY_TOO_SMALL: if size of requested memory is to small
-	 *  @return OK: success code, if memory allocation was completed successfully
-	 */
-	public static long allocateUserMemory(long size) {
-		if(UserFreeList == END_OF_LIST) {
-			System.out.println("Error: The user free list is empty, no available memory to allocate. Returning error code: " + ERROR_NO_FREE_MEMORY);
-			return ERROR_NO_FREE_MEMORY;
+			if(oldest == -1 || frames.lastReference[number] < frames.lastReference[oldest]) {
+				oldest = number;
+			}
 		}
+		return oldest;
+	}
+}
 
-		if(size < 0) {
-			System.out.println("Error: The requested memory size is too small. Returning error code: " + ERROR_REQUESTED_MEMORY_TOO_SMALL);
-			return ERROR_REQUESTED_MEMORY_TOO_SMALL;
-		}
 
-		if(size == 1) {
-			size = 2;
+
+/* CPU scheduling policy: decides where a ready process goes in RQ, which process gets the CPU next and for how long.
+Whatever the order, a policy keeps all ready PCBs linked in RQ in memory through the PCB next pointers (in run order
+unless the policy picks from its own structure), so RQ can be printed and walked. */
+interface SchedulerPolicy {
+	void insert(HypoMachine machine, long PCBptr); // put a ready process into RQ
+
+	// take the first process out of RQ, END_OF_LIST if RQ is empty
+	default long select(HypoMachine machine) {
+		long PCBptr = machine.RQ;
+		if(PCBptr != HypoMachine.END_OF_LIST) {
+			machine.removeFromReadyLevel(PCBptr);
 		}
+		return PCBptr;
+	}
+
+	// take a process out of RQ wherever it is, OK or ERROR_INVALID_ID
+	default long remove(HypoMachine machine, long PCBptr) {
+		return machine.removeFromReadyLevel(PCBptr);
+	}
 
-		long currentPtr = UserFreeList;
-		long previousPtr = END_OF_LIST;
+	// time slice of the process about to get the CPU
+	default long timeSlice(HypoMachine machine, long PCBptr) {
+		return HypoMachine.TIMESLICE;
+	}
 
-		while(currentPtr != END_OF_LIST) {
-			if(hypoMainMemory[(int) (currentPtr + 1)] == size) {
-				if(currentPtr == UserFreeList) {
-					UserFreeList = hypoMainMemory[(int) currentPtr];
-					hypoMainMemory[(int) currentPtr] = END_OF_LIST;
-					return currentPtr;
-				}
+	// the running process used its whole time slice, put it back into RQ
+	default void preempted(HypoMachine machine, long PCBptr) {
+		machine.insertIntoRQ(PCBptr);
+	}
 
-				else {
-					hypoMainMemory[(int) previousPtr] = hypoMainMemory[(int) currentPtr];
-					hypoMainMemory[(int) currentPtr] = END_OF_LIST;
-					return currentPtr;
-				}
-			}
+	default void reset(HypoMachine machine) {} // RQ was emptied, forget everything
+	default void created(HypoMachine machine, long PCBptr) {} // a new process got its PCB
+	default void blocked(HypoMachine machine, long PCBptr) {} // the running process is about to wait for I/O
+	default void ran(HypoMachine machine, long PCBptr, long ticks) {} // the process ran for ticks clock ticks
+	default void tick(HypoMachine machine) {} // start of every scheduling round
+	default void terminated(HypoMachine machine, long PCBptr) {} // the process is terminated, its PCB is freed next
+	default boolean usesDeadlines() { return false; } // true to get a period and relative deadline with every run program interrupt
+	default String statistics(HypoMachine machine) { return null; } // counters to report at shutdown, null for none
+	default boolean sharedByCores() { return true; } // false if the policy keeps RQ state of its own and can't serve the RQs of several cores
+}
 
-			else if(hypoMainMemory[(int) (currentPtr + 1)] > size) {
-				if(currentPtr == UserFreeList) {
-					hypoMainMemory[(int) (currentPtr + size)] = hypoMainMemory[(int) currentPtr];
-					hypoMainMemory[(int) (currentPtr + size + 1)] = hypoMainMemory[(int) (currentPtr + 1)] - size;
-					UserFreeList = currentPtr + size;
-					hypoMainMemory[(int) currentPtr] = END_OF_LIST;
-					return currentPtr;
-				}
-				else {
-					hypoMainMemory[(int) (currentPtr + size)] = hypoMainMemory[(int) currentPtr];
-					hypoMainMemory[(int) (currentPtr + size + 1)] = hypoMainMemory[(int) currentPtr + 1] - size;
-					hypoMainMemory[(int) previousPtr] = currentPtr + size;
-					hypoMainMemory[(int) currentPtr] = END_OF_LIST;
-					return currentPtr;
-				}
-			}
-			else {
-				previousPtr = currentPtr;
-				currentPtr = hypoMainMemory[(int) currentPtr];
-			}
-		}
-		System.out.println("\nError: No free memory left. Returning error code: " + ERROR_NO_FREE_MEMORY);
-		return ERROR_NO_FREE_MEMORY;
+
+
+/* the original scheduling: priority round robin, RQ ordered by PCB priority and FIFO within a priority */
+class PriorityRoundRobinPolicy implements SchedulerPolicy {
+	public void insert(HypoMachine machine, long PCBptr) {
+		machine.insertIntoReadyLevel(PCBptr, machine.priorityLevel(PCBptr), false);
 	}
+}
 
 
 
-	/**
-	 * Brian Perel wrote this method 
-	 * 
-	 * Method Name: freeUserMemory
-	 * 
-	 * Method Description: 
-	 *  Free user memory at pointer memory location with amount of size as given by size
-	 *
-	 * Input Parameters:
-	 *  @param ptr: block pointer to free memory for 
-	 *  @param size: size of block to free user memory 
-	 * 
-	 * Output Parameters:
-	 *  None 
-	 *  
-	 * Method Return Values: 
-	 *  @return ERROR_INVALID_MEMORY_ADDRESS: if memory address trying to be freed is out of allowed range
-	 *  @return ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS: if memory address trying to be freed is out of allowed range or improper given size
-	 *  @return OK: success code, if memory was successfully freed  
-	 */
-	public static long freeUserMemory(long ptr, long size) {
+/* strict priority: like priority round robin, but a preempted process goes back in front of its priority,
+so it keeps the CPU until it halts or blocks or a higher priority process gets ready */
+class StrictPriorityPolicy extends PriorityRoundRobinPolicy {
+	public void preempted(HypoMachine machine, long PCBptr) {
+		machine.insertIntoReadyLevel(PCBptr, machine.priorityLevel(PCBptr), true);
+	}
+}
 
-		// check that pointer is in given user free list range
-	    if(ptr < START_ADDR_OF_USER_FREELIST || ptr > END_ADDR_OF_USER_FREELIST) {
-	 		System.out.println("Error: Invalid memory address, memory address given is outside user free list range. Returning error code: " + ERROR_INVALID_MEMORY_ADDRESS);
-	 		return ERROR_INVALID_MEMORY_ADDRESS;
-   		}
 
-		// check for minimum allocated size, which is 2 even if user asks for 1 location
-		if(size == 1) {
-			size = 2; // minimum allocated size
-		}
-		else if(size < 1 || ((ptr + size) >= MAX_MEMORY_ADDRESS)) {
-			System.out.println("Error: Invalid memory address, memory address given is outside memory address range. Returning error code: " + ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS);
-			return ERROR_INVALID_SIZE_OR_MEMORY_ADDRESS;
-		}
 
-		hypoMainMemory[(int) ptr] = UserFreeList;
-		hypoMainMemory[(int) ptr + 1] = size;
-		UserFreeList = ptr;
+/* first come first served: one FIFO for all processes whatever their priority, a preempted process keeps its place
+at the front. The null process (priority 0) stays on a level below so it only runs when nothing else is ready. */
+class FCFSPolicy implements SchedulerPolicy {
+	int level(HypoMachine machine, long PCBptr) {
+		return (machine.hypoMainMemory.get(PCBptr + HypoMachine.priorityIndex) == 0) ? 0 : 1;
+	}
 
-		return OK;
+	public void insert(HypoMachine machine, long PCBptr) {
+		machine.insertIntoReadyLevel(PCBptr, level(machine, PCBptr), false);
 	}
 
+	public void preempted(HypoMachine machine, long PCBptr) {
+		machine.insertIntoReadyLevel(PCBptr, level(machine, PCBptr), true);
+	}
+}
 
 
-	/**
-	 * Jon Petani wrote this method 
-	 * 
-	 * Method Name: checkAndProcessInterrupt
-	 *
-	 * Method Description: 
-	 *  Read interrupt ID number. Based on the interrupt ID,
-	 *  service the interrupt type by calling appropriate method using switch.
-	 *  The occurrence of an event raises an interrupt in the system, in MTOPS 
-	 *  were dealing with software interrupts raised by system call. 
-	 *  When the interrupt occurs, the OS gets control. 
-	 *  Every time CPU scheduling is done the OS checks for an interrupt. 
-	 *  Only 1 interrupt can occur at a given time in MTOPS 
-	 * 
-	 * Input Parameters: 
-	 *  None
-	 *  
-	 * Output Parameters: 
-	 *  None 
-	 *  
-	 * Method Return Values:
-	 *  @return interruptID: return entered interrupt ID   
-	 *  @throws IOException
-	 */
-	public static long checkAndProcessInterrupt() throws IOException {
 
-		// prompt possible interrupts selection menu
-		System.out.println("\n***********************************************"
-							+ "\n\tPossible Interrupts: \n\t0 - no interrupt"
-							+ "\n\t1 - run program\n\t2 - shutdown system\n\t"
-							+ "3 - input operation completion (io_getc)\n\t"
-							+ "4 - output operation completion (io_putc)\n"
-							+ "\n***********************************************");
+/* multi-level feedback queue: a process starts at level 0 (shortest time slice). Using its whole slice moves it one level down
+to a longer slice, blocking on io_getc/io_putc moves it one level up, and every BOOST_PERIOD clock ticks all processes go back to
+level 0 so long running processes don't starve. MLFQ levels are the top RQ levels, the null process (priority 0) stays below. */
+class MLFQPolicy implements SchedulerPolicy {
+	final static long TIME_SLICES[] = {50, 100, 200, 400}; // time slice of every MLFQ level, level 0 is the highest
+	final static long BOOST_PERIOD = 5000; // clock ticks between two priority boosts
+	int level[] = new int[(int) HypoMachine.MAX_MEMORY_ADDRESS + 1]; // MLFQ level of every process, indexed by PCB address
+	long nextBoost = BOOST_PERIOD; // clock value of the next priority boost
 
-		System.out.print("Please choose an interrupt number: ");
-		
-		// read interrupt ID
-		int interruptID = scan.nextInt();
-		System.out.println("Interrupt ID entered: " + interruptID);
+	public boolean sharedByCores() {
+		return false;
+	}
 
-		// system process's interrupt given
-		switch(interruptID) {
-			case 0: break; // no interrupt
+	boolean isNullProcess(HypoMachine machine, long PCBptr) {
+		return machine.hypoMainMemory.get(PCBptr + HypoMachine.priorityIndex) == 0;
+	}
 
-			case 1: isrRunProgramInterrupt(); // run program
-					break;
+	public void insert(HypoMachine machine, long PCBptr) {
+		int rqLevel = isNullProcess(machine, PCBptr) ? 0 : HypoMachine.PRIORITY_LEVELS - 1 - level[(int) PCBptr];
+		machine.insertIntoReadyLevel(PCBptr, rqLevel, false);
+	}
 
-			case 2: isrShutdownSystem(); // shutdown system
-					break;
+	public long timeSlice(HypoMachine machine, long PCBptr) {
+		return TIME_SLICES[level[(int) PCBptr]];
+	}
 
-			case 3: isrInputCompletionInterrupt(); // input operation completion - io_getc = ISR of interrupt reads 1 character from keyboard
-					break;
+	public void preempted(HypoMachine machine, long PCBptr) {
+		move(machine, PCBptr, 1); // used its whole slice, move to a longer one
+		machine.insertIntoRQ(PCBptr);
+	}
 
-			case 4: isrOutputCompletionInterrupt(); // output operation completion - io_putc = ISR of interrupt reads 1 character from keyboard 
-					break;
+	public void blocked(HypoMachine machine, long PCBptr) {
+		move(machine, PCBptr, -1); // blocked for I/O, move to a shorter slice
+	}
 
-			default: System.out.println("\nError: Invalid interrupt ID entered. Error code: " + ERROR_INVALID_ID); // invalid interrupt ID
-					 break;
-		}
-		return interruptID;
+	public void created(HypoMachine machine, long PCBptr) {
+		level[(int) PCBptr] = 0; // new processes start at the shortest time slice
 	}
 
+	public void reset(HypoMachine machine) {
+		nextBoost = BOOST_PERIOD;
+	}
 
+	public void tick(HypoMachine machine) {
+		if(machine.clock >= nextBoost) {
+			boost(machine);
+		}
+	}
 
-	/**
-	 * Brian Perel wrote this method 
-	 * 
-	 * Method Name: isrRunProgramInterrupt
-	 *
-	 * Method Description: 
-	 *  Run program interrupt service routine (ISR).
-	 *  Read filename and create process. 
-	 *  
-	 * Input Parameters: 
-	 *  None 
-	 *  
-	 * Output Parameters: 
-	 *  None 
-	 *  
-	 * Method Return Values:
-	 *  None 
-	 *  @throws IOException
-	 */
-	public static void isrRunProgramInterrupt() throws IOException {
+	// move a process that is not in RQ levels down (1) or up (-1), staying within the levels
+	void move(HypoMachine machine, long PCBptr, int levels) {
+		if(isNullProcess(machine, PCBptr)) {
+			return;
+		}
 
-		// prompt and read filename
-		System.out.print("Enter name of program to run - machine language program (add .txt to the end): ");
-		String filename = scan.next();
-		
-		// create the process
-		createProcess(filename, DEFAULT_PRIORITY);
+		int newLevel = Math.max(0, Math.min(TIME_SLICES.length - 1, level[(int) PCBptr] + levels));
+
+		if(newLevel != level[(int) PCBptr]) {
+			machine.traceln(HypoMachine.TRACE_EVENTS, "\nMLFQ: PID " + machine.hypoMainMemory.get(PCBptr + HypoMachine.PIDIndex)
+					+ " moves to level " + newLevel + " (time slice " + TIME_SLICES[newLevel] + ")");
+			level[(int) PCBptr] = newLevel;
+		}
 	}
 
+	// put every process back on level 0, processes in RQ are queued again on their new level in their current order
+	void boost(HypoMachine machine) {
+		machine.traceln(HypoMachine.TRACE_EVENTS, "\nMLFQ: priority boost at clock " + machine.clock);
+		nextBoost = machine.clock + BOOST_PERIOD;
 
+		for(long ptr = machine.WQ; ptr != HypoMachine.END_OF_LIST; ptr = machine.hypoMainMemory.get(ptr + HypoMachine.nextPCBptrIndex)) {
+			level[(int) ptr] = 0;
+		}
 
-	/**
-	 * Brian Perel wrote this method 
-	 * 
-	 * Method Name: isrInputCompletionInterrupt
-	 * 
-	 * Method Description: 
-	 *  Method services a 'input completion' request.
-	 *  By reading a PID entered by user, method searches the WQ for the PCB that 
-	 *  is a match. Then read 1 character from the keyboard and store input character in GPR1 in the PCB of the process. 
-	 *  
-	 * Input Parameters: 
-	 *  None 
-	 *  
-	 * Output Parameters: 
-	 *  None 
-	 *  
-	 * Method Return Values: 
-	 *  None 
-	 */
-	public static void isrInputCompletionInterrupt() {
-		System.out.print("\nEnter PID of the process completing input completion interrupt: ");
-		int PID = scan.nextInt();
+		// take RQ apart in order (the walk must not use the links being rewritten), then queue everything again
+		long ready[] = new long[machine.pidTableCount];
+		int count = 0;
 
-		long PCBptr = searchAndRemovePCBFromWQ(PID); // search WQ to find the PCB having the given PID, then remove it 
+		for(long ptr = machine.RQ; ptr != HypoMachine.END_OF_LIST && count < ready.length; ptr = machine.hypoMainMemory.get(ptr + HypoMachine.nextPCBptrIndex)) {
+			ready[count++] = ptr;
+		}
 
-		if(PCBptr > 0) {
-			System.out.println("Enter a character to store: ");
-			char inputCharacter = scan.next().charAt(0);
-			// store inputCharacter in the GPR[1] in the PCB
-			hypoMainMemory[(int) (PCBptr + GPR1Index)] = inputCharacter;
-			hypoMainMemory[(int) (PCBptr + stateIndex)] = READY_STATE;
-			insertIntoRQ(PCBptr);
+		for(int i = 0; i < count; i++) {
+			machine.removeFromRQ(ready[i]);
+			level[(int) ready[i]] = 0;
+		}
+
+		for(int i = 0; i < count; i++) {
+			machine.insertIntoRQ(ready[i]);
 		}
 	}
+}
 
 
 
-	/**
-	 * Brian Perel wrote this method 
-	 * 
-	 * Method Name: isrOutputCompletionInterrupt
-	 * 
-	 * Method Description: 
-	 *  Method serves a 'input completion' request given by user. 
-	 *  It reads a PID entered by user, searches the WQ for the PCB that matches,
-	 *  then displays 1 character from the GPR1 in PCB of the process. 
-	 *  
-	 * Input Parameters: 
-	 *  None 
-	 *  
-	 * Output Parameters: 
-	 *  None 
-	 *  
-	 * Method Return Values: 
-	 *  None 
-	 */
-	public static void isrOutputCompletionInterrupt() {
-		System.out.print("\nEnter PID of the process completing input completion interrupt: ");
-		int PID = scan.nextInt();
+/* fair share: ready processes ordered by virtual runtime in a red-black tree, the process that has had the least weighted CPU
+time runs next. CPU time is charged as ticks * DEFAULT_PRIORITY / priority, so a priority 256 process gets twice the CPU of a
+priority 128 one. New and woken processes start no lower than the smallest virtual runtime run so far, so they can't bank credit
+while away. RQ is linked in memory in tree order with the null process (priority 0) last, it only runs when the tree is empty. */
+class FairSharePolicy implements SchedulerPolicy {
+	long vruntime[] = new long[(int) HypoMachine.MAX_MEMORY_ADDRESS + 1]; // virtual runtime of every process, indexed by PCB address
+	TreeSet<Long> tree = new TreeSet<Long>((a, b) -> (vruntime[(int) (long) a] != vruntime[(int) (long) b])
+			? Long.compare(vruntime[(int) (long) a], vruntime[(int) (long) b]) : Long.compare(a, b)); // ready PCBs, smallest virtual runtime first
+	long minVruntime = 0; // virtual runtime of the last process selected, never goes back
+	long idlePCB = HypoMachine.END_OF_LIST; // the null process while it is ready
 
-		long PCBptr = searchAndRemovePCBFromWQ(PID);
+	public boolean sharedByCores() {
+		return false;
+	}
 
-		if(PCBptr > 0) {
-			// then retrieve index 1 of GPR array and assign to variable
-			char outputCharacter = (char) hypoMainMemory[(int) (PCBptr + GPR1Index)];
+	boolean isNullProcess(HypoMachine machine, long PCBptr) {
+		return machine.hypoMainMemory.get(PCBptr + HypoMachine.priorityIndex) <= 0;
+	}
+
+	// next PCB pointer of the given PCB, or RQ itself for END_OF_LIST
+	void link(HypoMachine machine, Long fromPCB, long toPCB) {
+		if(fromPCB == null) {
+			machine.RQ = toPCB;
+		}
+		else {
+			machine.hypoMainMemory.set(fromPCB + HypoMachine.nextPCBptrIndex, toPCB);
+		}
+	}
 
-			System.out.println("Character in the GPR in PCB: " + outputCharacter);
-			hypoMainMemory[(int) (PCBptr + stateIndex)] = READY_STATE;
-			insertIntoRQ(PCBptr);
+	public void insert(HypoMachine machine, long PCBptr) {
+		machine.hypoMainMemory.set(PCBptr + HypoMachine.stateIndex, HypoMachine.READY_STATE);
+
+		if(isNullProcess(machine, PCBptr)) {
+			idlePCB = PCBptr;
+			machine.hypoMainMemory.set(PCBptr + HypoMachine.nextPCBptrIndex, HypoMachine.END_OF_LIST);
+			link(machine, tree.isEmpty() ? null : tree.last(), PCBptr);
+			return;
 		}
+
+		vruntime[(int) PCBptr] = Math.max(vruntime[(int) PCBptr], minVruntime);
+		tree.add(PCBptr);
+
+		Long higher = tree.higher(PCBptr);
+		machine.hypoMainMemory.set(PCBptr + HypoMachine.nextPCBptrIndex, (higher == null) ? idlePCB : higher);
+		link(machine, tree.lower(PCBptr), PCBptr);
 	}
 
+	public long remove(HypoMachine machine, long PCBptr) {
+		long nextPtr = machine.hypoMainMemory.get(PCBptr + HypoMachine.nextPCBptrIndex);
 
+		if(PCBptr == idlePCB) {
+			idlePCB = HypoMachine.END_OF_LIST;
+			link(machine, tree.isEmpty() ? null : tree.last(), HypoMachine.END_OF_LIST);
+		}
+		else if(tree.contains(PCBptr)) {
+			link(machine, tree.lower(PCBptr), nextPtr);
+			tree.remove(PCBptr);
+		}
+		else {
+			machine.traceln(HypoMachine.TRACE_ERRORS, "\nError: PCB " + PCBptr + " is not in the ready queue. Return error code: " + HypoMachine.ERROR_INVALID_ID);
+			return HypoMachine.ERROR_INVALID_ID;
+		}
 
-	/**
-	 * Brian Perel wrote this method 
-	 * 
-	 * Method Name: isrShutdownSystem
-	 *
-	 * Method Description: 
-	 *  terminate all processes in RQ and WQ and exit from the program.
-	 *  This is the only place that the operating system program should exit.
-	 *  
-	 * Input Parameters: 
-	 *  None 
-	 *  
-	 * Output Parameters: 
-	 *  None 
-	 *  
-	 * Method Return Values: 
-	 *  None 
-	 */
-	public static void isrShutdownSystem() {
+		machine.hypoMainMemory.set(PCBptr + HypoMachine.nextPCBptrIndex, HypoMachine.END_OF_LIST);
+		return HypoMachine.OK;
+	}
 
-		// terminate all processes in RQ one by one
-		long ptr = RQ; // set ptr to first PCB pointed by RQ
+	public long select(HypoMachine machine) {
+		long PCBptr = machine.RQ;
 
-		while(ptr != END_OF_LIST) {
-			RQ = hypoMainMemory[(int) (ptr + nextPCBptrIndex)]; // RQ is set to next PCB using ptr
-			terminateProcess(ptr); // terminate process
-			ptr = RQ;
+		if(PCBptr != HypoMachine.END_OF_LIST) {
+			if(PCBptr != idlePCB) {
+				minVruntime = Math.max(minVruntime, vruntime[(int) PCBptr]);
+			}
+			remove(machine, PCBptr);
 		}
+		return PCBptr;
+	}
 
-		// terminate all processes in WQ one by one
-		ptr = WQ;
+	public void ran(HypoMachine machine, long PCBptr, long ticks) {
+		long priority = machine.hypoMainMemory.get(PCBptr + HypoMachine.priorityIndex);
 
-		while(ptr != END_OF_LIST) {
-			WQ = hypoMainMemory[(int) (ptr + nextPCBptrIndex)]; // RQ is set to next PCB using ptr
-			terminateProcess(ptr); // terminate process
-			ptr = WQ;
+		if(priority > 0) {
+			vruntime[(int) PCBptr] += ticks * HypoMachine.DEFAULT_PRIORITY / priority;
 		}
 	}
 
+	public void created(HypoMachine machine, long PCBptr) {
+		vruntime[(int) PCBptr] = minVruntime;
+	}
 
+	public void reset(HypoMachine machine) {
+		tree.clear();
+		idlePCB = HypoMachine.END_OF_LIST;
+		minVruntime = 0;
+	}
+}
 
-	/**
-	 * Brian Perel wrote this method 
-	 * 
-	 * Method Name: searchAndRemovePCBFromWQ
-	 *
-	 * Method Description: 
-	 *  Search the WQ for the matching PID.
-	 *  When a match is found remove it from WQ and return PCB pointer.
-	 *  If no match is found, return invalid PID error code.
-	 *
-	 * Input Parameters: 
-	 *  @param PID: process ID of which PCB will be removed from WQ
-	 *  
-	 * Output Parameters:
-	 *  None 
-	 *  
-	 * Method Return Values: 
-	 *  @return END_OF_LIST: returns value in END_OF_LIST 
-	 *  @return currentPCBptr: returns current PCBptr 
-	 */
-	public static long searchAndRemovePCBFromWQ(long PID) {
-		long currentPCBptr = WQ;
-		long previousPCBptr = END_OF_LIST;
 
-		// search WQ for a PCB that has the given PID, if a match is found, remove it from WQ and return the PCB pointer
-		while(currentPCBptr != END_OF_LIST) {
-			if(hypoMainMemory[(int) (currentPCBptr + PIDIndex)] == PID) {
 
-				if(previousPCBptr == END_OF_LIST) { // match found, remove from WQ
-					// first PCB
-					WQ = hypoMainMemory[(int) (currentPCBptr + nextPCBptrIndex)];
-				}
+/* earliest deadline first: the ready process whose current job has the earliest absolute deadline runs next, picked from a
+binary min heap. A process declares a period and a relative deadline when it is created: a job is released every period and
+is due relative deadline ticks later. A job is done when the process blocks for I/O or halts. A deadline that passes before
+its job is done is a miss, a periodic process then moves on to the job of its next period. Processes without a deadline run
+after all deadlines, FIFO, and the null process runs last. RQ is linked in memory in arrival order, the heap decides who runs. */
+class EDFPolicy implements SchedulerPolicy {
+	final static long NO_DEADLINE = Long.MAX_VALUE; // deadline of processes that have none
+	long deadline[] = new long[(int) HypoMachine.MAX_MEMORY_ADDRESS + 1]; // absolute deadline of the current job, indexed by PCB address
+	long release[] = new long[(int) HypoMachine.MAX_MEMORY_ADDRESS + 1]; // release time of the current job, indexed by PCB address
+	long arrival[] = new long[(int) HypoMachine.MAX_MEMORY_ADDRESS + 1]; // insert order, breaks deadline ties FIFO
+	boolean fresh[] = new boolean[(int) HypoMachine.MAX_MEMORY_ADDRESS + 1]; // process not queued yet, its first job starts when it is
+	int heapPosition[] = new int[(int) HypoMachine.MAX_MEMORY_ADDRESS + 1]; // index of every PCB in heap, -1 if not in it
+	long readyPrevious[] = new long[(int) HypoMachine.MAX_MEMORY_ADDRESS + 1]; // previous PCB in the RQ arrival list
+	long heap[] = new long[64]; // ready PCBs, earliest deadline at heap[0]
+	int heapSize = 0;
+	long readyTail = HypoMachine.END_OF_LIST; // last PCB of the RQ arrival list
+	long arrivals = 0; // insert counter
+	long jobsMet = 0; // jobs done by their deadline
+	long jobsMissed = 0; // deadlines passed before the job was done
+
+	public boolean sharedByCores() {
+		return false;
+	}
 
-				else {
-					// not first PCB
-					hypoMainMemory[(int) (previousPCBptr + nextPCBptrIndex)] =
-							hypoMainMemory[(int) (previousPCBptr + nextPCBptrIndex)];
-				}
+	public boolean usesDeadlines() {
+		return true;
+	}
 
-				hypoMainMemory[(int) (currentPCBptr + nextPCBptrIndex)] = END_OF_LIST;
-				return currentPCBptr;
-			}
-			previousPCBptr = currentPCBptr;
-			currentPCBptr = hypoMainMemory[(int) (currentPCBptr + nextPCBptrIndex)];
+	// deadline order: earliest deadline, then the null process last, then arrival
+	boolean before(HypoMachine machine, long a, long b) {
+		if(deadline[(int) a] != deadline[(int) b]) {
+			return deadline[(int) a] < deadline[(int) b];
 		}
 
-		// No matching PCB is found, display PID message and return end of list code
-		System.out.println("PID not found");
-		return END_OF_LIST;
+		boolean aIdle = machine.hypoMainMemory.get(a + HypoMachine.priorityIndex) == 0;
+		boolean bIdle = machine.hypoMainMemory.get(b + HypoMachine.priorityIndex) == 0;
+
+		if(aIdle != bIdle) {
+			return bIdle;
+		}
+		return arrival[(int) a] < arrival[(int) b];
 	}
 
+	void heapSet(int index, long PCBptr) {
+		heap[index] = PCBptr;
+		heapPosition[(int) PCBptr] = index;
+	}
 
+	void siftUp(HypoMachine machine, int index) {
+		long PCBptr = heap[index];
+		while(index > 0 && before(machine, PCBptr, heap[(index - 1) / 2])) {
+			heapSet(index, heap[(index - 1) / 2]);
+			index = (index - 1) / 2;
+		}
+		heapSet(index, PCBptr);
+	}
 
-	/**
-	 * Jon Petani wrote this method 
-	 * 
-	 * Method Name: systemCall
-	 * 
-	 * Method Description: 
-	 *  Method takes a system call ID as argument and runs command that is 
-	 *  associated to this specific system call ID. 
-	 *  
-	 * Input Parameters: 
-	 *  @param systemCallID: system call ID number 
-	 * 
-	 * Output Parameters: 
-	 *  None 
-	 *  
-	 * Method Return Values: 
-	 *  @return status: returns status of method 
-	 */
-	public static long systemCall(long systemCallID) {
+	void siftDown(HypoMachine machine, int index) {
+		long PCBptr = heap[index];
+		while(2 * index + 1 < heapSize) {
+			int child = 2 * index + 1;
+			if(child + 1 < heapSize && before(machine, heap[child + 1], heap[child])) {
+				child++;
+			}
+			if(!before(machine, heap[child], PCBptr)) {
+				break;
+			}
+			heapSet(index, heap[child]);
+			index = child;
+		}
+		heapSet(index, PCBptr);
+	}
 
-		psr = OSMode;
-		long status = OK;
+	// start the job released at releaseTime
+	void startJob(HypoMachine machine, long PCBptr, long releaseTime) {
+		long relativeDeadline = machine.processRelativeDeadline[(int) PCBptr];
+		release[(int) PCBptr] = releaseTime;
+		deadline[(int) PCBptr] = (relativeDeadline > 0) ? releaseTime + relativeDeadline : NO_DEADLINE;
+	}
 
-		switch((int) systemCallID) {
-			// create process = user process is creating a child process
-			case 1: System.out.println("Create process system call not implemented");
-					break;
-	
-			// delete process
-			case 2: System.out.println("Delete process system call not implemented");
-					break;
-	
-			// process inquiry
-			case 3: System.out.println("Process inquery system call not implemented");
-					break;
-	
-			// dynamic memory allocation: allocate user free memory system call
-			case 4: status = memAllocSystemCall();
-					break;
-	
-			// free dynamically allocated user memory system call
-			case 5: status = memFreeSystemCall();
-					break;
-	
-			// message send
-			case 6: System.out.println("Message send system call not implemented");
-					break;
-	
-			// message receive
-			case 7: System.out.println("Message receive system call not implemented");
-					break;
-	
-			// IO_getC - input a single character
-			case 8: status = io_getcSystemCall();
-					break;
-	
-			// IO_getC - output a single character
-			case 9: status = io_putcSystemCall();
-					break;
-	
-			// invalid system call ID
-			default: System.out.println("Invalid system call ID error");
-					break;
-		}
+	// count the deadlines of a process not in the heap that passed, a periodic process moves on to its current period's job
+	void checkDeadline(HypoMachine machine, long PCBptr) {
+		long period = machine.processPeriod[(int) PCBptr];
 
-		psr = UserMode;
+		while(deadline[(int) PCBptr] < machine.clock) {
+			jobsMissed++;
+			machine.traceln(HypoMachine.TRACE_EVENTS, "\nEDF: PID " + machine.hypoMainMemory.get(PCBptr + HypoMachine.PIDIndex)
+					+ " missed its deadline " + deadline[(int) PCBptr] + " at clock " + machine.clock);
 
-		return status;
+			if(period > 0) {
+				startJob(machine, PCBptr, release[(int) PCBptr] + period);
+			}
+			else {
+				deadline[(int) PCBptr] = NO_DEADLINE;
+			}
+		}
 	}
 
+	// the current job is done: count it, a periodic process gets the job of its next period
+	void jobDone(HypoMachine machine, long PCBptr) {
+		checkDeadline(machine, PCBptr);
 
+		if(deadline[(int) PCBptr] == NO_DEADLINE) {
+			return;
+		}
 
-	/**
-	 * Jon Petani wrote this method 
-	 * 
-	 * Method Name: memAllocSystemCall
-	 * 
-	 * Method Description: 
-	 *  Method takes a system call.
-	 *  
-	 * Input Parameters: None 
-	 * 
-	 * Output Parameters: 
-	 *  GPR0: return value code 
-	 *  GPR1: return value code 
-	 *  
-	 * Method Return Values: 
-	 *  @return ERROR_INVALID_MEMORY_SIZE: if invalid memory size is found 
-	 *  @return GPR[0]: returns value of CPU GPR index 0 
-	 */
-	public static long memAllocSystemCall() {
-		long size = gpr[2];
+		jobsMet++;
+		long period = machine.processPeriod[(int) PCBptr];
 
-		// check for size out of range
-		if(size < 1 || size > START_ADDR_OF_USER_FREELIST) {
-			System.out.println("The size of requested memory to be freed is out of range");
-			return ERROR_INVALID_MEMORY_SIZE;
+		if(period > 0) {
+			startJob(machine, PCBptr, release[(int) PCBptr] + period);
+		}
+		else {
+			deadline[(int) PCBptr] = NO_DEADLINE;
 		}
+	}
 
-		// check size of 1 and change it to 2
-		if(size == 1) {
-			size = 2;
+	public void insert(HypoMachine machine, long PCBptr) {
+		machine.hypoMainMemory.set(PCBptr + HypoMachine.stateIndex, HypoMachine.READY_STATE);
+
+		if(fresh[(int) PCBptr]) {
+			fresh[(int) PCBptr] = false;
+			startJob(machine, PCBptr, machine.clock);
 		}
 
-		gpr[1] = allocateUserMemory(size);
+		// append to the RQ arrival list
+		machine.hypoMainMemory.set(PCBptr + HypoMachine.nextPCBptrIndex, HypoMachine.END_OF_LIST);
+		readyPrevious[(int) PCBptr] = readyTail;
 
-		if(gpr[1] < 0) {
-			gpr[0] = gpr[1]; // set gpr0 to have the return status
+		if(readyTail == HypoMachine.END_OF_LIST) {
+			machine.RQ = PCBptr;
 		}
 		else {
-			gpr[0] = OK;
+			machine.hypoMainMemory.set(readyTail + HypoMachine.nextPCBptrIndex, PCBptr);
 		}
+		readyTail = PCBptr;
 
-		System.out.println(memAllocSystemCall() + "\n" + gpr[0] + gpr[1] + gpr[2] + "\n");
-		return gpr[0];
+		// and to the heap
+		if(heapSize == heap.length) {
+			heap = Arrays.copyOf(heap, heap.length * 2);
+		}
+		arrival[(int) PCBptr] = arrivals++;
+		heapSet(heapSize++, PCBptr);
+		siftUp(machine, heapSize - 1);
 	}
 
+	public long remove(HypoMachine machine, long PCBptr) {
+		int index = heapPosition[(int) PCBptr];
 
-
-	/**
-	 * Jon Petani wrote this method 
-	 * 
-	 * Method Name: memFreeSystemCall
-	 * 
-	 * Method Description: 
-	 *  Method takes a system call. 
-	 *  
-	 * Input Parameters: 
-	 *  None
-	 *
-	 * Output Parameters: 
-	 *  None 
-	 * 
-	 * Method Return Values: 
-	 *  @return GPR[0]: return value code of GPR[0]
-	 */
-	public static long memFreeSystemCall() {
-		long size = gpr[2];
-		
-		// check for size out of range
-		if(size < 1 || size > START_ADDR_OF_USER_FREELIST) {
-			System.out.println("The size of requested memory to be freed is out of range");
-			return ERROR_INVALID_MEMORY_SIZE;
+		if(index < 0 || index >= heapSize || heap[index] != PCBptr) {
+			machine.traceln(HypoMachine.TRACE_ERRORS, "\nError: PCB " + PCBptr + " is not in the ready queue. Return error code: " + HypoMachine.ERROR_INVALID_ID);
+			return HypoMachine.ERROR_INVALID_ID;
 		}
 
-		// check size of 1 and change it to 2
-		if(size == 1) {
-			size = 2;
+		// out of the heap: the last entry fills the hole
+		heapPosition[(int) PCBptr] = -1;
+		heapSize--;
+		if(index < heapSize) {
+			long movedPtr = heap[heapSize];
+			heapSet(index, movedPtr);
+			siftDown(machine, index);
+			siftUp(machine, heapPosition[(int) movedPtr]);
 		}
 
-		gpr[0] = freeUserMemory(gpr[1], size);
-
-		System.out.println(memFreeSystemCall() + "\n" + gpr[0] + gpr[1] + gpr[2] + "\n");
-		return gpr[0];
-	}
+		// out of the RQ arrival list
+		long previousPtr = readyPrevious[(int) PCBptr];
+		long nextPtr = machine.hypoMainMemory.get(PCBptr + HypoMachine.nextPCBptrIndex);
 
+		if(previousPtr == HypoMachine.END_OF_LIST) {
+			machine.RQ = nextPtr;
+		}
+		else {
+			machine.hypoMainMemory.set(previousPtr + HypoMachine.nextPCBptrIndex, nextPtr);
+		}
 
+		if(nextPtr == HypoMachine.END_OF_LIST) {
+			readyTail = previousPtr;
+		}
+		else {
+			readyPrevious[(int) nextPtr] = previousPtr;
+		}
 
-	/**
-	 * Brian Perel wrote this method 
-	 * 
-	 * Method Name: io_getcSystemCall
-	 * 
-	 * Method Description: 
-	 *  Method takes a system call.
-	 *  
-	 * Input Parameters: 
-	 *  None 
-	 *  
-	 * Output Parameters: 
-	 *  None 
-	 *
-	 * Method Return Values: 
-	 *  @return IO_GETCINTERRUPT: returns value in variable 
-	 */
-	public static long io_getcSystemCall() {
-		return IO_GETCINTERRUPT;
+		machine.hypoMainMemory.set(PCBptr + HypoMachine.nextPCBptrIndex, HypoMachine.END_OF_LIST);
+		return HypoMachine.OK;
 	}
 
+	public long select(HypoMachine machine) {
+		if(heapSize == 0) {
+			return HypoMachine.END_OF_LIST;
+		}
 
-
-	/**
-	 * Brian Perel wrote this method 
-	 * 
-	 * Method Name: io_putcSystemCall
-	 * 
-	 * Method Description: 
-	 *  Method takes a system call. 
-	 *
-	 * Input Parameters:
-	 *  None 
-	 *  
-	 * Output Parameters: 
-	 *  None 
-	 *
-	 * method Return values;
-	 *  @return IO_PUTCINTERRUPT: returns value in variable 
-	 */
-	public static long io_putcSystemCall() {
-		return IO_PUTCINTERRUPT;
+		long PCBptr = heap[0];
+		remove(machine, PCBptr);
+		checkDeadline(machine, PCBptr);
+		return PCBptr;
 	}
-}
-
 
+	public void ran(HypoMachine machine, long PCBptr, long ticks) {
+		checkDeadline(machine, PCBptr);
+	}
 
-/* class to return multiple values (status, Op1Address, Op1Value) to CPU at once */
-class returnFetchOps {
-	long stat;
-	long OpAddress;
-	long OpValue;
+	public void blocked(HypoMachine machine, long PCBptr) {
+		jobDone(machine, PCBptr);
+	}
 
-	public returnFetchOps(long stat, long OpAddress, long OpValue) {
-		this.OpAddress = OpAddress;
-		this.OpValue = OpValue;
-		this.stat = stat;
+	public void terminated(HypoMachine machine, long PCBptr) {
+		// only a halted process finished its job: a waiting one was counted when it blocked, a ready one is shut down,
+		// a fresh one never got as far as the ready queue (its creation failed)
+		if(!fresh[(int) PCBptr] && heapPosition[(int) PCBptr] < 0 && machine.hypoMainMemory.get(PCBptr + HypoMachine.stateIndex) != HypoMachine.WAITING_STATE) {
+			jobDone(machine, PCBptr);
+		}
 	}
-	public long getOpAddress() {
-		return OpAddress;
+
+	public void created(HypoMachine machine, long PCBptr) {
+		fresh[(int) PCBptr] = true;
+		heapPosition[(int) PCBptr] = -1;
 	}
-	public long getOpValue() {
-		return OpValue;
+
+	public void reset(HypoMachine machine) {
+		heapSize = 0;
+		readyTail = HypoMachine.END_OF_LIST;
+		Arrays.fill(heapPosition, -1);
 	}
-	public long getStat() {
-		return stat;
+
+	public String statistics(HypoMachine machine) {
+		long jobs = jobsMet + jobsMissed;
+		return String.format("EDF: %d jobs met their deadline, %d deadlines missed (%.1f%% missed)",
+				jobsMet, jobsMissed, (jobs == 0) ? 0.0 : 100.0 * jobsMissed / jobs);
 	}
-}
\ No newline at end of file
+}